@@ -44,6 +44,16 @@ android {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
     }
+
+    // 🔹 Offline road graph (tools/osm-graph) is memory-mapped straight from the APK
+    androidResources {
+        noCompress += "gtrg"
+    }
+
+    // 🔹 JVM unit tests: android.util.Log and friends return defaults instead of throwing
+    testOptions {
+        unitTests.isReturnDefaultValues = true
+    }
 }
 
 dependencies {
@@ -54,6 +64,7 @@ dependencies {
     implementation(libs.play.services.location)
     implementation(libs.firebase.messaging)
     testImplementation(libs.junit)
+    testImplementation("com.squareup.okhttp3:mockwebserver:4.10.0")
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
     implementation("com.android.volley:volley:1.2.1")
@@ -0,0 +1,49 @@
+package com.example.g_trackapp;
+
+import android.content.Context;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+
+/**
+ * 🌐 AppHttpClient
+ * The one OkHttp client for the whole process: a single connection pool
+ * (TLS sessions and HTTP/2 connections are reused across screens), a single
+ * dispatcher, an on-disk HTTP cache and per-call timings via {@link HttpCallMetrics}.
+ * Screens that need different timeouts should derive with {@code get(context).newBuilder()},
+ * which keeps the shared pool, dispatcher and cache.
+ */
+public final class AppHttpClient {
+
+    private static final long CACHE_BYTES = 10 * 1024 * 1024;
+
+    private static OkHttpClient client;
+    private static HttpCallMetrics metrics;
+
+    private AppHttpClient() {}
+
+    public static synchronized OkHttpClient get(Context context) {
+        if (client == null) {
+            metrics = new HttpCallMetrics();
+            // No explicit Accept-Encoding: OkHttp already asks for gzip and only
+            // unzips transparently when it added the header itself
+            client = new OkHttpClient.Builder()
+                    .cache(new Cache(new File(context.getApplicationContext().getCacheDir(), "http_cache"), CACHE_BYTES))
+                    .connectionPool(new ConnectionPool(5, 5, TimeUnit.MINUTES))
+                    .connectTimeout(15, TimeUnit.SECONDS)
+                    .readTimeout(20, TimeUnit.SECONDS)
+                    .eventListenerFactory(metrics)
+                    .build();
+        }
+        return client;
+    }
+
+    public static synchronized HttpCallMetrics metrics(Context context) {
+        get(context);
+        return metrics;
+    }
+}
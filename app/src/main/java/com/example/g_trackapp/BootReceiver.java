@@ -9,6 +9,9 @@ public class BootReceiver extends BroadcastReceiver {
     @Override
     public void onReceive(Context context, Intent intent) {
         if (Intent.ACTION_BOOT_COMPLETED.equals(intent.getAction())) {
+            // Nothing to track (or replay from the outbox) without a collector session
+            if (!new CollectorSessionManager(context).isLoggedIn()) return;
+
             Log.d("BootReceiver", "Device rebooted, restarting location service...");
             Intent serviceIntent = new Intent(context, CollectorLocationService.class);
             serviceIntent.setAction("START_LOCATION_UPDATES");
@@ -0,0 +1,101 @@
+package com.example.g_trackapp;
+
+import android.util.Log;
+
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 🛰️ CellSubscriptions
+ * Keeps one Firestore snapshot listener per geohash cell of a collection and
+ * re-targets them incrementally: cells that enter the view get a listener,
+ * cells that leave it lose theirs. The number of live listeners is capped.
+ */
+public class CellSubscriptions {
+
+    private static final String TAG = "CellSubscriptions";
+
+    public interface Listener {
+        void onCellSnapshot(String cell, QuerySnapshot snapshot);
+
+        /** The cell's listener was removed; anything it reported is no longer tracked */
+        void onCellRemoved(String cell);
+    }
+
+    private final FirebaseFirestore db;
+    private final String collection;
+    private final int maxCells;
+    private final Listener listener;
+
+    private final Map<String, ListenerRegistration> active = new LinkedHashMap<>();
+
+    public CellSubscriptions(FirebaseFirestore db, String collection, int maxCells, Listener listener) {
+        this.db = db;
+        this.collection = collection;
+        this.maxCells = maxCells;
+        this.listener = listener;
+    }
+
+    /** Subscribe to exactly {@code cells} (first {@code maxCells} of them), reusing existing listeners */
+    public void retarget(Collection<String> cells) {
+        Set<String> wanted = new HashSet<>();
+        for (String cell : cells) {
+            if (wanted.size() >= maxCells) break;
+            wanted.add(cell);
+        }
+
+        List<String> removed = new ArrayList<>();
+        for (String cell : active.keySet()) {
+            if (!wanted.contains(cell)) removed.add(cell);
+        }
+        for (String cell : removed) {
+            active.remove(cell).remove();
+            listener.onCellRemoved(cell);
+        }
+
+        int added = 0;
+        for (String cell : wanted) {
+            if (active.containsKey(cell)) continue;
+            active.put(cell, subscribe(cell));
+            added++;
+        }
+
+        if (added > 0 || !removed.isEmpty()) {
+            Log.d(TAG, collection + ": +" + added + " −" + removed.size() + " cells, " + active.size() + " live");
+        }
+    }
+
+    public Set<String> activeCells() {
+        return active.keySet();
+    }
+
+    public void clear() {
+        for (ListenerRegistration registration : active.values()) registration.remove();
+        active.clear();
+    }
+
+    private ListenerRegistration subscribe(String cell) {
+        String[] range = GeoCell.range(cell);
+        return db.collection(collection)
+                .whereGreaterThanOrEqualTo(GeoCell.FIELD, range[0])
+                .whereLessThan(GeoCell.FIELD, range[1])
+                .addSnapshotListener((snapshot, e) -> {
+                    if (e != null) {
+                        Log.e(TAG, collection + " cell " + cell + " listen failed", e);
+                        return;
+                    }
+                    // A late event from a listener we already dropped must not resurrect markers
+                    if (snapshot == null || !active.containsKey(cell)) return;
+                    listener.onCellSnapshot(cell, snapshot);
+                });
+    }
+}
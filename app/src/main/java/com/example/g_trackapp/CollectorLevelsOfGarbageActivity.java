@@ -4,9 +4,8 @@ import android.Manifest;
 import android.content.Intent;
 import android.content.SharedPreferences;
 import android.content.pm.PackageManager;
-import android.location.Address;
-import android.location.Geocoder;
 import android.os.Bundle;
+import android.view.View;
 import android.widget.Button;
 import android.widget.ImageView;
 import android.widget.PopupMenu;
@@ -20,13 +19,11 @@ import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.CollectionReference;
 import com.google.android.gms.location.FusedLocationProviderClient;
 import com.google.android.gms.location.LocationServices;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.List;
 import java.util.Locale;
 import java.util.HashMap;
 import java.util.Map;
@@ -34,13 +31,15 @@ import java.util.Map;
 public class CollectorLevelsOfGarbageActivity extends AppCompatActivity {
 
     private Button btnLow, btnMedium, btnHigh, btnExtreme, btnConfirm;
-    private TextView tvSelectedAddress;
+    private TextView tvSelectedAddress, tvPendingReports;
     private String selectedLevel = "";
     private String selectedAddress = "";
+    private Double selectedLatitude, selectedLongitude;
     private FusedLocationProviderClient fusedLocationClient;
     private FirebaseFirestore db;
     private String currentCollectorId;
     private String collectorFullName = "Unknown";
+    private final GarbageReportSync.PendingListener pendingListener = this::showPendingReports;
 
     private static final int LOCATION_PERMISSION_REQUEST = 100;
 
@@ -53,15 +52,15 @@ public class CollectorLevelsOfGarbageActivity extends AppCompatActivity {
         fusedLocationClient = LocationServices.getFusedLocationProviderClient(this);
 
         tvSelectedAddress = findViewById(R.id.tvSelectedAddress);
+        tvPendingReports = findViewById(R.id.tvPendingReports);
         btnLow = findViewById(R.id.btnLow);
         btnMedium = findViewById(R.id.btnMedium);
         btnHigh = findViewById(R.id.btnHigh);
         btnExtreme = findViewById(R.id.btnExtreme);
         btnConfirm = findViewById(R.id.btnConfirm);
 
-        // Load collector ID from SharedPreferences
-        SharedPreferences prefs = getSharedPreferences("UserPrefs", MODE_PRIVATE);
-        currentCollectorId = prefs.getString("collectorId", null);
+        // Load collector ID from the collector session
+        currentCollectorId = new CollectorSessionManager(this).getCollectorId();
         if (currentCollectorId != null) {
             fetchCollectorFullName(currentCollectorId);
         } else {
@@ -101,6 +100,23 @@ public class CollectorLevelsOfGarbageActivity extends AppCompatActivity {
         findViewById(R.id.btnAlarm).setOnClickListener(v ->
                 Toast.makeText(this, "Alarm clicked", Toast.LENGTH_SHORT).show()
         );
+
+        GarbageReportSync.getInstance(this).addPendingListener(pendingListener);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        GarbageReportSync.getInstance(this).removePendingListener(pendingListener);
+    }
+
+    private void showPendingReports(int pending) {
+        if (pending == 0) {
+            tvPendingReports.setVisibility(View.GONE);
+            return;
+        }
+        tvPendingReports.setText(pending == 1 ? "1 report waiting to upload" : pending + " reports waiting to upload");
+        tvPendingReports.setVisibility(View.VISIBLE);
     }
 
     private void selectLevel(String level) {
@@ -119,17 +135,18 @@ public class CollectorLevelsOfGarbageActivity extends AppCompatActivity {
 
         fusedLocationClient.getLastLocation().addOnSuccessListener(this, location -> {
             if (location != null) {
-                Geocoder geocoder = new Geocoder(this, Locale.getDefault());
-                try {
-                    List<Address> addresses = geocoder.getFromLocation(location.getLatitude(), location.getLongitude(), 1);
-                    if (addresses != null && !addresses.isEmpty()) {
-                        selectedAddress = addresses.get(0).getAddressLine(0);
+                selectedLatitude = location.getLatitude();
+                selectedLongitude = location.getLongitude();
+                // 🔹 Cached per street-sized cell; a miss resolves off the main thread
+                ReverseGeocoder.getInstance(this).lookup(selectedLatitude, selectedLongitude, address -> {
+                    if (isFinishing() || isDestroyed()) return;
+                    if (address != null) {
+                        selectedAddress = address;
                         tvSelectedAddress.setText(selectedAddress);
+                    } else {
+                        Toast.makeText(this, "Failed to get address", Toast.LENGTH_SHORT).show();
                     }
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    Toast.makeText(this, "Failed to get address", Toast.LENGTH_SHORT).show();
-                }
+                });
             } else {
                 Toast.makeText(this, "Location not available", Toast.LENGTH_SHORT).show();
             }
@@ -161,12 +178,22 @@ public class CollectorLevelsOfGarbageActivity extends AppCompatActivity {
         data.put("location", address);
         data.put("date", date);
         data.put("time", time);
+        // 🔹 Route planning picks up open reports as stops
+        data.put("status", "open");
+        data.put("collectorId", currentCollectorId);
+        if (selectedLatitude != null && selectedLongitude != null) {
+            data.put("latitude", selectedLatitude);
+            data.put("longitude", selectedLongitude);
+            data.put(GeoCell.FIELD, GeoCell.encode(selectedLatitude, selectedLongitude));
+        }
 
-        CollectionReference colRef = db.collection("garbagelevel");
-        colRef.add(data).addOnSuccessListener(docRef -> {
-            Toast.makeText(this, "Successfully saved Garbage Level!", Toast.LENGTH_SHORT).show();
-        }).addOnFailureListener(e -> {
-            Toast.makeText(this, "Failed to save: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+        // 🔹 Queued on disk right away; committed in batches when online
+        GarbageReportSync.getInstance(this).enqueue(data, queued -> {
+            if (queued) {
+                Toast.makeText(this, "Successfully saved Garbage Level!", Toast.LENGTH_SHORT).show();
+            } else {
+                Toast.makeText(this, "Failed to save report", Toast.LENGTH_SHORT).show();
+            }
         });
     }
 
@@ -1,13 +1,19 @@
 package com.example.g_trackapp;
 
 import android.Manifest;
+import android.annotation.SuppressLint;
 import android.app.*;
 import android.content.Context;
 import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.location.Location;
+import android.net.ConnectivityManager;
+import android.net.Network;
 import android.os.Build;
+import android.os.Handler;
 import android.os.IBinder;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
@@ -16,8 +22,18 @@ import androidx.core.app.ActivityCompat;
 import androidx.core.app.NotificationCompat;
 
 import com.google.android.gms.location.*;
+import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.SetOptions;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class CollectorLocationService extends Service {
 
@@ -25,11 +41,41 @@ public class CollectorLocationService extends Service {
     private static final String CHANNEL_ID = "collector_location_channel";
     private static final int NOTIFICATION_ID = 101;
 
+    // 🔹 Hot position data lives apart from the collector profile (collectors/{id})
+    static final String POSITIONS_COLLECTION = "collector_positions";
+
+    // 🔹 Uplink: at most one Firestore write per cadence window, skipped fixes ride along as a trail
+    private static final long UPLINK_CADENCE_MS = 15000;
+    private static final int UPLINK_MAX_TRAIL_POINTS = 50;
+
+    // 🔹 Outbox: unconfirmed fixes on disk, replayed on reconnect (~10 h at 5 s fits before compaction)
+    private static final String OUTBOX_FILE = "position_outbox.bin";
+    private static final int OUTBOX_MAX_RECORDS = 8000;
+    // 🔹 A failed replay is retried with backoff while online (not only on the next reconnect)
+    private static final long REPLAY_RETRY_MIN_MS = 5000;
+    private static final long REPLAY_RETRY_MAX_MS = 5 * 60000;
+
     private FusedLocationProviderClient fusedLocationClient;
     private LocationCallback locationCallback;
     private FirebaseFirestore db;
     private CollectorSessionManager sessionManager;
     private NotificationManager notificationManager;
+    private LocationUplink uplink;
+    private final SamplingPolicy samplingPolicy = new SamplingPolicy();
+    private final FixFilter fixFilter = new FixFilter();
+    private final Handler uplinkHandler = new Handler(Looper.getMainLooper());
+    private final Runnable uplinkFlush = () -> uplink.flush(SystemClock.elapsedRealtime());
+
+    private PositionOutbox outbox;
+    private final ExecutorService outboxExecutor = Executors.newSingleThreadExecutor();
+    private ConnectivityManager connectivityManager;
+    private volatile boolean online = true;
+    private boolean replaying = false;
+    private long replayRetryMs = REPLAY_RETRY_MIN_MS;
+    private final Runnable replayRetry = this::replayOutbox;
+    // Newest fix sent as the live position (set when the write is issued, not when it lands)
+    private long lastIssuedFixMillis = Long.MIN_VALUE;
+    private ListenerRegistration positionDebugListener;
 
     @Override
     public void onCreate() {
@@ -40,22 +86,26 @@ public class CollectorLocationService extends Service {
         db = FirebaseFirestore.getInstance();
         sessionManager = new CollectorSessionManager(this);
         notificationManager = (NotificationManager) getSystemService(Context.NOTIFICATION_SERVICE);
+        uplink = new LocationUplink(this::publishCollectorLocation, UPLINK_CADENCE_MS, UPLINK_MAX_TRAIL_POINTS);
+        outbox = new PositionOutbox(new File(getFilesDir(), OUTBOX_FILE), OUTBOX_MAX_RECORDS);
 
         createNotificationChannel();
+        registerConnectivityCallback();
 
-        // ✅ Firestore real-time debug log
-        db.collection("collectors")
-                .addSnapshotListener((snapshots, e) -> {
-                    if (e != null) {
-                        Log.e(TAG, "Firestore listen failed", e);
-                        return;
-                    }
-
-                    for (DocumentChange dc : snapshots.getDocumentChanges()) {
-                        Log.d(TAG, "Firestore changed: " + dc.getDocument().getId()
-                                + " → " + dc.getDocument().getData());
-                    }
-                });
+        // ✅ Firestore real-time debug log (own position document only)
+        String collectorId = sessionManager.getCollectorId();
+        if (collectorId != null && !collectorId.trim().isEmpty()) {
+            positionDebugListener = positionDocument(collectorId)
+                    .addSnapshotListener((snapshot, e) -> {
+                        if (e != null) {
+                            Log.e(TAG, "Firestore listen failed", e);
+                            return;
+                        }
+                        if (snapshot != null && snapshot.exists()) {
+                            Log.d(TAG, "Position changed: " + snapshot.getData());
+                        }
+                    });
+        }
     }
 
     @Override
@@ -66,6 +116,7 @@ public class CollectorLocationService extends Service {
             Log.d(TAG, "Starting location updates...");
             startAsForeground();
             startLocationUpdates();
+            replayOutbox();
         } else if ("STOP_LOCATION_UPDATES".equals(action)) {
             Log.d(TAG, "Stopping location updates...");
             stopLocationUpdates();
@@ -127,26 +178,23 @@ public class CollectorLocationService extends Service {
      * Request continuous location updates with safety checks
      */
     private void startLocationUpdates() {
-        LocationRequest locationRequest = new LocationRequest.Builder(
-                Priority.PRIORITY_HIGH_ACCURACY, 5000 // every 5 seconds
-        )
-                .setMinUpdateDistanceMeters(10) // update every 10 meters
-                .build();
-
         locationCallback = new LocationCallback() {
             @Override
             public void onLocationResult(@NonNull LocationResult locationResult) {
+                long now = SystemClock.elapsedRealtime();
                 for (Location location : locationResult.getLocations()) {
                     if (location != null) {
-                        double lat = location.getLatitude();
-                        double lon = location.getLongitude();
-                        updateCollectorLocation(lat, lon);
-                        Log.d(TAG, "Updated location: " + lat + ", " + lon);
+                        GeoFix fix = fixFilter.filter(toGeoFix(location));
+                        if (fix == null) continue; // outlier
+
+                        applySamplingState(samplingPolicy.observe(fix));
+                        if (!fixFilter.shouldPublish(fix)) continue; // stationary noise
 
-                        // Optional: update notification dynamically
-                        updateNotification("Tracking Active", "Lat: " + lat + ", Lon: " + lon);
+                        appendToOutbox(fix);
+                        if (online) uplink.offer(fix, now);
                     }
                 }
+                scheduleUplinkFlush(now);
             }
         };
 
@@ -156,6 +204,30 @@ public class CollectorLocationService extends Service {
             return;
         }
 
+        requestLocationUpdates(samplingPolicy.getState());
+    }
+
+    /**
+     * Re-issue the location request when the sampling policy changes state
+     */
+    private void applySamplingState(@Nullable SamplingPolicy.State next) {
+        if (next == null) return;
+        Log.i(TAG, "Sampling state → " + next + " (interval " + next.intervalMillis
+                + " ms, min distance " + next.minDistanceMeters + " m)");
+        fusedLocationClient.removeLocationUpdates(locationCallback);
+        requestLocationUpdates(next);
+    }
+
+    @SuppressLint("MissingPermission") // checked in startLocationUpdates()
+    private void requestLocationUpdates(SamplingPolicy.State state) {
+        int priority = state == SamplingPolicy.State.PARKED
+                ? Priority.PRIORITY_BALANCED_POWER_ACCURACY
+                : Priority.PRIORITY_HIGH_ACCURACY;
+
+        LocationRequest locationRequest = new LocationRequest.Builder(priority, state.intervalMillis)
+                .setMinUpdateDistanceMeters(state.minDistanceMeters)
+                .build();
+
         fusedLocationClient.requestLocationUpdates(
                 locationRequest,
                 locationCallback,
@@ -170,26 +242,235 @@ public class CollectorLocationService extends Service {
                         == PackageManager.PERMISSION_GRANTED;
     }
 
+    private static GeoFix toGeoFix(Location location) {
+        return new GeoFix(
+                location.getLatitude(),
+                location.getLongitude(),
+                location.hasAccuracy() ? location.getAccuracy() : Float.NaN,
+                location.hasSpeed() ? location.getSpeed() : Float.NaN,
+                location.hasBearing() ? location.getBearing() : Float.NaN,
+                location.getTime()
+        );
+    }
+
+    private DocumentReference positionDocument(String collectorId) {
+        return db.collection(POSITIONS_COLLECTION).document(collectorId);
+    }
+
+    /**
+     * Slim position payload: coordinates, cell key, fix time, sequence and heading only
+     */
+    private Map<String, Object> positionFields(GeoFix fix) {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("latitude", fix.latitude);
+        fields.put("longitude", fix.longitude);
+        fields.put(GeoCell.FIELD, GeoCell.encode(fix.latitude, fix.longitude));
+        fields.put("timestamp", fix.timeMillis);
+        fields.put("seq", sessionManager.nextPositionSeq());
+        fields.put("heading", fix.hasBearing() ? (double) fix.bearing : null);
+        return fields;
+    }
+
+    /**
+     * Make sure a buffered fix still goes out once its cadence window closes,
+     * even if no further fixes arrive (e.g. the truck stops).
+     */
+    private void scheduleUplinkFlush(long nowMillis) {
+        uplinkHandler.removeCallbacks(uplinkFlush);
+        long delay = uplink.millisUntilDue(nowMillis);
+        if (delay >= 0) uplinkHandler.postDelayed(uplinkFlush, delay);
+    }
+
     /**
-     * Firestore: Update collector's location
+     * Firestore: Update collector's location (newest fix + trail of skipped fixes)
      */
-    private void updateCollectorLocation(double latitude, double longitude) {
+    private boolean publishCollectorLocation(GeoFix latest, List<GeoFix> trail) {
         String collectorId = sessionManager.getCollectorId();
         if (collectorId == null || collectorId.trim().isEmpty()) {
             Log.w(TAG, "No collector ID found in session — cannot update Firestore");
-            return;
+            return false;
         }
+        if (!online) return false; // already in the outbox, replayed on reconnect
+
+        Map<String, Object> update = positionFields(latest);
+        update.put("trail", PolylineCodec.encode(trail));
+        lastIssuedFixMillis = Math.max(lastIssuedFixMillis, latest.timeMillis);
 
-        db.collection("collectors").document(collectorId)
-                .update("latitude", latitude, "longitude", longitude)
-                .addOnSuccessListener(aVoid -> Log.d(TAG, "Firestore updated successfully"))
+        positionDocument(collectorId)
+                .set(update, SetOptions.merge())
+                .addOnSuccessListener(aVoid -> {
+                    Log.d(TAG, "Firestore updated successfully");
+                    // During a replay the backlog must stay on disk until its trail is uploaded
+                    if (!replaying) ackOutbox(latest.timeMillis);
+                })
                 .addOnFailureListener(e -> Log.e(TAG, "Error updating Firestore", e));
+
+        Log.d(TAG, "Uplink: " + uplink.getFixesReceived() + " fixes → "
+                + uplink.getWritesIssued() + " writes (trail " + trail.size() + "), filter rejected "
+                + fixFilter.getRejected() + ", suppressed " + fixFilter.getSuppressed());
+        updateNotification("Tracking Active", "Lat: " + latest.latitude + ", Lon: " + latest.longitude);
+        return true;
+    }
+
+    private void registerConnectivityCallback() {
+        connectivityManager = (ConnectivityManager) getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (connectivityManager == null) return;
+        online = connectivityManager.getActiveNetwork() != null;
+        connectivityManager.registerDefaultNetworkCallback(networkCallback);
+    }
+
+    private final ConnectivityManager.NetworkCallback networkCallback = new ConnectivityManager.NetworkCallback() {
+        @Override
+        public void onAvailable(@NonNull Network network) {
+            online = true;
+            uplinkHandler.post(CollectorLocationService.this::replayOutbox);
+        }
+
+        @Override
+        public void onLost(@NonNull Network network) {
+            online = false;
+            uplinkHandler.removeCallbacks(replayRetry);
+            Log.d(TAG, "Offline — buffering positions in outbox");
+        }
+    };
+
+    private void appendToOutbox(GeoFix fix) {
+        if (outboxExecutor.isShutdown()) return;
+        outboxExecutor.execute(() -> {
+            try {
+                outbox.append(fix);
+            } catch (IOException e) {
+                Log.e(TAG, "Outbox append failed", e);
+            }
+        });
+    }
+
+    private void ackOutbox(long throughMillis) {
+        if (outboxExecutor.isShutdown()) return;
+        outboxExecutor.execute(() -> {
+            try {
+                outbox.ackThrough(throughMillis);
+            } catch (IOException e) {
+                Log.e(TAG, "Outbox ack failed", e);
+            }
+        });
+    }
+
+    /** Ack exactly what a replay read and uploaded (no second pass over the file) */
+    private void ackOutbox(PositionOutbox.Pending replayed) {
+        if (outboxExecutor.isShutdown()) return;
+        outboxExecutor.execute(() -> {
+            try {
+                outbox.ack(replayed);
+            } catch (IOException e) {
+                Log.e(TAG, "Outbox ack failed", e);
+            }
+        });
+    }
+
+    /**
+     * Replay unconfirmed fixes after a reconnect or restart: the newest fix goes out
+     * first as the live position, the rest follow as one trail document.
+     */
+    private void replayOutbox() {
+        String collectorId = sessionManager.getCollectorId();
+        if (replaying || !online || collectorId == null || collectorId.trim().isEmpty()) return;
+        replaying = true;
+
+        outboxExecutor.execute(() -> {
+            PositionOutbox.Pending pending;
+            try {
+                pending = outbox.readPending();
+            } catch (IOException e) {
+                Log.e(TAG, "Outbox read failed", e);
+                pending = null;
+            }
+            final PositionOutbox.Pending read = pending;
+            uplinkHandler.post(() -> {
+                if (read == null || read.fixes.isEmpty()) {
+                    replaying = false;
+                    return;
+                }
+                uploadReplay(collectorId, read);
+            });
+        });
+    }
+
+    private void uploadReplay(String collectorId, PositionOutbox.Pending read) {
+        List<GeoFix> fixes = read.fixes;
+        GeoFix newest = fixes.get(fixes.size() - 1);
+        List<GeoFix> backlog = fixes.subList(0, fixes.size() - 1);
+        Log.d(TAG, "Replaying outbox: " + fixes.size() + " fixes");
+
+        // The live uplink may already have sent something newer since reconnecting (even if
+        // that write hasn't landed yet); the old fix then only goes into the trail, so it
+        // never takes a sequence number above a newer live fix
+        if (newest.timeMillis <= lastIssuedFixMillis) {
+            uploadReplayTrail(collectorId, backlog, read);
+            return;
+        }
+
+        Map<String, Object> position = positionFields(newest);
+        position.put("trail", "");
+        lastIssuedFixMillis = newest.timeMillis;
+
+        positionDocument(collectorId)
+                .set(position, SetOptions.merge())
+                .addOnSuccessListener(aVoid -> uploadReplayTrail(collectorId, backlog, read))
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Outbox replay failed", e);
+                    onReplayFailed();
+                });
+    }
+
+    private void uploadReplayTrail(String collectorId, List<GeoFix> backlog, PositionOutbox.Pending read) {
+        if (backlog.isEmpty()) {
+            ackOutbox(read);
+            onReplayDone();
+            return;
+        }
+
+        Map<String, Object> trail = new HashMap<>();
+        trail.put("points", PolylineCodec.encode(backlog));
+        trail.put("count", backlog.size());
+        trail.put("fromMillis", backlog.get(0).timeMillis);
+        trail.put("toMillis", backlog.get(backlog.size() - 1).timeMillis);
+
+        positionDocument(collectorId)
+                .collection("trails")
+                .add(trail)
+                .addOnSuccessListener(ref -> {
+                    Log.d(TAG, "Outbox replayed (" + backlog.size() + " trail points)");
+                    ackOutbox(read);
+                    onReplayDone();
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Trail upload failed", e);
+                    onReplayFailed();
+                });
+    }
+
+    private void onReplayDone() {
+        replaying = false;
+        replayRetryMs = REPLAY_RETRY_MIN_MS;
+    }
+
+    private void onReplayFailed() {
+        replaying = false;
+        if (!online) return; // the reconnect callback replays
+        uplinkHandler.removeCallbacks(replayRetry);
+        uplinkHandler.postDelayed(replayRetry, replayRetryMs);
+        Log.d(TAG, "Retrying outbox replay in " + replayRetryMs + " ms");
+        replayRetryMs = Math.min(REPLAY_RETRY_MAX_MS, replayRetryMs * 2);
     }
 
     /**
      * Stop updates and clean up
      */
     private void stopLocationUpdates() {
+        uplinkHandler.removeCallbacks(uplinkFlush);
+        uplinkHandler.removeCallbacks(replayRetry);
+        if (uplink != null) uplink.flush(SystemClock.elapsedRealtime());
         if (fusedLocationClient != null && locationCallback != null) {
             fusedLocationClient.removeLocationUpdates(locationCallback);
             Log.d(TAG, "Location updates stopped");
@@ -205,6 +486,9 @@ public class CollectorLocationService extends Service {
     public void onDestroy() {
         super.onDestroy();
         stopLocationUpdates();
+        if (connectivityManager != null) connectivityManager.unregisterNetworkCallback(networkCallback);
+        if (positionDebugListener != null) positionDebugListener.remove();
+        outboxExecutor.shutdown();
         Log.d(TAG, "CollectorLocationService destroyed");
     }
 
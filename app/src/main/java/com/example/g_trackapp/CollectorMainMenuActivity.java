@@ -2,6 +2,7 @@ package com.example.g_trackapp;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.MenuItem;
 import android.widget.Button;
 import android.widget.ImageView;
@@ -13,11 +14,35 @@ import androidx.appcompat.app.AppCompatActivity;
 import com.google.android.gms.maps.GoogleMap;
 import com.google.android.gms.maps.OnMapReadyCallback;
 import com.google.android.gms.maps.SupportMapFragment;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.TileOverlay;
+import com.google.android.gms.maps.model.TileOverlayOptions;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.maps.android.heatmaps.HeatmapTileProvider;
+import com.google.maps.android.heatmaps.WeightedLatLng;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
 
 public class CollectorMainMenuActivity extends AppCompatActivity implements OnMapReadyCallback {
 
+    private static final String TAG = "CollectorMainMenu";
+
+    // 🔹 Heatmap of recent garbage reports, weighted by level
+    private static final long HEATMAP_WINDOW_MS = 14L * 24 * 60 * 60 * 1000;
+    private static final int HEATMAP_RADIUS_PX = 40;
+
     private GoogleMap mMap;
     private CollectorSessionManager sessionManager;
+    private final HeatmapCells heatCells = new HeatmapCells();
+    private HeatmapTileProvider heatmapProvider;
+    private TileOverlay heatmapOverlay;
+    private ListenerRegistration heatmapListener;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -132,5 +157,67 @@ public class CollectorMainMenuActivity extends AppCompatActivity implements OnMa
     public void onMapReady(GoogleMap googleMap) {
         mMap = googleMap;
         mMap.getUiSettings().setZoomControlsEnabled(true);
+        startHeatmap();
+    }
+
+    /** Live listener on the last two weeks of reports; each snapshot only carries what changed */
+    private void startHeatmap() {
+        Timestamp since = new Timestamp(new Date(System.currentTimeMillis() - HEATMAP_WINDOW_MS));
+        heatmapListener = FirebaseFirestore.getInstance()
+                .collection(GarbageReportSync.REPORTS_COLLECTION)
+                .whereGreaterThanOrEqualTo(GarbageReportSync.REPORTED_AT, since)
+                .addSnapshotListener((snapshots, e) -> {
+                    if (e != null || snapshots == null) {
+                        Log.e(TAG, "Heatmap listener failed", e);
+                        return;
+                    }
+                    boolean changed = false;
+                    for (DocumentChange change : snapshots.getDocumentChanges()) {
+                        DocumentSnapshot doc = change.getDocument();
+                        Double lat = doc.getDouble("latitude");
+                        Double lng = doc.getDouble("longitude");
+                        if (change.getType() == DocumentChange.Type.REMOVED || lat == null || lng == null) {
+                            changed |= heatCells.remove(doc.getId());
+                        } else {
+                            changed |= heatCells.put(doc.getId(), lat, lng,
+                                    FleetPlanner.loadForLevel(doc.getString("garbageLevel")));
+                        }
+                    }
+                    // e.g. a report being assigned or its status edited: the tiles are still current
+                    if (changed) refreshHeatmap();
+                });
+    }
+
+    /** Swap the new cell weights into the existing provider and drop its cached tiles */
+    private void refreshHeatmap() {
+        if (mMap == null) return;
+        if (heatCells.isEmpty()) {
+            // The provider rejects an empty data set; just hide the layer
+            if (heatmapOverlay != null) heatmapOverlay.setVisible(false);
+            return;
+        }
+
+        List<WeightedLatLng> data = new ArrayList<>();
+        for (HeatmapCells.Cell cell : heatCells.cells()) {
+            data.add(new WeightedLatLng(new LatLng(cell.latitude, cell.longitude), cell.weight));
+        }
+        if (heatmapProvider == null) {
+            heatmapProvider = new HeatmapTileProvider.Builder()
+                    .weightedData(data)
+                    .radius(HEATMAP_RADIUS_PX)
+                    .build();
+            heatmapOverlay = mMap.addTileOverlay(new TileOverlayOptions().tileProvider(heatmapProvider));
+        } else {
+            heatmapProvider.setWeightedData(data);
+            heatmapOverlay.clearTileCache();
+            heatmapOverlay.setVisible(true);
+        }
+        Log.d(TAG, "Heatmap: " + heatCells.reportCount() + " reports in " + data.size() + " cells");
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (heatmapListener != null) heatmapListener.remove();
     }
 }
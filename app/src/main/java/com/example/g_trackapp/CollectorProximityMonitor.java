@@ -0,0 +1,212 @@
+package com.example.g_trackapp;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 🔔 CollectorProximityMonitor
+ * Raises the "collector is nearby" alert on the resident's own device.
+ * While the app runs it listens only to collector_positions in the geohash
+ * neighborhood of the resident's saved home, so the work per position write is
+ * proportional to the listeners in that cell — not to the number of registered
+ * residents. In the background the notifyNearbyResidents function pushes the
+ * same alert (found by the resident's homeCell); both paths share the
+ * per-collector cooldown, which is persisted so a restart does not re-alert.
+ */
+public final class CollectorProximityMonitor implements CellSubscriptions.Listener {
+
+    private static final String TAG = "ProximityMonitor";
+    private static final String PREF_NAME = "ProximityCooldownPref";
+
+    static final double ALERT_RADIUS_M = 50;
+    static final long COOLDOWN_MS = 5 * 60 * 1000;
+    /** Ignore positions older than this (e.g. a truck parked overnight near the house) */
+    private static final long MAX_POSITION_AGE_MS = 2 * 60 * 1000;
+    /** Precision-7 cells are ~153 m × 153 m, so the 3×3 neighborhood covers the alert radius */
+    private static final int LISTEN_PRECISION = 7;
+    /** Resident profile field the background push finds residents by (precision {@link #LISTEN_PRECISION}) */
+    static final String HOME_CELL_FIELD = "homeCell";
+
+    private static CollectorProximityMonitor instance;
+
+    private final Context appContext;
+    private final FirebaseFirestore db = FirebaseFirestore.getInstance();
+    private final SharedPreferences cooldowns;
+    private final Map<String, String> collectorNames = new HashMap<>();
+
+    private CellSubscriptions subscriptions;
+    private double homeLatitude, homeLongitude;
+
+    public static synchronized CollectorProximityMonitor getInstance(Context context) {
+        if (instance == null) instance = new CollectorProximityMonitor(context.getApplicationContext());
+        return instance;
+    }
+
+    private CollectorProximityMonitor(Context appContext) {
+        this.appContext = appContext;
+        this.cooldowns = appContext.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+    }
+
+    /** Start listening around the logged-in resident's home (no-op if already running or no home saved) */
+    public void start() {
+        ResidentSessionManager session = new ResidentSessionManager(appContext);
+        if (!session.hasHomeLocation()) {
+            Log.d(TAG, "No home location saved — proximity alerts disabled");
+            return;
+        }
+
+        double lat = session.getHomeLatitude();
+        double lon = session.getHomeLongitude();
+        if (subscriptions != null && lat == homeLatitude && lon == homeLongitude) return;
+
+        stop();
+        homeLatitude = lat;
+        homeLongitude = lon;
+
+        String homeCell = GeoCell.encode(lat, lon, LISTEN_PRECISION);
+        subscriptions = new CellSubscriptions(db, CollectorLocationService.POSITIONS_COLLECTION, 9, this);
+        subscriptions.retarget(GeoCell.neighborhood(homeCell));
+        Log.d(TAG, "Watching collectors around " + homeCell);
+    }
+
+    /**
+     * Start with the saved home, then refresh it from the resident profile — an
+     * auto-login never went through the login screen that saved it — and make
+     * sure the profile carries the homeCell the background push looks it up by.
+     */
+    public void resume() {
+        start();
+        ResidentSessionManager session = new ResidentSessionManager(appContext);
+        String residentId = session.getResidentId();
+        if (residentId == null) return;
+
+        db.collection("residents").document(residentId).get()
+                .addOnSuccessListener(doc -> {
+                    if (!doc.exists() || !residentId.equals(session.getResidentId())) return;
+                    Double lat = doc.getDouble("latitude");
+                    Double lon = doc.getDouble("longitude");
+                    session.saveHomeLocation(lat, lon);
+                    if (lat == null || lon == null) {
+                        stop();
+                        return;
+                    }
+                    String homeCell = GeoCell.encode(lat, lon, LISTEN_PRECISION);
+                    if (!homeCell.equals(doc.getString(HOME_CELL_FIELD))) {
+                        doc.getReference().update(HOME_CELL_FIELD, homeCell)
+                                .addOnFailureListener(e -> Log.e(TAG, "Failed to save home cell", e));
+                    }
+                    start();
+                })
+                .addOnFailureListener(e -> Log.e(TAG, "Failed to refresh home location", e));
+    }
+
+    public void stop() {
+        if (subscriptions == null) return;
+        subscriptions.clear();
+        subscriptions = null;
+    }
+
+    /** Stop and forget cooldowns (on logout, so the next resident starts clean) */
+    public void reset() {
+        stop();
+        cooldowns.edit().clear().apply();
+    }
+
+    @Override
+    public void onCellSnapshot(String cell, QuerySnapshot snapshot) {
+        long now = System.currentTimeMillis();
+        for (DocumentChange change : snapshot.getDocumentChanges()) {
+            if (change.getType() == DocumentChange.Type.REMOVED) continue;
+
+            DocumentSnapshot doc = change.getDocument();
+            Double lat = doc.getDouble("latitude");
+            Double lon = doc.getDouble("longitude");
+            Long timestamp = doc.getLong("timestamp");
+            if (lat == null || lon == null) continue;
+            if (timestamp != null && now - timestamp > MAX_POSITION_AGE_MS) continue;
+
+            double distance = GeoMath.distanceMeters(homeLatitude, homeLongitude, lat, lon);
+            if (distance <= ALERT_RADIUS_M) maybeAlert(doc.getId(), now);
+        }
+    }
+
+    @Override
+    public void onCellRemoved(String cell) {
+        // Home cells never change while running
+    }
+
+    /** A push from notifyNearbyResidents (any thread); dropped if the listener already alerted */
+    public void onServerAlert(String collectorId, String collectorName) {
+        if (!new ResidentSessionManager(appContext).isLoggedIn()) return;
+        if (!claimCooldown(collectorId, System.currentTimeMillis())) return;
+        alert(collectorId, collectorName != null ? collectorName : "Collector");
+    }
+
+    /** Records the alert and returns true, unless this collector alerted within the cooldown */
+    private synchronized boolean claimCooldown(String collectorId, long now) {
+        long last = cooldowns.getLong(collectorId, 0);
+        if (now - last < COOLDOWN_MS) return false;
+        cooldowns.edit().putLong(collectorId, now).apply();
+        return true;
+    }
+
+    private void maybeAlert(String collectorId, long now) {
+        if (!claimCooldown(collectorId, now)) return;
+
+        String cached = collectorNames.get(collectorId);
+        if (cached != null) {
+            alert(collectorId, cached);
+            return;
+        }
+
+        db.collection("collectors").document(collectorId).get()
+                .addOnSuccessListener(profile -> {
+                    String name = displayName(profile);
+                    collectorNames.put(collectorId, name);
+                    alert(collectorId, name);
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Failed to load collector " + collectorId, e);
+                    alert(collectorId, "Collector");
+                });
+    }
+
+    private void alert(String collectorId, String collectorName) {
+        Log.d(TAG, collectorName + " is within " + (int) ALERT_RADIUS_M + " m");
+        MyFirebaseMessagingService.showNotification(
+                appContext,
+                collectorName + " is nearby",
+                "Your garbage collector is within 50 meters. Please prepare your garbage.",
+                collectorId.hashCode()
+        );
+
+        // Keep the in-app notification history (written once, by whichever path alerted)
+        ResidentSessionManager session = new ResidentSessionManager(appContext);
+        Map<String, Object> notification = new HashMap<>();
+        notification.put("residentId", session.getResidentId());
+        notification.put("username", session.getUsername());
+        notification.put("message", collectorName + " is nearby — please prepare your garbage.");
+        notification.put("read", false);
+        notification.put("timestamp", new Date());
+        db.collection("notifications").add(notification)
+                .addOnFailureListener(e -> Log.e(TAG, "Failed to save notification", e));
+    }
+
+    private static String displayName(DocumentSnapshot profile) {
+        for (String field : new String[]{"name", "firstName", "truckNumber"}) {
+            String value = profile.getString(field);
+            if (value != null && !value.isEmpty()) return value;
+        }
+        return "Collector";
+    }
+}
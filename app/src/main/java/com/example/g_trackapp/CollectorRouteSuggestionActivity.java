@@ -1,36 +1,98 @@
 package com.example.g_trackapp;
 
+import android.Manifest;
+import android.annotation.SuppressLint;
 import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.location.Location;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 import android.view.MenuItem;
+import android.view.View;
 import android.widget.ImageView;
 import android.widget.PopupMenu;
+import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.content.ContextCompat;
 
 import com.google.android.gms.maps.*;
 import com.google.android.gms.maps.model.*;
-import com.google.gson.Gson;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
-import com.google.maps.android.PolyUtil;
+import com.google.android.gms.location.FusedLocationProviderClient;
+import com.google.android.gms.location.LocationCallback;
+import com.google.android.gms.location.LocationRequest;
+import com.google.android.gms.location.LocationResult;
+import com.google.android.gms.location.LocationServices;
+import com.google.android.gms.location.Priority;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-
-import okhttp3.Call;
-import okhttp3.Callback;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.Response;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class CollectorRouteSuggestionActivity extends AppCompatActivity implements OnMapReadyCallback {
 
     private GoogleMap mMap;
     private final String GOOGLE_DIRECTIONS_API_KEY = BuildConfig.MAPS_API_KEY;
 
+    // Stop ordering runs on the device; Directions only draws the legs
+    private static final long ROUTE_OPTIMIZE_BUDGET_MS = 300;
+    private final ExecutorService routeExecutor = Executors.newSingleThreadExecutor();
+    // Bounded pool for concurrent Directions chunk requests
+    private static final int MAX_PARALLEL_LEG_REQUESTS = 4;
+    private final ExecutorService legExecutor = Executors.newFixedThreadPool(MAX_PARALLEL_LEG_REQUESTS);
+    private RouteLegPlanner legPlanner;
+    private RouteCache routeCache;
+    private Polyline routePolyline;
+    // Zoom-dependent simplified copies of the route (UI thread only)
+    private PolylineSimplifier.Levels routeLevels;
+    private List<List<LatLng>> routeLevelPaths;
+    private int shownRouteLevel = -1;
+    private boolean cameraFitted = false;
+
+    // Open garbage reports → tour, updated incrementally (planner touched on routeExecutor only)
+    private static final LatLng DEFAULT_START = new LatLng(14.5995, 120.9842); // Manila
+    private static final long REPLAN_DEBOUNCE_MS = 2000;
+    private StopPlanner stopPlanner;
+    private ListenerRegistration reportListener;
+    private boolean reportsLoaded = false;
+    private final Map<String, Marker> stopMarkers = new HashMap<>();
+    private final Handler replanHandler = new Handler(Looper.getMainLooper());
+    // Reports the fleet plan gave to another truck are left out of this tour
+    private String collectorId;
+
+    // Live fixes snapped onto the drawn route; off-route driving re-plans only the legs ahead (UI thread)
+    private static final long FOLLOW_INTERVAL_MS = 3000;
+    private FusedLocationProviderClient fusedLocationClient;
+    private LocationCallback followCallback;
+    private final FixFilter followFilter = new FixFilter();
+    private RouteFollower routeFollower;
+    private double[] routeWaypoints;
+    private boolean rerouting = false;
+    // 🔹 Re-plans are spaced out, and back off while they keep failing (reset once back on route)
+    private static final long REROUTE_MIN_INTERVAL_MS = 15_000;
+    private static final long REROUTE_BACKOFF_MAX_MS = 5 * 60_000;
+    private long rerouteBackoffMs = 0;
+    private long nextRerouteAtMillis = 0;
+    private TextView tvRouteProgress;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -39,6 +101,13 @@ public class CollectorRouteSuggestionActivity extends AppCompatActivity implemen
         // --- DEBUG: log API key ---
         Log.d("RouteSuggestion", "Using API key: " + GOOGLE_DIRECTIONS_API_KEY);
 
+        legPlanner = new RouteLegPlanner(AppHttpClient.get(this), RouteLegPlanner.DIRECTIONS_URL,
+                GOOGLE_DIRECTIONS_API_KEY, legExecutor);
+        routeCache = RouteCache.getInstance(this);
+        collectorId = new CollectorSessionManager(this).getCollectorId();
+        fusedLocationClient = LocationServices.getFusedLocationProviderClient(this);
+        tvRouteProgress = findViewById(R.id.tvRouteProgress);
+
         // --- Map fragment ---
         SupportMapFragment mapFragment = (SupportMapFragment) getSupportFragmentManager()
                 .findFragmentById(R.id.routeMap);
@@ -98,98 +167,407 @@ public class CollectorRouteSuggestionActivity extends AppCompatActivity implemen
     public void onMapReady(GoogleMap googleMap) {
         mMap = googleMap;
         mMap.getUiSettings().setZoomControlsEnabled(true);
+        mMap.setOnCameraIdleListener(this::onRouteCameraIdle);
+        mMap.setOnInfoWindowClickListener(this::markStopCollected);
+
+        // The tour starts where the collector is now (fallback: Manila)
+        if (ContextCompat.checkSelfPermission(this, Manifest.permission.ACCESS_FINE_LOCATION)
+                == PackageManager.PERMISSION_GRANTED) {
+            LocationServices.getFusedLocationProviderClient(this).getLastLocation()
+                    .addOnSuccessListener(this, location -> {
+                        if (location != null) {
+                            startPlanning(new LatLng(location.getLatitude(), location.getLongitude()));
+                        } else {
+                            startPlanning(DEFAULT_START);
+                        }
+                    })
+                    .addOnFailureListener(this, e -> startPlanning(DEFAULT_START));
+        } else {
+            startPlanning(DEFAULT_START);
+        }
+    }
 
-        // --- Hardcoded points A -> B -> C -> D ---
-        LatLng pointA = new LatLng(14.5995, 120.9842); // Manila
-        LatLng pointB = new LatLng(14.6045, 120.9882);
-        LatLng pointC = new LatLng(14.6075, 120.9922);
-        LatLng pointD = new LatLng(14.6095, 120.9942);
-
-        // Add markers
-        mMap.addMarker(new MarkerOptions().position(pointA).title("Point A"));
-        mMap.addMarker(new MarkerOptions().position(pointB).title("Point B"));
-        mMap.addMarker(new MarkerOptions().position(pointC).title("Point C"));
-        mMap.addMarker(new MarkerOptions().position(pointD).title("Point D"));
+    /** Plan over the open garbage reports, updating the tour as reports come and go */
+    private void startPlanning(LatLng start) {
+        if (stopPlanner != null) return;
+        stopPlanner = new StopPlanner(start.latitude, start.longitude);
+        mMap.addMarker(new MarkerOptions().position(start).title("Start"));
+        mMap.moveCamera(CameraUpdateFactory.newLatLngZoom(start, 14));
+
+        reportListener = FirebaseFirestore.getInstance().collection("garbagelevel")
+                .whereEqualTo("status", "open")
+                .addSnapshotListener((snapshots, e) -> {
+                    if (e != null || snapshots == null) {
+                        Log.e("RouteSuggestion", "Report listener failed", e);
+                        return;
+                    }
+                    onReportsChanged(snapshots.getDocumentChanges());
+                });
+
+        // Split today's stops across the active trucks (once per day, by whoever gets here first)
+        if (collectorId != null) {
+            new FleetPlanSync(FirebaseFirestore.getInstance())
+                    .ensureTodayPlan(collectorId, start.latitude, start.longitude, publishedNow -> {
+                        if (isFinishing() || isDestroyed()) return;
+                        if (publishedNow) {
+                            Toast.makeText(this, "Today's routes planned for the fleet", Toast.LENGTH_SHORT).show();
+                        }
+                    });
+        }
+    }
 
-        // Move camera to first point
-        mMap.moveCamera(CameraUpdateFactory.newLatLngZoom(pointA, 14));
+    private void onReportsChanged(List<DocumentChange> changes) {
+        List<StopPlanner.Stop> added = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        for (DocumentChange change : changes) {
+            DocumentSnapshot doc = change.getDocument();
+            String assignedTo = doc.getString(FleetPlanSync.ASSIGNED_TO);
+            if (change.getType() == DocumentChange.Type.REMOVED
+                    || (assignedTo != null && !assignedTo.equals(collectorId))) {
+                removed.add(doc.getId());
+                continue;
+            }
+            Double lat = doc.getDouble("latitude");
+            Double lng = doc.getDouble("longitude");
+            if (lat == null || lng == null) continue; // older reports have only an address
+            String level = doc.getString("garbageLevel");
+            String address = doc.getString("location");
+            added.add(new StopPlanner.Stop(doc.getId(), lat, lng, StopPlanner.Priority.fromLevel(level),
+                    address != null ? level + " · " + address : level));
+        }
+        if (added.isEmpty() && removed.isEmpty()) return;
+
+        boolean initial = !reportsLoaded;
+        reportsLoaded = true;
+        routeExecutor.execute(() -> {
+            for (String id : removed) stopPlanner.remove(id);
+            if (initial) {
+                // First snapshot: solve the whole set once (on road distances when the graph is bundled)
+                OfflineRouter offline = OfflineRouter.getInstance(this);
+                stopPlanner.insertAll(added, new RouteOptimizer(ROUTE_OPTIMIZE_BUDGET_MS),
+                        offline.isAvailable() ? offline::distanceMatrix : RouteOptimizer::haversineMatrix);
+            } else {
+                // Afterwards: cheapest insertion into the current tour
+                for (StopPlanner.Stop stop : added) stopPlanner.insert(stop);
+            }
+            Log.d("RouteSuggestion", "Tour: " + stopPlanner.size() + " stops, "
+                    + Math.round(stopPlanner.lengthMeters()) + " m, " + stopPlanner.lateStops() + " late");
+        });
+        scheduleReplan();
+    }
 
-        // Fetch optimized route using Google Directions API
-        fetchRoute(pointA, pointD, new LatLng[]{pointB, pointC});
+    /** Coalesce bursts of report changes into one redraw */
+    private void scheduleReplan() {
+        replanHandler.removeCallbacks(replanRunnable);
+        replanHandler.postDelayed(replanRunnable, REPLAN_DEBOUNCE_MS);
     }
 
-    private void fetchRoute(LatLng origin, LatLng destination, LatLng[] waypoints) {
-        try {
-            StringBuilder waypointsStr = new StringBuilder("optimize:true");
-            for (LatLng point : waypoints) {
-                waypointsStr.append("|").append(point.latitude).append(",").append(point.longitude);
+    private final Runnable replanRunnable = () -> routeExecutor.execute(this::planRoute);
+
+    /** Runs on routeExecutor: mark the current tour and draw its legs in order */
+    private void planRoute() {
+        List<StopPlanner.Stop> tour = stopPlanner.stops();
+        runOnUiThread(() -> updateStopMarkers(tour));
+        if (tour.isEmpty()) {
+            runOnUiThread(() -> {
+                if (routePolyline != null) routePolyline.remove();
+                routePolyline = null;
+                routeFollower = null;
+                tvRouteProgress.setVisibility(View.GONE);
+            });
+            return;
+        }
+
+        double[] orderedLat = new double[tour.size() + 1];
+        double[] orderedLng = new double[tour.size() + 1];
+        orderedLat[0] = stopPlanner.getStartLatitude();
+        orderedLng[0] = stopPlanner.getStartLongitude();
+        for (int i = 0; i < tour.size(); i++) {
+            orderedLat[i + 1] = tour.get(i).latitude;
+            orderedLng[i + 1] = tour.get(i).longitude;
+        }
+
+        // Draw a cached route right away; only go to the network if it is missing or aging
+        String cacheKey = RouteCache.key(orderedLat, orderedLng, "driving");
+        RouteCache.Entry cached = routeCache.get(cacheKey, System.currentTimeMillis());
+        Log.d("RouteSuggestion", "Route cache: " + routeCache.statsLine());
+        if (cached != null) {
+            drawRoute(cached.route, orderedLat, orderedLng);
+            if (!cached.needsRevalidation(System.currentTimeMillis())) return;
+        }
+
+        // No signal: route on the bundled road graph (not cached, so Directions replaces it once online)
+        if (!isNetworkAvailable()) {
+            if (cached == null && !drawOfflineRoute(orderedLat, orderedLng)) {
+                showRouteError(new IOException("No network connection"));
             }
+            return;
+        }
 
-            String url = "https://maps.googleapis.com/maps/api/directions/json?" +
-                    "origin=" + origin.latitude + "," + origin.longitude +
-                    "&destination=" + destination.latitude + "," + destination.longitude +
-                    "&waypoints=" + waypointsStr +
-                    "&mode=driving" +
-                    "&key=" + GOOGLE_DIRECTIONS_API_KEY;
+        fetchRoute(orderedLat, orderedLng, cacheKey, cached);
+    }
 
-            Log.d("RouteSuggestion", "Directions URL: " + url);
+    /** Tapping a stop's info window closes its report and releases its assignment; the listener then drops it */
+    private void markStopCollected(Marker marker) {
+        for (Map.Entry<String, Marker> entry : stopMarkers.entrySet()) {
+            if (!entry.getValue().equals(marker)) continue;
+            FirebaseFirestore.getInstance().collection("garbagelevel").document(entry.getKey())
+                    .update("status", "collected", FleetPlanSync.ASSIGNED_TO, FieldValue.delete())
+                    .addOnSuccessListener(unused ->
+                            Toast.makeText(this, "Marked as collected", Toast.LENGTH_SHORT).show())
+                    .addOnFailureListener(e ->
+                            Toast.makeText(this, "Failed to update: " + e.getMessage(), Toast.LENGTH_SHORT).show());
+            return;
+        }
+    }
 
-            OkHttpClient client = new OkHttpClient();
-            Request request = new Request.Builder().url(url).build();
+    private void updateStopMarkers(List<StopPlanner.Stop> tour) {
+        if (isFinishing() || isDestroyed()) return;
+        Set<String> planned = new HashSet<>();
+        for (int i = 0; i < tour.size(); i++) {
+            StopPlanner.Stop stop = tour.get(i);
+            planned.add(stop.id);
+            String title = (i + 1) + ". " + stop.label;
+            Marker marker = stopMarkers.get(stop.id);
+            if (marker == null) {
+                stopMarkers.put(stop.id, mMap.addMarker(new MarkerOptions()
+                        .position(new LatLng(stop.latitude, stop.longitude)).title(title)));
+            } else {
+                marker.setTitle(title);
+            }
+        }
+        stopMarkers.entrySet().removeIf(entry -> {
+            if (planned.contains(entry.getKey())) return false;
+            entry.getValue().remove();
+            return true;
+        });
+    }
 
-            client.newCall(request).enqueue(new Callback() {
-                @Override
-                public void onFailure(Call call, IOException e) {
-                    runOnUiThread(() ->
-                            Toast.makeText(CollectorRouteSuggestionActivity.this, "Failed to fetch route", Toast.LENGTH_SHORT).show());
-                }
+    /**
+     * Runs on routeExecutor: fetch the legs (chunked, concurrent), store them and
+     * draw the stitched route. With a {@code cached} route already on screen this
+     * is a background revalidation: errors stay silent and an unchanged path is not redrawn.
+     */
+    private void fetchRoute(double[] latitudes, double[] longitudes, String cacheKey, RouteCache.Entry cached) {
+        try {
+            RouteLegPlanner.PlannedRoute route = legPlanner.plan(latitudes, longitudes);
+            Log.d("RouteSuggestion", "Route: " + route.chunks + " requests, " + route.pointCount()
+                    + " points, " + route.distanceMeters + " m, " + route.durationSeconds + " s");
+            if (route.pointCount() == 0) {
+                Log.d("RouteSuggestion", "No routes found in response");
+                return;
+            }
+            Log.d("RouteSuggestion", "HTTP: " + AppHttpClient.metrics(this).statsLine());
+            routeCache.put(cacheKey, route, System.currentTimeMillis());
+            if (cached != null && Arrays.equals(cached.route.path, route.path)) return;
+            drawRoute(route, latitudes, longitudes);
+        } catch (IOException e) {
+            if (cached != null) {
+                Log.w("RouteSuggestion", "Revalidation failed, keeping cached route", e);
+                return;
+            }
+            // Network failure (not a Directions error status): fall back to the offline graph
+            if (!(e instanceof RouteLegPlanner.DirectionsException) && drawOfflineRoute(latitudes, longitudes)) return;
+            showRouteError(e);
+        }
+    }
 
-                @Override
-                public void onResponse(Call call, Response response) throws IOException {
-                    if (response.body() != null) {
-                        String json = response.body().string();
-                        Log.d("DirectionsJSON", json);
+    /** Runs on routeExecutor: draw the legs from the bundled road graph; false if there is none */
+    private boolean drawOfflineRoute(double[] latitudes, double[] longitudes) {
+        OfflineRouter offline = OfflineRouter.getInstance(this);
+        if (!offline.isAvailable()) return false;
+        drawRoute(offline.plan(latitudes, longitudes), latitudes, longitudes);
+        return true;
+    }
 
-                        if (json.contains("REQUEST_DENIED")) {
-                            Log.e("RouteSuggestion", "API key invalid or restricted");
-                            runOnUiThread(() ->
-                                    Toast.makeText(CollectorRouteSuggestionActivity.this, "Invalid API key", Toast.LENGTH_LONG).show());
-                        } else {
-                            parseAndDrawRoute(json);
-                        }
-                    }
-                }
-            });
+    private boolean isNetworkAvailable() {
+        android.net.ConnectivityManager cm = (android.net.ConnectivityManager)
+                getSystemService(CONNECTIVITY_SERVICE);
+        if (cm == null) return false;
+        // 🔹 NetworkInfo is deprecated; ask the active network for internet capability instead
+        android.net.NetworkCapabilities capabilities = cm.getNetworkCapabilities(cm.getActiveNetwork());
+        return capabilities != null
+                && capabilities.hasCapability(android.net.NetworkCapabilities.NET_CAPABILITY_INTERNET);
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
+    private void showRouteError(IOException error) {
+        if (error instanceof RouteLegPlanner.DirectionsException) {
+            RouteLegPlanner.DirectionsException e = (RouteLegPlanner.DirectionsException) error;
+            if ("REQUEST_DENIED".equals(e.status)) {
+                Log.e("RouteSuggestion", "API key invalid or restricted");
+                runOnUiThread(() ->
+                        Toast.makeText(CollectorRouteSuggestionActivity.this, "Invalid API key", Toast.LENGTH_LONG).show());
+            } else {
+                Log.e("RouteSuggestion", "Directions failed", e);
+                runOnUiThread(() ->
+                        Toast.makeText(CollectorRouteSuggestionActivity.this, "Failed to fetch route", Toast.LENGTH_SHORT).show());
+            }
+        } else {
+            Log.e("RouteSuggestion", "Failed to fetch route", error);
+            runOnUiThread(() ->
+                    Toast.makeText(CollectorRouteSuggestionActivity.this, "Failed to fetch route", Toast.LENGTH_SHORT).show());
         }
     }
 
-    private void parseAndDrawRoute(String json) {
-        Gson gson = new Gson();
-        JsonObject obj = gson.fromJson(json, JsonObject.class);
-        JsonArray routes = obj.getAsJsonArray("routes");
-        if (routes.size() == 0) {
-            Log.d("RouteSuggestion", "No routes found in response");
-            return;
+    /**
+     * Simplifies the route into per-zoom levels and builds their LatLng lists, the
+     * camera bounds and the route follower on the calling (background) thread; the
+     * map only adds the polyline. {@code latitudes}/{@code longitudes} are the
+     * points the route was planned through, origin first.
+     */
+    private void drawRoute(RouteLegPlanner.PlannedRoute route, double[] latitudes, double[] longitudes) {
+        long start = System.nanoTime();
+        PolylineSimplifier.Levels levels = PolylineSimplifier.precompute(route.path);
+        List<List<LatLng>> levelPaths = new ArrayList<>(levels.paths.length);
+        for (double[] level : levels.paths) {
+            List<LatLng> path = new ArrayList<>(level.length / 2);
+            for (int i = 0; i < level.length; i += 2) path.add(new LatLng(level[i], level[i + 1]));
+            levelPaths.add(path);
         }
+        Log.d("RouteSuggestion", "Simplified " + route.pointCount() + " points into "
+                + levels.paths.length + " levels in " + (System.nanoTime() - start) / 1_000_000 + " ms");
 
-        JsonObject route = routes.get(0).getAsJsonObject();
-        String encodedPolyline = route.getAsJsonObject("overview_polyline").get("points").getAsString();
-        List<LatLng> path = PolyUtil.decode(encodedPolyline);
+        double[] waypoints = new double[latitudes.length * 2];
+        for (int i = 0; i < latitudes.length; i++) {
+            waypoints[2 * i] = latitudes[i];
+            waypoints[2 * i + 1] = longitudes[i];
+        }
+        RouteFollower follower = route.pointCount() >= 2 ? new RouteFollower(route.path, waypoints) : null;
+
+        double[] b = route.bounds;
+        LatLngBounds bounds = b == null ? null
+                : new LatLngBounds(new LatLng(b[0], b[1]), new LatLng(b[2], b[3]));
 
         runOnUiThread(() -> {
+            if (isFinishing() || isDestroyed()) return;
+            routeLevels = levels;
+            routeLevelPaths = levelPaths;
+            shownRouteLevel = routeLevels.levelFor(mMap.getCameraPosition().zoom);
+
             PolylineOptions polylineOptions = new PolylineOptions()
-                    .addAll(path)
+                    .addAll(routeLevelPaths.get(shownRouteLevel))
                     .color(0xFF2196F3)
                     .width(8);
-            mMap.addPolyline(polylineOptions);
-
-            // Zoom to show entire route
-            LatLngBounds.Builder builder = new LatLngBounds.Builder();
-            for (LatLng point : path) builder.include(point);
-            mMap.animateCamera(CameraUpdateFactory.newLatLngBounds(builder.build(), 100));
+            if (routePolyline != null) routePolyline.remove();
+            routePolyline = mMap.addPolyline(polylineOptions);
+
+            routeFollower = follower;
+            routeWaypoints = waypoints;
+            rerouting = false;
+            startFollowing();
+
+            // Zoom to show entire route (once — later updates keep the collector's camera)
+            if (bounds != null && !cameraFitted) {
+                cameraFitted = true;
+                mMap.animateCamera(CameraUpdateFactory.newLatLngBounds(bounds, 100));
+            }
         });
     }
+
+    /** Swap in the precomputed level that matches the new zoom (no work if it did not change) */
+    private void onRouteCameraIdle() {
+        if (routePolyline == null || routeLevels == null) return;
+        int level = routeLevels.levelFor(mMap.getCameraPosition().zoom);
+        if (level == shownRouteLevel) return;
+        shownRouteLevel = level;
+        routePolyline.setPoints(routeLevelPaths.get(level));
+        Log.d("RouteSuggestion", "Route level z" + routeLevels.zooms[level] + ": "
+                + routeLevelPaths.get(level).size() + " vertices");
+    }
+
+    // 🔹 Route following
+
+    @SuppressLint("MissingPermission") // checked right here
+    private void startFollowing() {
+        if (followCallback != null) return;
+        if (ContextCompat.checkSelfPermission(this, Manifest.permission.ACCESS_FINE_LOCATION)
+                != PackageManager.PERMISSION_GRANTED) return;
+
+        followCallback = new LocationCallback() {
+            @Override
+            public void onLocationResult(@NonNull LocationResult locationResult) {
+                for (Location location : locationResult.getLocations()) {
+                    if (location == null) continue;
+                    GeoFix fix = followFilter.filter(new GeoFix(location.getLatitude(), location.getLongitude(),
+                            location.hasAccuracy() ? location.getAccuracy() : Float.NaN,
+                            location.hasSpeed() ? location.getSpeed() : Float.NaN,
+                            location.hasBearing() ? location.getBearing() : Float.NaN,
+                            location.getTime()));
+                    if (fix != null) onFollowFix(fix);
+                }
+            }
+        };
+        LocationRequest request = new LocationRequest.Builder(Priority.PRIORITY_HIGH_ACCURACY, FOLLOW_INTERVAL_MS).build();
+        fusedLocationClient.requestLocationUpdates(request, followCallback, getMainLooper());
+    }
+
+    private void onFollowFix(GeoFix fix) {
+        if (routeFollower == null) return;
+        RouteFollower.Progress progress = routeFollower.update(fix);
+
+        String text = String.format(Locale.getDefault(), "%.1f km left · %d%%",
+                progress.remainingMeters / 1000, Math.round(progress.fraction(routeFollower.totalMeters()) * 100));
+        if (progress.state != RouteFollower.State.ON_ROUTE) text += " · off route";
+        tvRouteProgress.setText(text);
+        tvRouteProgress.setVisibility(View.VISIBLE);
+
+        if (progress.state == RouteFollower.State.ON_ROUTE) {
+            rerouteBackoffMs = 0;
+            nextRerouteAtMillis = 0;
+        }
+        long now = SystemClock.elapsedRealtime();
+        if (progress.state != RouteFollower.State.REROUTE || rerouting || now < nextRerouteAtMillis) return;
+        // Legs behind the truck stay as they are: re-plan from here through the waypoints still ahead
+        int first = Math.max(1, progress.nextWaypoint);
+        int remaining = routeWaypoints.length / 2 - first;
+        if (remaining <= 0) return;
+        double[] lat = new double[remaining + 1];
+        double[] lng = new double[remaining + 1];
+        lat[0] = fix.latitude;
+        lng[0] = fix.longitude;
+        for (int i = 0; i < remaining; i++) {
+            lat[i + 1] = routeWaypoints[2 * (first + i)];
+            lng[i + 1] = routeWaypoints[2 * (first + i) + 1];
+        }
+        rerouting = true;
+        nextRerouteAtMillis = now + REROUTE_MIN_INTERVAL_MS;
+        Log.d("RouteSuggestion", "Off route for " + Math.round(progress.offRouteMeters) + " m — re-planning "
+                + remaining + " remaining legs");
+        routeExecutor.execute(() -> reroute(lat, lng));
+    }
+
+    /** Runs on routeExecutor: remaining legs only, not cached (the origin is wherever the truck was) */
+    private void reroute(double[] latitudes, double[] longitudes) {
+        try {
+            if (isNetworkAvailable()) {
+                RouteLegPlanner.PlannedRoute route = legPlanner.plan(latitudes, longitudes);
+                if (route.pointCount() >= 2) {
+                    drawRoute(route, latitudes, longitudes);
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            Log.w("RouteSuggestion", "Reroute via Directions failed", e);
+        }
+        if (!drawOfflineRoute(latitudes, longitudes)) runOnUiThread(this::onRerouteFailed);
+    }
+
+    /** UI thread: wait longer before each further attempt while the truck stays off route */
+    private void onRerouteFailed() {
+        rerouting = false;
+        rerouteBackoffMs = rerouteBackoffMs == 0
+                ? REROUTE_MIN_INTERVAL_MS : Math.min(REROUTE_BACKOFF_MAX_MS, rerouteBackoffMs * 2);
+        nextRerouteAtMillis = SystemClock.elapsedRealtime() + rerouteBackoffMs;
+        Log.d("RouteSuggestion", "Reroute failed — next attempt in " + rerouteBackoffMs / 1000 + " s");
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (followCallback != null) fusedLocationClient.removeLocationUpdates(followCallback);
+        replanHandler.removeCallbacks(replanRunnable);
+        if (reportListener != null) reportListener.remove();
+        routeExecutor.shutdownNow();
+        legExecutor.shutdownNow();
+    }
 }
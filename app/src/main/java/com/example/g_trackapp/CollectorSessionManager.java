@@ -5,18 +5,23 @@ import android.content.SharedPreferences;
 
 public class CollectorSessionManager {
     private static final String PREF_NAME = "CollectorSessionPref";
+    // 🔹 Kept apart from the session so logout never restarts the position sequence
+    private static final String SEQ_PREF_NAME = "PositionSeqPref";
 
     private static final String KEY_COLLECTOR_ID = "collector_id";
     private static final String KEY_USERNAME = "username";
     private static final String KEY_FIRSTNAME = "firstName";
     private static final String KEY_LASTNAME = "lastName";
+    private static final String KEY_POSITION_SEQ = "position_seq";
 
     private final SharedPreferences pref;
     private final SharedPreferences.Editor editor;
+    private final SharedPreferences seqPref;
 
     public CollectorSessionManager(Context context) {
         pref = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
         editor = pref.edit();
+        seqPref = context.getSharedPreferences(SEQ_PREF_NAME, Context.MODE_PRIVATE);
     }
 
     // 🔹 Save collector details
@@ -34,6 +39,13 @@ public class CollectorSessionManager {
     public String getFirstName() { return pref.getString(KEY_FIRSTNAME, null); }
     public String getLastName() { return pref.getString(KEY_LASTNAME, null); }
 
+    // 🔹 Monotonic sequence number stamped on every position write (survives logout)
+    public synchronized long nextPositionSeq() {
+        long seq = seqPref.getLong(KEY_POSITION_SEQ, 0) + 1;
+        seqPref.edit().putLong(KEY_POSITION_SEQ, seq).apply();
+        return seq;
+    }
+
     // 🔹 Check login
     public boolean isLoggedIn() {
         return getCollectorId() != null && getUsername() != null;
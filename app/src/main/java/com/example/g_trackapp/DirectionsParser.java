@@ -0,0 +1,175 @@
+package com.example.g_trackapp;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * 🧾 DirectionsParser
+ * Single-pass streaming reader for a Directions API JSON response.
+ * Pulls status, bounds, leg totals and the overview polyline of the first
+ * route straight off the stream; everything else (steps, geocoded waypoints,
+ * alternative routes) is skipped without being materialized.
+ */
+public final class DirectionsParser {
+
+    public static final class Result {
+        public String status = "UNKNOWN_ERROR";
+        public String errorMessage;
+        /** {south, west, north, east}, or null if the response had none */
+        public double[] bounds;
+        public long distanceMeters;
+        public long durationSeconds;
+        public int legCount;
+        /** Flat {lat0, lng0, lat1, lng1, …}; empty when there is no route */
+        public double[] path = new double[0];
+
+        public boolean isOk() {
+            return "OK".equals(status);
+        }
+    }
+
+    private DirectionsParser() {}
+
+    public static Result parse(Reader source) throws IOException {
+        Result result = new Result();
+        try (JsonReader reader = new JsonReader(source)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "status":
+                        result.status = reader.nextString();
+                        break;
+                    case "error_message":
+                        result.errorMessage = reader.nextString();
+                        break;
+                    case "routes":
+                        readRoutes(reader, result);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        return result;
+    }
+
+    private static void readRoutes(JsonReader reader, Result result) throws IOException {
+        reader.beginArray();
+        boolean first = true;
+        while (reader.hasNext()) {
+            if (first) {
+                readRoute(reader, result);
+                first = false;
+            } else {
+                reader.skipValue(); // alternatives
+            }
+        }
+        reader.endArray();
+    }
+
+    private static void readRoute(JsonReader reader, Result result) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "bounds":
+                    result.bounds = readBounds(reader);
+                    break;
+                case "legs":
+                    readLegs(reader, result);
+                    break;
+                case "overview_polyline":
+                    String points = readPoints(reader);
+                    if (points != null) result.path = PolylineCodec.decode(points);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static double[] readBounds(JsonReader reader) throws IOException {
+        double[] bounds = new double[4];
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String corner = reader.nextName();
+            if ("southwest".equals(corner)) {
+                readLatLng(reader, bounds, 0);
+            } else if ("northeast".equals(corner)) {
+                readLatLng(reader, bounds, 2);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return bounds;
+    }
+
+    private static void readLatLng(JsonReader reader, double[] out, int offset) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("lat".equals(name)) {
+                out[offset] = reader.nextDouble();
+            } else if ("lng".equals(name)) {
+                out[offset + 1] = reader.nextDouble();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static void readLegs(JsonReader reader, Result result) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if ("distance".equals(name)) {
+                    result.distanceMeters += readValue(reader);
+                } else if ("duration".equals(name)) {
+                    result.durationSeconds += readValue(reader);
+                } else {
+                    reader.skipValue(); // steps, addresses, via waypoints
+                }
+            }
+            reader.endObject();
+            result.legCount++;
+        }
+        reader.endArray();
+    }
+
+    /** {"text": "...", "value": n} → n */
+    private static long readValue(JsonReader reader) throws IOException {
+        long value = 0;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("value".equals(reader.nextName()) && reader.peek() == JsonToken.NUMBER) {
+                value = reader.nextLong();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return value;
+    }
+
+    private static String readPoints(JsonReader reader) throws IOException {
+        String points = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("points".equals(reader.nextName())) {
+                points = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return points;
+    }
+}
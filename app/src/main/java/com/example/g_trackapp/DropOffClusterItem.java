@@ -0,0 +1,44 @@
+package com.example.g_trackapp;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.maps.model.LatLng;
+import com.google.maps.android.clustering.ClusterItem;
+
+/**
+ * 🗑️ DropOffClusterItem
+ * One drop-off bin on the resident map, rendered through the clustering layer.
+ * Position and title are fixed; a moved bin is replaced with a new item.
+ */
+public class DropOffClusterItem implements ClusterItem {
+
+    private final String id;
+    private final LatLng position;
+    private final String title;
+
+    String cell; // cell whose listener last reported the document, null if orphaned
+
+    public DropOffClusterItem(String id, LatLng position, String title) {
+        this.id = id;
+        this.position = position;
+        this.title = title;
+    }
+
+    public String getId() { return id; }
+
+    @NonNull
+    @Override
+    public LatLng getPosition() { return position; }
+
+    @Nullable
+    @Override
+    public String getTitle() { return title; }
+
+    @Nullable
+    @Override
+    public String getSnippet() { return null; }
+
+    @Nullable
+    public Float getZIndex() { return null; }
+}
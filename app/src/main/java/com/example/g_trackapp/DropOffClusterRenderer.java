@@ -0,0 +1,33 @@
+package com.example.g_trackapp;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.model.MarkerOptions;
+import com.google.maps.android.clustering.ClusterManager;
+import com.google.maps.android.clustering.view.DefaultClusterRenderer;
+
+/**
+ * 🧩 DropOffClusterRenderer
+ * Single bins use the shared bin icon from {@link MarkerIconCache};
+ * groups use the default cluster bubbles.
+ */
+public class DropOffClusterRenderer extends DefaultClusterRenderer<DropOffClusterItem> {
+
+    private final MarkerIconCache iconCache;
+
+    public DropOffClusterRenderer(Context context, GoogleMap map, ClusterManager<DropOffClusterItem> clusterManager) {
+        super(context, map, clusterManager);
+        iconCache = MarkerIconCache.getInstance(context);
+        setAnimation(false); // hundreds of bins: skip the expand/collapse animation
+    }
+
+    @Override
+    protected void onBeforeClusterItemRendered(@NonNull DropOffClusterItem item, @NonNull MarkerOptions markerOptions) {
+        markerOptions
+                .title(item.getTitle())
+                .icon(iconCache.icon(R.drawable.ic_garbage_bin));
+    }
+}
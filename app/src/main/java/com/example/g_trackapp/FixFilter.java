@@ -0,0 +1,118 @@
+package com.example.g_trackapp;
+
+/**
+ * 🎯 FixFilter
+ * Cleans raw fused fixes before they are uploaded:
+ * 1. rejects fixes whose implied speed from the current estimate is impossible for a truck,
+ * 2. smooths the rest with an accuracy-weighted (1-D Kalman) filter,
+ * 3. suppresses fixes that only wobble around a stopped truck.
+ *
+ * Pure Java so it can be replayed against recorded traces on the JVM.
+ */
+public class FixFilter {
+
+    static final float DEFAULT_ACCURACY_M = 20f;    // assumed when a fix carries no accuracy
+    static final double MAX_ACCURACY_M = 100;       // worse than this is not worth smoothing in
+    static final double MAX_SPEED_MPS = 35;         // ~125 km/h, nothing a garbage truck does
+    static final double PROCESS_NOISE_MPS = 2;      // how fast the true position may drift
+    static final double STATIONARY_RADIUS_M = 10;   // moves smaller than this are noise when stopped
+    static final double STATIONARY_MAX_SPEED = 1.5; // m/s
+    static final int RESEED_AFTER_REJECTS = 3;      // after a gap, trust the new area again
+
+    // Kalman state (position in degrees, variance in m²)
+    private boolean seeded = false;
+    private double latitude, longitude;
+    private double variance;
+    private long timeMillis;
+    private int consecutiveRejects = 0;
+    private double lastRawAccuracy = DEFAULT_ACCURACY_M;
+
+    private GeoFix lastPublished;
+
+    private long accepted, rejected, suppressed;
+
+    /**
+     * Feed a raw fix.
+     * @return the smoothed estimate, or null if the fix was rejected as an outlier
+     */
+    public GeoFix filter(GeoFix raw) {
+        double accuracy = raw.hasAccuracy() ? Math.max(1, raw.accuracy) : DEFAULT_ACCURACY_M;
+        if (accuracy > MAX_ACCURACY_M) {
+            rejected++;
+            return null;
+        }
+        lastRawAccuracy = accuracy;
+
+        if (!seeded) {
+            seed(raw, accuracy);
+            accepted++;
+            return estimate(raw);
+        }
+
+        long dtMillis = Math.max(0, raw.timeMillis - timeMillis);
+        double distance = GeoMath.distanceMeters(latitude, longitude, raw.latitude, raw.longitude);
+        // Give the jump the benefit of both uncertainties before calling it impossible
+        double slack = accuracy + Math.sqrt(variance);
+        double impliedSpeed = dtMillis == 0
+                ? (distance > slack ? Double.POSITIVE_INFINITY : 0)
+                : Math.max(0, distance - slack) * 1000.0 / dtMillis;
+
+        if (impliedSpeed > MAX_SPEED_MPS) {
+            if (++consecutiveRejects < RESEED_AFTER_REJECTS) {
+                rejected++;
+                return null;
+            }
+            seed(raw, accuracy);
+            accepted++;
+            return estimate(raw);
+        }
+        consecutiveRejects = 0;
+
+        double dt = dtMillis / 1000.0;
+        variance += dt * PROCESS_NOISE_MPS * PROCESS_NOISE_MPS;
+        double gain = variance / (variance + accuracy * accuracy);
+        latitude += gain * (raw.latitude - latitude);
+        longitude += gain * (raw.longitude - longitude);
+        variance = (1 - gain) * variance;
+        timeMillis = raw.timeMillis;
+
+        accepted++;
+        return estimate(raw);
+    }
+
+    /**
+     * Decide whether a smoothed fix is real movement worth uploading.
+     * Stopped trucks only publish once they leave the noise radius, which is
+     * at least as wide as the raw fix accuracy.
+     */
+    public boolean shouldPublish(GeoFix smoothed) {
+        if (lastPublished != null) {
+            boolean slow = !smoothed.hasSpeed() || smoothed.speed < STATIONARY_MAX_SPEED;
+            double radius = Math.max(STATIONARY_RADIUS_M, lastRawAccuracy);
+            if (slow && GeoMath.distanceMeters(lastPublished, smoothed) < radius) {
+                suppressed++;
+                return false;
+            }
+        }
+        lastPublished = smoothed;
+        return true;
+    }
+
+    public long getAccepted() { return accepted; }
+    public long getRejected() { return rejected; }
+    public long getSuppressed() { return suppressed; }
+
+    private void seed(GeoFix raw, double accuracy) {
+        seeded = true;
+        latitude = raw.latitude;
+        longitude = raw.longitude;
+        variance = accuracy * accuracy;
+        timeMillis = raw.timeMillis;
+        consecutiveRejects = 0;
+    }
+
+    private GeoFix estimate(GeoFix raw) {
+        return new GeoFix(latitude, longitude, (float) Math.sqrt(variance),
+                raw.speed, raw.bearing, timeMillis);
+    }
+}
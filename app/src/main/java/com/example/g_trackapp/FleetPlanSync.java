@@ -0,0 +1,247 @@
+package com.example.g_trackapp;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.Transaction;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 🗺️ FleetPlanSync
+ * Makes sure today's fleet plan exists. The first collector to open the route
+ * screen on a given day loads the active trucks, the open garbage reports and
+ * the registered households, runs {@link FleetPlanner} and publishes one
+ * compact {@code route_plans/{collectorId}} document per truck
+ * ({@code route_plans/_day} records who claimed the day). Each report is
+ * stamped with {@code assignedTo} so every truck's live tour keeps only its share;
+ * open reports the new plan leaves out have an earlier assignment cleared.
+ */
+public final class FleetPlanSync {
+
+    private static final String TAG = "FleetPlanSync";
+    static final String PLANS_COLLECTION = "route_plans";
+    /** Per-day claim document: whoever creates it for today plans the fleet */
+    static final String DAY_DOC = "_day";
+    private static final long CLAIM_LEASE_MS = 10 * 60 * 1000;
+    /** Trucks that sent a position within this window take part */
+    private static final long ACTIVE_WINDOW_MS = 30 * 60 * 1000;
+    private static final long TRUCK_BUDGET_MS = 1500;
+    /** Firestore allows 500 writes per batch */
+    private static final int MAX_BATCH_WRITES = 450;
+    static final String ASSIGNED_TO = "assignedTo";
+    /** Household stop ids are prefixed so they never collide with report ids */
+    private static final String HOUSEHOLD_PREFIX = "resident:";
+
+    public interface Callback {
+        void onPlanReady(boolean publishedNow);
+    }
+
+    /**
+     * Planning runs here rather than on a caller's executor: it outlives the screen
+     * that started it, since the fleet still needs the plan if that screen closes.
+     */
+    private static final ExecutorService PLAN_EXECUTOR = Executors.newSingleThreadExecutor();
+
+    private final FirebaseFirestore db;
+
+    public FleetPlanSync(FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    /**
+     * Plan and publish the fleet unless someone already did today. The claim is a
+     * transaction on one per-day document, so two collectors opening the screen
+     * together (or a truck that joins mid-shift) never plan the fleet twice.
+     */
+    public void ensureTodayPlan(String collectorId, double latitude, double longitude, Callback callback) {
+        String today = today();
+        DocumentReference dayRef = db.collection(PLANS_COLLECTION).document(DAY_DOC);
+        db.runTransaction((Transaction.Function<Boolean>) transaction -> {
+            DocumentSnapshot day = transaction.get(dayRef);
+            long now = System.currentTimeMillis();
+            if (day.exists() && today.equals(day.getString("planDate"))) {
+                Long claimedAt = day.getLong("claimedAt");
+                // A claim whose planner never published lapses after the lease
+                boolean live = claimedAt != null && now - claimedAt < CLAIM_LEASE_MS;
+                if (Boolean.TRUE.equals(day.getBoolean("published")) || live) return false;
+            }
+            Map<String, Object> claim = new HashMap<>();
+            claim.put("planDate", today);
+            claim.put("plannedBy", collectorId);
+            claim.put("claimedAt", now);
+            claim.put("published", false);
+            transaction.set(dayRef, claim);
+            return true;
+        }).addOnSuccessListener(claimed -> {
+            if (!Boolean.TRUE.equals(claimed)) {
+                callback.onPlanReady(false);
+                return;
+            }
+            planFleet(collectorId, latitude, longitude, today, callback);
+        }).addOnFailureListener(e -> Log.e(TAG, "Failed to claim today's fleet plan", e));
+    }
+
+    private void planFleet(String collectorId, double latitude, double longitude, String today, Callback callback) {
+        Task<QuerySnapshot> collectors = db.collection("collectors").get();
+        Task<QuerySnapshot> positions = db.collection(CollectorLocationService.POSITIONS_COLLECTION).get();
+        Task<QuerySnapshot> reports = db.collection("garbagelevel").whereEqualTo("status", "open").get();
+        Task<QuerySnapshot> residents = db.collection("residents").get();
+
+        Tasks.whenAllSuccess(collectors, positions, reports, residents)
+                .addOnSuccessListener(PLAN_EXECUTOR, results -> {
+                    List<FleetPlanner.Truck> trucks = activeTrucks(collectors.getResult(), positions.getResult(),
+                            collectorId, latitude, longitude);
+                    List<FleetPlanner.Stop> stops = stops(reports.getResult(), residents.getResult());
+
+                    FleetPlanner.Result result = new FleetPlanner(TRUCK_BUDGET_MS).plan(trucks, stops);
+                    Log.d(TAG, "Fleet plan: " + stops.size() + " stops; " + result.statsLine());
+                    publish(result, reports.getResult(), today, callback);
+                })
+                .addOnFailureListener(e -> Log.e(TAG, "Failed to load fleet data", e));
+    }
+
+    /** Every collector with a recent position, plus the caller at its current location */
+    private static List<FleetPlanner.Truck> activeTrucks(QuerySnapshot collectors, QuerySnapshot positions,
+                                                         String collectorId, double latitude, double longitude) {
+        Map<String, DocumentSnapshot> positionById = new HashMap<>();
+        for (DocumentSnapshot doc : positions.getDocuments()) positionById.put(doc.getId(), doc);
+
+        long activeSince = System.currentTimeMillis() - ACTIVE_WINDOW_MS;
+        List<FleetPlanner.Truck> trucks = new ArrayList<>();
+        for (DocumentSnapshot collector : collectors.getDocuments()) {
+            String id = collector.getId();
+            Long capacityField = collector.getLong("capacityBins");
+            int capacity = capacityField != null ? capacityField.intValue() : FleetPlanner.DEFAULT_TRUCK_CAPACITY;
+
+            if (id.equals(collectorId)) {
+                trucks.add(new FleetPlanner.Truck(id, latitude, longitude, capacity));
+                continue;
+            }
+            DocumentSnapshot position = positionById.get(id);
+            if (position == null) continue;
+            Double lat = position.getDouble("latitude");
+            Double lng = position.getDouble("longitude");
+            Long timestamp = position.getLong("timestamp");
+            if (lat == null || lng == null || timestamp == null || timestamp < activeSince) continue;
+            trucks.add(new FleetPlanner.Truck(id, lat, lng, capacity));
+        }
+        return trucks;
+    }
+
+    /** Open reports (load from their garbage level) and registered households (one bin each) */
+    private static List<FleetPlanner.Stop> stops(QuerySnapshot reports, QuerySnapshot residents) {
+        List<FleetPlanner.Stop> stops = new ArrayList<>();
+        for (DocumentSnapshot doc : reports.getDocuments()) {
+            Double lat = doc.getDouble("latitude");
+            Double lng = doc.getDouble("longitude");
+            if (lat == null || lng == null) continue; // older reports have only an address
+            stops.add(new FleetPlanner.Stop(doc.getId(), lat, lng,
+                    FleetPlanner.loadForLevel(doc.getString("garbageLevel"))));
+        }
+        for (DocumentSnapshot doc : residents.getDocuments()) {
+            Double lat = doc.getDouble("latitude");
+            Double lng = doc.getDouble("longitude");
+            if (lat == null || lng == null) continue;
+            stops.add(new FleetPlanner.Stop(HOUSEHOLD_PREFIX + doc.getId(), lat, lng, FleetPlanner.HOUSEHOLD_LOAD));
+        }
+        return stops;
+    }
+
+    /**
+     * One plan document per truck: ordered stop ids plus the start and stops as a
+     * single encoded polyline. Reports get {@code assignedTo}, and open reports
+     * still assigned from an earlier plan but left out of this one are released;
+     * writes are split into batches under Firestore's per-batch limit.
+     */
+    private void publish(FleetPlanner.Result result, QuerySnapshot openReports, String today, Callback callback) {
+        List<WriteBatch> batches = new ArrayList<>();
+        WriteBatch batch = db.batch();
+        int writes = 0;
+        long now = System.currentTimeMillis();
+        Set<String> planned = new HashSet<>();
+
+        for (FleetPlanner.TruckPlan plan : result.plans) {
+            List<String> stopIds = new ArrayList<>(plan.stops.size());
+            double[] path = new double[(plan.stops.size() + 1) * 2];
+            path[0] = plan.truck.latitude;
+            path[1] = plan.truck.longitude;
+            for (int i = 0; i < plan.stops.size(); i++) {
+                FleetPlanner.Stop stop = plan.stops.get(i);
+                stopIds.add(stop.id);
+                path[2 * i + 2] = stop.latitude;
+                path[2 * i + 3] = stop.longitude;
+            }
+
+            Map<String, Object> doc = new HashMap<>();
+            doc.put("planDate", today);
+            doc.put("plannedAt", now);
+            doc.put("stopIds", stopIds);
+            doc.put("stops", PolylineCodec.encode(path));
+            doc.put("stopCount", stopIds.size());
+            doc.put("load", plan.load);
+            doc.put("capacity", plan.truck.capacity);
+            doc.put("lengthMeters", Math.round(plan.lengthMeters));
+            batch.set(db.collection(PLANS_COLLECTION).document(plan.truck.id), doc);
+            writes++;
+
+            for (String id : stopIds) {
+                if (id.startsWith(HOUSEHOLD_PREFIX)) continue;
+                planned.add(id);
+                if (writes == MAX_BATCH_WRITES) {
+                    batches.add(batch);
+                    batch = db.batch();
+                    writes = 0;
+                }
+                batch.update(db.collection("garbagelevel").document(id), ASSIGNED_TO, plan.truck.id);
+                writes++;
+            }
+        }
+
+        // 🔹 A stale assignment would keep the report out of every other truck's tour
+        for (DocumentSnapshot report : openReports.getDocuments()) {
+            if (planned.contains(report.getId()) || report.getString(ASSIGNED_TO) == null) continue;
+            if (writes == MAX_BATCH_WRITES) {
+                batches.add(batch);
+                batch = db.batch();
+                writes = 0;
+            }
+            batch.update(report.getReference(), ASSIGNED_TO, FieldValue.delete());
+            writes++;
+        }
+        batches.add(batch);
+
+        List<Task<Void>> commits = new ArrayList<>(batches.size());
+        for (WriteBatch b : batches) commits.add(b.commit());
+        Tasks.whenAll(commits)
+                .addOnSuccessListener(unused -> {
+                    Log.d(TAG, "Published " + result.plans.size() + " truck plans in " + batches.size() + " batches");
+                    db.collection(PLANS_COLLECTION).document(DAY_DOC)
+                            .update("published", true, "publishedAt", System.currentTimeMillis())
+                            .addOnFailureListener(e -> Log.e(TAG, "Failed to mark fleet plan published", e));
+                    callback.onPlanReady(true);
+                })
+                .addOnFailureListener(e -> Log.e(TAG, "Failed to publish fleet plan", e));
+    }
+
+    private static String today() {
+        return new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault()).format(new Date());
+    }
+}
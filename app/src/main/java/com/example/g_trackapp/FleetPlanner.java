@@ -0,0 +1,304 @@
+package com.example.g_trackapp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 🚚 FleetPlanner
+ * Splits a day's stops across the active trucks and orders each truck's share.
+ * Partitioning is a capacitated k-means seeded at the trucks' positions: stops
+ * that lose most by not getting their nearest truck (highest regret) are placed
+ * first, and a stop only goes to a truck with load to spare. Each truck's tour
+ * is then improved by its own {@link RouteOptimizer}; distance rows and the
+ * per-truck tours run as fork/join tasks.
+ *
+ * Loads are in bin equivalents (one 240 L wheelie bin ≈ 1).
+ */
+public final class FleetPlanner {
+
+    /** One household's regular pickup */
+    public static final int HOUSEHOLD_LOAD = 1;
+    /** Compactor truck, ~16 m³ body at ~3:1 compaction */
+    public static final int DEFAULT_TRUCK_CAPACITY = 200;
+
+    /** Re-center and re-assign at most this many times */
+    private static final int MAX_PARTITION_ROUNDS = 8;
+    /** Stops per distance-row task before splitting stops further */
+    private static final int ROWS_PER_TASK = 256;
+
+    /** Estimated load of a garbage report ("Low" … "Extreme", as written by CollectorLevelsOfGarbageActivity) */
+    public static int loadForLevel(String level) {
+        if (level == null) return HOUSEHOLD_LOAD;
+        switch (level) {
+            case "Extreme": return 8;
+            case "High": return 4;
+            case "Medium": return 2;
+            default: return 1;
+        }
+    }
+
+    public static final class Truck {
+        public final String id;
+        public final double latitude;
+        public final double longitude;
+        public final int capacity;
+
+        public Truck(String id, double latitude, double longitude, int capacity) {
+            this.id = id;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.capacity = capacity;
+        }
+    }
+
+    public static final class Stop {
+        public final String id;
+        public final double latitude;
+        public final double longitude;
+        public final int load;
+
+        public Stop(String id, double latitude, double longitude, int load) {
+            this.id = id;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.load = load;
+        }
+    }
+
+    /** One truck's ordered tour (starting from the truck's position) */
+    public static final class TruckPlan {
+        public final Truck truck;
+        public final List<Stop> stops;
+        public final int load;
+        public final double lengthMeters;
+
+        TruckPlan(Truck truck, List<Stop> stops, int load, double lengthMeters) {
+            this.truck = truck;
+            this.stops = Collections.unmodifiableList(stops);
+            this.load = load;
+            this.lengthMeters = lengthMeters;
+        }
+    }
+
+    public static final class Result {
+        public final List<TruckPlan> plans;
+        /** Stops that did not fit in any truck */
+        public final List<Stop> unassigned;
+        public final int partitionRounds;
+        public final long partitionMillis;
+        public final long routingMillis;
+
+        Result(List<TruckPlan> plans, List<Stop> unassigned, int partitionRounds,
+               long partitionMillis, long routingMillis) {
+            this.plans = Collections.unmodifiableList(plans);
+            this.unassigned = Collections.unmodifiableList(unassigned);
+            this.partitionRounds = partitionRounds;
+            this.partitionMillis = partitionMillis;
+            this.routingMillis = routingMillis;
+        }
+
+        public String statsLine() {
+            double total = 0;
+            for (TruckPlan plan : plans) total += plan.lengthMeters;
+            return plans.size() + " trucks, " + unassigned.size() + " unassigned, "
+                    + Math.round(total / 1000) + " km; partition " + partitionMillis + " ms ("
+                    + partitionRounds + " rounds), routing " + routingMillis + " ms";
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final long truckBudgetMillis;
+
+    /** @param truckBudgetMillis time budget of each truck's {@link RouteOptimizer} */
+    public FleetPlanner(ForkJoinPool pool, long truckBudgetMillis) {
+        this.pool = pool;
+        this.truckBudgetMillis = truckBudgetMillis;
+    }
+
+    public FleetPlanner(long truckBudgetMillis) {
+        this(ForkJoinPool.commonPool(), truckBudgetMillis);
+    }
+
+    /** Blocking — call from a background thread */
+    public Result plan(List<Truck> trucks, List<Stop> stops) {
+        int k = trucks.size();
+        if (k == 0) return new Result(new ArrayList<>(), new ArrayList<>(stops), 0, 0, 0);
+
+        long t0 = System.nanoTime();
+        int[] assignment = new int[stops.size()];
+        int rounds = partition(trucks, stops, assignment);
+        long t1 = System.nanoTime();
+
+        List<RouteTask> tasks = new ArrayList<>(k);
+        for (int t = 0; t < k; t++) tasks.add(new RouteTask(trucks.get(t), stops, assignment, t, truckBudgetMillis));
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+        long t2 = System.nanoTime();
+
+        List<TruckPlan> plans = new ArrayList<>(k);
+        for (RouteTask task : tasks) plans.add(task.join());
+        List<Stop> unassigned = new ArrayList<>();
+        for (int s = 0; s < stops.size(); s++) {
+            if (assignment[s] < 0) unassigned.add(stops.get(s));
+        }
+        return new Result(plans, unassigned, rounds, (t1 - t0) / 1_000_000, (t2 - t1) / 1_000_000);
+    }
+
+    // 🔹 Partition: capacitated assignment by regret, then move each center to its cluster's mean
+    private int partition(List<Truck> trucks, List<Stop> stops, int[] assignment) {
+        int k = trucks.size();
+        int n = stops.size();
+        double[] centerLat = new double[k];
+        double[] centerLng = new double[k];
+        for (int t = 0; t < k; t++) {
+            centerLat[t] = trucks.get(t).latitude;
+            centerLng[t] = trucks.get(t).longitude;
+        }
+
+        float[] distances = new float[n * k];
+        float[] regret = new float[n];
+        Integer[] byRegret = new Integer[n];
+        int[] previous = new int[n];
+        Arrays.fill(previous, -2);
+        int rounds = 0;
+
+        while (rounds < MAX_PARTITION_ROUNDS) {
+            rounds++;
+            pool.invoke(new DistanceRows(stops, centerLat, centerLng, distances, regret, 0, n));
+
+            for (int s = 0; s < n; s++) byRegret[s] = s;
+            Arrays.sort(byRegret, (a, b) -> Float.compare(regret[b], regret[a]));
+
+            int[] room = new int[k];
+            for (int t = 0; t < k; t++) room[t] = trucks.get(t).capacity;
+            for (int s : byRegret) {
+                int load = stops.get(s).load;
+                int best = -1;
+                for (int t = 0; t < k; t++) {
+                    if (room[t] >= load && (best < 0 || distances[s * k + t] < distances[s * k + best])) best = t;
+                }
+                assignment[s] = best;
+                if (best >= 0) room[best] -= load;
+            }
+
+            if (Arrays.equals(assignment, previous)) break;
+            System.arraycopy(assignment, 0, previous, 0, n);
+
+            // The truck's own position counts as one member so clusters stay anchored to it
+            for (int t = 0; t < k; t++) {
+                double sumLat = trucks.get(t).latitude, sumLng = trucks.get(t).longitude;
+                int count = 1;
+                for (int s = 0; s < n; s++) {
+                    if (assignment[s] != t) continue;
+                    sumLat += stops.get(s).latitude;
+                    sumLng += stops.get(s).longitude;
+                    count++;
+                }
+                centerLat[t] = sumLat / count;
+                centerLng[t] = sumLng / count;
+            }
+        }
+        return rounds;
+    }
+
+    /** Fills {@code distances[s * k + t]} and each stop's regret (second-nearest minus nearest) */
+    private static final class DistanceRows extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final List<Stop> stops;
+        private final double[] centerLat, centerLng;
+        private final float[] distances, regret;
+        private final int from, to;
+
+        DistanceRows(List<Stop> stops, double[] centerLat, double[] centerLng,
+                     float[] distances, float[] regret, int from, int to) {
+            this.stops = stops;
+            this.centerLat = centerLat;
+            this.centerLng = centerLng;
+            this.distances = distances;
+            this.regret = regret;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > ROWS_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new DistanceRows(stops, centerLat, centerLng, distances, regret, from, mid),
+                        new DistanceRows(stops, centerLat, centerLng, distances, regret, mid, to));
+                return;
+            }
+            int k = centerLat.length;
+            for (int s = from; s < to; s++) {
+                Stop stop = stops.get(s);
+                float nearest = Float.MAX_VALUE, second = Float.MAX_VALUE;
+                for (int t = 0; t < k; t++) {
+                    float d = (float) GeoMath.distanceMeters(stop.latitude, stop.longitude, centerLat[t], centerLng[t]);
+                    distances[s * k + t] = d;
+                    if (d < nearest) {
+                        second = nearest;
+                        nearest = d;
+                    } else if (d < second) {
+                        second = d;
+                    }
+                }
+                regret[s] = k == 1 ? 0 : second - nearest;
+            }
+        }
+    }
+
+    /** Orders one truck's share; index 0 of its matrix is the truck itself */
+    private static final class RouteTask extends RecursiveTask<TruckPlan> {
+        private static final long serialVersionUID = 1L;
+        private final Truck truck;
+        private final List<Stop> stops;
+        private final int[] assignment;
+        private final int index;
+        private final long budgetMillis;
+
+        RouteTask(Truck truck, List<Stop> stops, int[] assignment, int index, long budgetMillis) {
+            this.truck = truck;
+            this.stops = stops;
+            this.assignment = assignment;
+            this.index = index;
+            this.budgetMillis = budgetMillis;
+        }
+
+        @Override
+        protected TruckPlan compute() {
+            List<Stop> mine = new ArrayList<>();
+            int load = 0;
+            for (int s = 0; s < assignment.length; s++) {
+                if (assignment[s] != index) continue;
+                mine.add(stops.get(s));
+                load += stops.get(s).load;
+            }
+
+            double[] lat = new double[mine.size() + 1];
+            double[] lng = new double[mine.size() + 1];
+            lat[0] = truck.latitude;
+            lng[0] = truck.longitude;
+            for (int i = 0; i < mine.size(); i++) {
+                lat[i + 1] = mine.get(i).latitude;
+                lng[i + 1] = mine.get(i).longitude;
+            }
+
+            // RouteOptimizer keeps per-run counters, so every task gets its own
+            float[] matrix = RouteOptimizer.haversineMatrix(lat, lng);
+            int[] order = new RouteOptimizer(budgetMillis).order(matrix, lat.length, 0);
+
+            List<Stop> ordered = new ArrayList<>(mine.size());
+            for (int i = 1; i < order.length; i++) ordered.add(mine.get(order[i] - 1));
+            return new TruckPlan(truck, ordered, load, RouteOptimizer.pathLength(matrix, lat.length, order));
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.example.g_trackapp;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.Source;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 📮 GarbageReportSync
+ * Accepts garbage reports instantly into a {@link ReportQueue} on disk and
+ * commits them to {@code garbagelevel} in atomic WriteBatch groups. Taps within
+ * {@link #FLUSH_DELAY_MS} of each other share one commit, and everything queued
+ * while offline goes out together once a network is back — a shift's reports
+ * cost a handful of round trips. Each report is written under its idempotency
+ * key, and a retry only creates documents that are still missing, so a report
+ * is never duplicated or overwritten.
+ */
+public final class GarbageReportSync {
+
+    private static final String TAG = "GarbageReportSync";
+    static final String REPORTS_COLLECTION = "garbagelevel";
+    /** Server timestamp stamped on every report */
+    static final String REPORTED_AT = "reportedAt";
+    private static final String QUEUE_FILE = "report_queue.bin";
+    /** Firestore allows 500 writes per batch */
+    private static final int MAX_BATCH_WRITES = 450;
+    /** Firestore's limit on values in one whereIn */
+    private static final int MAX_IN_QUERY = 30;
+    /** Coalesce taps that come in quick succession into one commit */
+    private static final long FLUSH_DELAY_MS = 20_000;
+    private static final long RETRY_DELAY_MS = 60_000;
+
+    public interface PendingListener {
+        /** Called on the main thread with the number of reports not yet committed */
+        void onPendingChanged(int pending);
+    }
+
+    public interface EnqueueCallback {
+        /** @param queued false if the report could not be written to disk */
+        void onEnqueued(boolean queued);
+    }
+
+    private static GarbageReportSync instance;
+
+    private final FirebaseFirestore db;
+    private final File queueFile;
+    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable flushRunnable = this::flush;
+    private final List<PendingListener> listeners = new ArrayList<>();
+    /** Reports that may already be in Firestore: they are re-sent create-only (main thread) */
+    private final Set<String> attempted = new HashSet<>();
+
+    private ReportQueue queue; // IO executor only
+    private volatile boolean online = true;
+    private boolean flushing = false;
+    private int pendingCount = 0;
+
+    public static synchronized GarbageReportSync getInstance(Context context) {
+        if (instance == null) {
+            instance = new GarbageReportSync(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private GarbageReportSync(Context appContext) {
+        db = FirebaseFirestore.getInstance();
+        queueFile = new File(appContext.getFilesDir(), QUEUE_FILE);
+
+        ConnectivityManager connectivityManager =
+                (ConnectivityManager) appContext.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (connectivityManager != null) {
+            online = connectivityManager.getActiveNetwork() != null;
+            connectivityManager.registerDefaultNetworkCallback(networkCallback);
+        }
+
+        // 🔹 Reports left over from an earlier session go out as soon as possible
+        ioExecutor.execute(() -> {
+            List<ReportQueue.Report> leftOver = openQueue() ? queue.pending() : new ArrayList<>();
+            mainHandler.post(() -> {
+                // An earlier process may have committed these without seeing the ack
+                for (ReportQueue.Report report : leftOver) attempted.add(report.id);
+                setPendingCount(leftOver.size());
+                scheduleFlush(0);
+            });
+        });
+    }
+
+    /** Store a report locally; the callback runs on the main thread once it is on disk */
+    public void enqueue(Map<String, Object> fields, EnqueueCallback callback) {
+        ioExecutor.execute(() -> {
+            boolean queued = false;
+            int pending = 0;
+            if (openQueue()) {
+                try {
+                    queue.enqueue(fields, System.currentTimeMillis());
+                    queued = true;
+                } catch (IOException e) {
+                    Log.e(TAG, "Report enqueue failed", e);
+                } catch (RuntimeException e) {
+                    // A field the queue can't encode: reject the report instead of killing the IO thread
+                    Log.e(TAG, "Report could not be encoded", e);
+                }
+                pending = queue.size();
+            }
+            boolean result = queued;
+            int count = pending;
+            mainHandler.post(() -> {
+                setPendingCount(count);
+                if (result) scheduleFlush(FLUSH_DELAY_MS);
+                callback.onEnqueued(result);
+            });
+        });
+    }
+
+    /** Registers a listener and immediately reports the current count (main thread) */
+    public void addPendingListener(PendingListener listener) {
+        listeners.add(listener);
+        listener.onPendingChanged(pendingCount);
+    }
+
+    public void removePendingListener(PendingListener listener) {
+        listeners.remove(listener);
+    }
+
+    private boolean openQueue() {
+        if (queue != null) return true;
+        try {
+            queue = new ReportQueue(queueFile);
+            return true;
+        } catch (IOException e) {
+            Log.e(TAG, "Could not open report queue", e);
+            return false;
+        }
+    }
+
+    private void setPendingCount(int pending) {
+        pendingCount = pending;
+        for (PendingListener listener : new ArrayList<>(listeners)) listener.onPendingChanged(pending);
+    }
+
+    /** Main thread; an earlier pending flush is pushed back so bursts share a commit */
+    private void scheduleFlush(long delayMillis) {
+        mainHandler.removeCallbacks(flushRunnable);
+        mainHandler.postDelayed(flushRunnable, delayMillis);
+    }
+
+    private void flush() {
+        if (flushing || !online) return;
+        flushing = true;
+        ioExecutor.execute(() -> {
+            List<ReportQueue.Report> reports = openQueue() ? queue.pending() : new ArrayList<>();
+            mainHandler.post(() -> {
+                if (reports.isEmpty()) {
+                    flushing = false;
+                    return;
+                }
+                commit(reports);
+            });
+        });
+    }
+
+    /**
+     * Reports that were sent before (lost ack, earlier process) are only created if
+     * their document is still missing: a blind set would reopen a report that was
+     * collected since, strip its assignedTo and re-stamp reportedAt.
+     */
+    private void commit(List<ReportQueue.Report> reports) {
+        List<String> maybeSent = new ArrayList<>();
+        for (ReportQueue.Report report : reports) {
+            if (attempted.contains(report.id)) maybeSent.add(report.id);
+        }
+        if (maybeSent.isEmpty()) {
+            writeBatches(reports, reports);
+            return;
+        }
+
+        List<Task<QuerySnapshot>> checks = new ArrayList<>();
+        for (int start = 0; start < maybeSent.size(); start += MAX_IN_QUERY) {
+            List<String> ids = maybeSent.subList(start, Math.min(maybeSent.size(), start + MAX_IN_QUERY));
+            checks.add(db.collection(REPORTS_COLLECTION).whereIn(FieldPath.documentId(), new ArrayList<>(ids))
+                    .get(Source.SERVER)); // the local cache can't tell what the server already has
+        }
+        Tasks.whenAllSuccess(checks).addOnSuccessListener(unused -> {
+            Set<String> existing = new HashSet<>();
+            for (Task<QuerySnapshot> check : checks) {
+                for (DocumentSnapshot doc : check.getResult().getDocuments()) existing.add(doc.getId());
+            }
+            if (!existing.isEmpty()) {
+                Log.d(TAG, existing.size() + " retried reports were already committed");
+                ack(new ArrayList<>(existing));
+            }
+            List<ReportQueue.Report> missing = new ArrayList<>();
+            for (ReportQueue.Report report : reports) {
+                if (!existing.contains(report.id)) missing.add(report);
+            }
+            if (missing.isEmpty()) {
+                flushing = false;
+                flushNewerReports(reports);
+                return;
+            }
+            writeBatches(missing, reports);
+        }).addOnFailureListener(e -> {
+            Log.e(TAG, "Could not check retried reports — retrying later", e);
+            flushing = false;
+            scheduleFlush(RETRY_DELAY_MS);
+        });
+    }
+
+    /** One atomic batch per {@link #MAX_BATCH_WRITES} reports; each batch is acked as it lands */
+    private void writeBatches(List<ReportQueue.Report> reports, List<ReportQueue.Report> flushed) {
+        List<Task<Void>> commits = new ArrayList<>();
+        for (int start = 0; start < reports.size(); start += MAX_BATCH_WRITES) {
+            List<ReportQueue.Report> group = reports.subList(start, Math.min(reports.size(), start + MAX_BATCH_WRITES));
+            WriteBatch batch = db.batch();
+            List<String> ids = new ArrayList<>(group.size());
+            for (ReportQueue.Report report : group) {
+                batch.set(db.collection(REPORTS_COLLECTION).document(report.id), documentFields(report));
+                ids.add(report.id);
+                attempted.add(report.id);
+            }
+            commits.add(batch.commit().addOnSuccessListener(aVoid -> ack(ids)));
+        }
+
+        Tasks.whenAllComplete(commits).addOnCompleteListener(all -> {
+            flushing = false;
+            int failed = 0;
+            for (Task<Void> task : commits) if (!task.isSuccessful()) failed++;
+            if (failed > 0) {
+                Log.e(TAG, failed + " of " + commits.size() + " report batches failed — retrying later");
+                scheduleFlush(RETRY_DELAY_MS);
+            } else {
+                Log.d(TAG, "Committed " + reports.size() + " reports in " + commits.size() + " batches");
+                flushNewerReports(flushed);
+            }
+        });
+    }
+
+    /** Flushes requested while the commit was in flight were dropped; pick up what they queued */
+    private void flushNewerReports(List<ReportQueue.Report> committed) {
+        Set<String> sent = new HashSet<>();
+        for (ReportQueue.Report report : committed) sent.add(report.id);
+        ioExecutor.execute(() -> {
+            for (ReportQueue.Report report : queue.pending()) {
+                if (!sent.contains(report.id)) {
+                    mainHandler.post(() -> scheduleFlush(0));
+                    return;
+                }
+            }
+        });
+    }
+
+    /**
+     * Queued fields plus the time stamps: {@link #REPORTED_AT} is the server's commit
+     * time (range-queryable), {@code createdAtMillis} the device time of the tap.
+     */
+    private static Map<String, Object> documentFields(ReportQueue.Report report) {
+        Map<String, Object> fields = new HashMap<>(report.fields);
+        fields.put("createdAtMillis", report.createdAtMillis);
+        fields.put(REPORTED_AT, FieldValue.serverTimestamp());
+        return fields;
+    }
+
+    private void ack(List<String> ids) {
+        attempted.removeAll(ids);
+        ioExecutor.execute(() -> {
+            try {
+                queue.ack(ids);
+            } catch (IOException e) {
+                // Still on disk: the next flush re-sends them under the same document ids
+                Log.e(TAG, "Report ack failed", e);
+            }
+            int pending = queue.size();
+            mainHandler.post(() -> setPendingCount(pending));
+        });
+    }
+
+    private final ConnectivityManager.NetworkCallback networkCallback = new ConnectivityManager.NetworkCallback() {
+        @Override
+        public void onAvailable(@NonNull Network network) {
+            online = true;
+            mainHandler.post(() -> scheduleFlush(0));
+        }
+
+        @Override
+        public void onLost(@NonNull Network network) {
+            online = false;
+            Log.d(TAG, "Offline — keeping reports in the queue");
+        }
+    };
+}
@@ -0,0 +1,157 @@
+package com.example.g_trackapp;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 🗺️ GeoCell
+ * Geohash cell keys for bounded spatial queries in Firestore.
+ * Every position, resident and drop-off document carries a full-precision
+ * {@link #FIELD} string; a query for one cell is then a simple prefix range.
+ */
+public final class GeoCell {
+
+    /** Firestore field holding the cell key */
+    public static final String FIELD = "geohash";
+    /** Precision stamped on writes (~4.8 m × 4.8 m) */
+    public static final int WRITE_PRECISION = 9;
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+    private static final int[] DECODE = new int[128];
+
+    static {
+        java.util.Arrays.fill(DECODE, -1);
+        for (int i = 0; i < BASE32.length; i++) DECODE[BASE32[i]] = i;
+    }
+
+    /** Sorts after every base32 character, closes a prefix range */
+    private static final char RANGE_END = '~';
+
+    private GeoCell() {}
+
+    public static String encode(double latitude, double longitude) {
+        return encode(latitude, longitude, WRITE_PRECISION);
+    }
+
+    public static String encode(double latitude, double longitude, int precision) {
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        char[] out = new char[precision];
+        boolean evenBit = true; // longitude first
+        int bit = 0, ch = 0, len = 0;
+
+        while (len < precision) {
+            if (evenBit) {
+                double mid = (minLon + maxLon) / 2;
+                if (longitude >= mid) { ch = (ch << 1) | 1; minLon = mid; } else { ch <<= 1; maxLon = mid; }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) { ch = (ch << 1) | 1; minLat = mid; } else { ch <<= 1; maxLat = mid; }
+            }
+            evenBit = !evenBit;
+            if (++bit == 5) {
+                out[len++] = BASE32[ch];
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return new String(out);
+    }
+
+    /** @return {minLat, minLon, maxLat, maxLon} of the cell */
+    public static double[] bounds(String hash) {
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        boolean evenBit = true;
+        for (int i = 0; i < hash.length(); i++) {
+            char c = hash.charAt(i);
+            int value = c < 128 ? DECODE[c] : -1;
+            if (value < 0) throw new IllegalArgumentException("Invalid geohash: " + hash);
+            for (int shift = 4; shift >= 0; shift--) {
+                int b = (value >> shift) & 1;
+                if (evenBit) {
+                    double mid = (minLon + maxLon) / 2;
+                    if (b == 1) minLon = mid; else maxLon = mid;
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (b == 1) minLat = mid; else maxLat = mid;
+                }
+                evenBit = !evenBit;
+            }
+        }
+        return new double[]{minLat, minLon, maxLat, maxLon};
+    }
+
+    /** Cell {@code dLat} rows north and {@code dLon} columns east of {@code hash}, same precision */
+    public static String neighbor(String hash, int dLat, int dLon) {
+        double[] b = bounds(hash);
+        double height = b[2] - b[0];
+        double width = b[3] - b[1];
+        double lat = (b[0] + b[2]) / 2 + dLat * height;
+        double lon = (b[1] + b[3]) / 2 + dLon * width;
+        if (lat > 90 || lat < -90) return null;
+        if (lon > 180) lon -= 360;
+        if (lon < -180) lon += 360;
+        return encode(lat, lon, hash.length());
+    }
+
+    /** The cell itself followed by its (up to) 8 neighbors */
+    public static List<String> neighborhood(String hash) {
+        List<String> cells = new ArrayList<>(9);
+        cells.add(hash);
+        for (int dLat = -1; dLat <= 1; dLat++) {
+            for (int dLon = -1; dLon <= 1; dLon++) {
+                if (dLat == 0 && dLon == 0) continue;
+                String n = neighbor(hash, dLat, dLon);
+                if (n != null) cells.add(n);
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Cells of one precision that together cover the box. Picks the finest
+     * precision whose covering set has at most {@code maxCells} cells.
+     */
+    public static List<String> covering(double minLat, double minLon, double maxLat, double maxLon, int maxCells) {
+        for (int precision = WRITE_PRECISION; precision > 1; precision--) {
+            if (estimateCellCount(minLat, minLon, maxLat, maxLon, precision) <= maxCells) {
+                return covering(minLat, minLon, maxLat, maxLon, precision, maxCells);
+            }
+        }
+        return covering(minLat, minLon, maxLat, maxLon, 1, Integer.MAX_VALUE);
+    }
+
+    private static List<String> covering(double minLat, double minLon, double maxLat, double maxLon,
+                                         int precision, int maxCells) {
+        double[] cell = bounds(encode(minLat, minLon, precision));
+        double height = cell[2] - cell[0];
+        double width = cell[3] - cell[1];
+
+        Set<String> cells = new LinkedHashSet<>();
+        for (double lat = cell[0] + height / 2; lat < maxLat + height / 2 && cells.size() < maxCells; lat += height) {
+            for (double lon = cell[1] + width / 2; lon < maxLon + width / 2 && cells.size() < maxCells; lon += width) {
+                cells.add(encode(Math.min(lat, 90), Math.min(lon, 180), precision));
+            }
+        }
+        return new ArrayList<>(cells);
+    }
+
+    private static long estimateCellCount(double minLat, double minLon, double maxLat, double maxLon, int precision) {
+        int lonBits = (precision * 5 + 1) / 2;
+        int latBits = precision * 5 / 2;
+        double width = 360.0 / (1L << lonBits);
+        double height = 180.0 / (1L << latBits);
+        long cols = (long) Math.floor(maxLon / width) - (long) Math.floor(minLon / width) + 1;
+        long rows = (long) Math.floor(maxLat / height) - (long) Math.floor(minLat / height) + 1;
+        return cols * rows;
+    }
+
+    /**
+     * Firestore range for every key that starts with {@code prefix}:
+     * {@code whereGreaterThanOrEqualTo(FIELD, r[0]).whereLessThan(FIELD, r[1])}
+     */
+    public static String[] range(String prefix) {
+        return new String[]{prefix, prefix + RANGE_END};
+    }
+}
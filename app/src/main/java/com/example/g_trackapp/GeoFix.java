@@ -0,0 +1,35 @@
+package com.example.g_trackapp;
+
+/**
+ * 📍 GeoFix
+ * Immutable, Android-free snapshot of a single location fix.
+ * Used by the collector location pipeline so each stage can be tested on the JVM.
+ */
+public final class GeoFix {
+
+    public final double latitude;
+    public final double longitude;
+    public final float accuracy;   // meters, NaN if unknown
+    public final float speed;      // m/s, NaN if unknown
+    public final float bearing;    // degrees, NaN if unknown
+    public final long timeMillis;
+
+    public GeoFix(double latitude, double longitude, float accuracy,
+                  float speed, float bearing, long timeMillis) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.accuracy = accuracy;
+        this.speed = speed;
+        this.bearing = bearing;
+        this.timeMillis = timeMillis;
+    }
+
+    public boolean hasAccuracy() { return !Float.isNaN(accuracy); }
+    public boolean hasSpeed() { return !Float.isNaN(speed); }
+    public boolean hasBearing() { return !Float.isNaN(bearing); }
+
+    @Override
+    public String toString() {
+        return "GeoFix{" + latitude + ", " + longitude + " @" + timeMillis + "}";
+    }
+}
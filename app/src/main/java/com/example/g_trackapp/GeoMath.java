@@ -0,0 +1,26 @@
+package com.example.g_trackapp;
+
+/**
+ * 🌐 GeoMath
+ * Small spherical-earth helpers shared by the location pipeline.
+ */
+public final class GeoMath {
+
+    public static final double EARTH_RADIUS_M = 6371000.0;
+
+    private GeoMath() {}
+
+    /** Haversine distance in meters */
+    public static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_M * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    public static double distanceMeters(GeoFix a, GeoFix b) {
+        return distanceMeters(a.latitude, a.longitude, b.latitude, b.longitude);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.g_trackapp;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 🔥 HeatmapCells
+ * Running per-cell weights for the report heatmap. Reports are folded into
+ * geohash cells (precision {@link #CELL_PRECISION}, ~150 m × 150 m) as they
+ * arrive, change or disappear, so each snapshot change costs O(1) and the
+ * overlay gets one weighted point per cell instead of one per report.
+ * {@link #put} and {@link #remove} report whether any cell weight moved, so a
+ * change to some other field of a report doesn't redraw the overlay.
+ *
+ * Pure Java; callers serialize access.
+ */
+public final class HeatmapCells {
+
+    static final int CELL_PRECISION = 7;
+
+    public static final class Cell {
+        /** Weighted centroid of the reports in the cell */
+        public final double latitude, longitude;
+        public final double weight;
+        public final int reports;
+
+        Cell(double latitude, double longitude, double weight, int reports) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.weight = weight;
+            this.reports = reports;
+        }
+    }
+
+    private static final class Sum {
+        double latWeight, lngWeight, weight;
+        int reports;
+    }
+
+    private static final class Entry {
+        final String cell;
+        final double latitude, longitude, weight;
+
+        Entry(String cell, double latitude, double longitude, double weight) {
+            this.cell = cell;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.weight = weight;
+        }
+    }
+
+    private final Map<String, Entry> reports = new HashMap<>();
+    private final Map<String, Sum> cells = new HashMap<>();
+
+    /**
+     * Add or update one report (an update first backs out its old contribution).
+     * @return false if the report already counted with the same position and weight
+     */
+    public boolean put(String id, double latitude, double longitude, double weight) {
+        Entry old = reports.get(id);
+        if (old != null && old.latitude == latitude && old.longitude == longitude && old.weight == weight) {
+            return false;
+        }
+        boolean removed = remove(id);
+        if (weight <= 0) return removed;
+        Entry entry = new Entry(GeoCell.encode(latitude, longitude, CELL_PRECISION), latitude, longitude, weight);
+        reports.put(id, entry);
+        Sum sum = cells.get(entry.cell);
+        if (sum == null) {
+            sum = new Sum();
+            cells.put(entry.cell, sum);
+        }
+        sum.latWeight += latitude * weight;
+        sum.lngWeight += longitude * weight;
+        sum.weight += weight;
+        sum.reports++;
+        return true;
+    }
+
+    /** @return false if the report wasn't counted */
+    public boolean remove(String id) {
+        Entry entry = reports.remove(id);
+        if (entry == null) return false;
+        Sum sum = cells.get(entry.cell);
+        if (--sum.reports == 0) {
+            cells.remove(entry.cell); // drop it outright rather than keep float residue
+            return true;
+        }
+        sum.latWeight -= entry.latitude * entry.weight;
+        sum.lngWeight -= entry.longitude * entry.weight;
+        sum.weight -= entry.weight;
+        return true;
+    }
+
+    public int reportCount() { return reports.size(); }
+
+    public boolean isEmpty() { return reports.isEmpty(); }
+
+    public List<Cell> cells() {
+        List<Cell> out = new ArrayList<>(cells.size());
+        for (Sum sum : cells.values()) {
+            out.add(new Cell(sum.latWeight / sum.weight, sum.lngWeight / sum.weight, sum.weight, sum.reports));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.g_trackapp;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+import java.util.Locale;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Response;
+
+/**
+ * ⏱️ HttpCallMetrics
+ * OkHttp {@link EventListener} factory that times each call's phases —
+ * DNS, connect, TLS, time to first byte and body — logs one line per call
+ * and keeps running totals. A reused pooled connection shows 0 ms DNS/connect/TLS.
+ */
+public class HttpCallMetrics implements EventListener.Factory {
+
+    private static final String TAG = "HttpCallMetrics";
+
+    private long calls, failures, pooledCalls, cacheHits;
+    private long totalDnsMs, totalConnectMs, totalTlsMs, totalTtfbMs, totalBodyMs, totalCallMs;
+
+    @Override
+    public EventListener create(Call call) {
+        return new CallTimer();
+    }
+
+    public synchronized long getCalls() { return calls; }
+    public synchronized long getPooledCalls() { return pooledCalls; }
+    public synchronized long getCacheHits() { return cacheHits; }
+
+    public synchronized String statsLine() {
+        long n = Math.max(1, calls);
+        return String.format(Locale.US,
+                "%d calls (%d failed, %d on pooled connections, %d from cache), avg dns %d / connect %d / tls %d / ttfb %d / body %d / total %d ms",
+                calls, failures, pooledCalls, cacheHits,
+                totalDnsMs / n, totalConnectMs / n, totalTlsMs / n, totalTtfbMs / n, totalBodyMs / n, totalCallMs / n);
+    }
+
+    private synchronized void record(CallTimer t, boolean failed) {
+        calls++;
+        if (failed) failures++;
+        if (t.connectStart == 0) pooledCalls++;
+        if (t.cacheHit) cacheHits++;
+        totalDnsMs += t.dnsMs();
+        totalConnectMs += t.connectMs();
+        totalTlsMs += t.tlsMs();
+        totalTtfbMs += t.ttfbMs();
+        totalBodyMs += t.bodyMs();
+        totalCallMs += t.callMs();
+    }
+
+    /** One per call; OkHttp delivers a call's events sequentially */
+    private final class CallTimer extends EventListener {
+        long callStart, dnsStart, dnsEnd, connectStart, connectEnd, tlsStart, tlsEnd;
+        long requestStart, responseHeadersStart, bodyStart, bodyEnd, callEnd;
+        boolean cacheHit;
+
+        @Override
+        public void callStart(Call call) {
+            callStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsStart(Call call, String domainName) {
+            dnsStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsEnd(Call call, String domainName, List<InetAddress> addresses) {
+            dnsEnd = System.nanoTime();
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress address, Proxy proxy) {
+            connectStart = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectStart(Call call) {
+            tlsStart = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectEnd(Call call, Handshake handshake) {
+            tlsEnd = System.nanoTime();
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress address, Proxy proxy, Protocol protocol) {
+            connectEnd = System.nanoTime();
+        }
+
+        @Override
+        public void requestHeadersStart(Call call) {
+            if (requestStart == 0) requestStart = System.nanoTime();
+        }
+
+        @Override
+        public void responseHeadersStart(Call call) {
+            responseHeadersStart = System.nanoTime();
+        }
+
+        @Override
+        public void responseBodyStart(Call call) {
+            bodyStart = System.nanoTime();
+        }
+
+        @Override
+        public void responseBodyEnd(Call call, long byteCount) {
+            bodyEnd = System.nanoTime();
+        }
+
+        @Override
+        public void cacheHit(Call call, Response response) {
+            cacheHit = true;
+        }
+
+        @Override
+        public void callEnd(Call call) {
+            callEnd = System.nanoTime();
+            finish(call, false);
+        }
+
+        @Override
+        public void callFailed(Call call, IOException ioe) {
+            callEnd = System.nanoTime();
+            finish(call, true);
+        }
+
+        private void finish(Call call, boolean failed) {
+            record(this, failed);
+            Log.d(TAG, String.format(Locale.US,
+                    "%s %s%s: dns %d, connect %d, tls %d, ttfb %d, body %d, total %d ms",
+                    failed ? "FAILED" : "OK", call.request().url().host(), cacheHit ? " (cache)" : "",
+                    dnsMs(), connectMs(), tlsMs(), ttfbMs(), bodyMs(), callMs()));
+        }
+
+        long dnsMs() { return span(dnsStart, dnsEnd); }
+        long connectMs() { return span(connectStart, connectEnd); }
+        long tlsMs() { return span(tlsStart, tlsEnd); }
+        long ttfbMs() { return span(requestStart, responseHeadersStart); }
+        long bodyMs() { return span(bodyStart, bodyEnd); }
+        long callMs() { return span(callStart, callEnd); }
+
+        private long span(long start, long end) {
+            return start == 0 || end < start ? 0 : (end - start) / 1_000_000;
+        }
+    }
+}
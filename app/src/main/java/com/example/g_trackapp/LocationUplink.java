@@ -0,0 +1,96 @@
+package com.example.g_trackapp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 📡 LocationUplink
+ * Coalesces collector fixes so Firestore sees at most one write per cadence window.
+ * Only the newest fix is published as the position; the fixes skipped in between
+ * are handed over as a trail so the path is not lost.
+ */
+public class LocationUplink {
+
+    public interface Publisher {
+        /**
+         * Called with the newest fix and the older fixes buffered since the last write (oldest first).
+         * @return true if a write was actually sent (false e.g. while offline)
+         */
+        boolean publish(GeoFix latest, List<GeoFix> trail);
+    }
+
+    private final Publisher publisher;
+    private final long cadenceMillis;
+    private final int maxTrailPoints;
+
+    private final List<GeoFix> pending = new ArrayList<>();
+    private long lastPublishMillis = Long.MIN_VALUE;
+
+    private long fixesReceived = 0;
+    private long writesIssued = 0;
+
+    public LocationUplink(Publisher publisher, long cadenceMillis, int maxTrailPoints) {
+        this.publisher = publisher;
+        this.cadenceMillis = cadenceMillis;
+        this.maxTrailPoints = maxTrailPoints;
+    }
+
+    /**
+     * Buffer a fix and publish if the cadence window has elapsed.
+     * @return true if a write was issued
+     */
+    public synchronized boolean offer(GeoFix fix, long nowMillis) {
+        fixesReceived++;
+        pending.add(fix);
+        if (lastPublishMillis == Long.MIN_VALUE || nowMillis - lastPublishMillis >= cadenceMillis) {
+            return flush(nowMillis);
+        }
+        return false;
+    }
+
+    /**
+     * Publish whatever is buffered, regardless of cadence.
+     * @return true if a write was issued
+     */
+    public synchronized boolean flush(long nowMillis) {
+        if (pending.isEmpty()) return false;
+
+        GeoFix latest = pending.get(pending.size() - 1);
+        List<GeoFix> trail = downsample(pending.subList(0, pending.size() - 1), maxTrailPoints);
+        pending.clear();
+
+        lastPublishMillis = nowMillis;
+        // Only writes that went out count; a declined one is left to the caller (e.g. the outbox)
+        if (!publisher.publish(latest, trail)) return false;
+        writesIssued++;
+        return true;
+    }
+
+    /** Milliseconds until buffered fixes are due, or -1 if nothing is buffered */
+    public synchronized long millisUntilDue(long nowMillis) {
+        if (pending.isEmpty()) return -1;
+        return Math.max(0, lastPublishMillis + cadenceMillis - nowMillis);
+    }
+
+    public synchronized boolean hasPending() { return !pending.isEmpty(); }
+
+    public synchronized long getFixesReceived() { return fixesReceived; }
+
+    public synchronized long getWritesIssued() { return writesIssued; }
+
+    /** Keep at most {@code max} evenly spaced points, always including the first and last */
+    static List<GeoFix> downsample(List<GeoFix> points, int max) {
+        int n = points.size();
+        if (n == 0 || max <= 0) return Collections.emptyList();
+        if (n <= max) return new ArrayList<>(points);
+        if (max == 1) return Collections.singletonList(points.get(n - 1));
+
+        List<GeoFix> out = new ArrayList<>(max);
+        double step = (double) (n - 1) / (max - 1);
+        for (int i = 0; i < max; i++) {
+            out.add(points.get((int) Math.round(i * step)));
+        }
+        return out;
+    }
+}
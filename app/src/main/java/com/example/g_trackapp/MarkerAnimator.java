@@ -0,0 +1,170 @@
+package com.example.g_trackapp;
+
+import android.view.Choreographer;
+
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.Marker;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * 🚗 MarkerAnimator
+ * One frame-synchronized animation loop for every moving marker on a map.
+ * Start/target/current positions live in parallel primitive arrays; a new
+ * target for a marker that is still moving re-targets it from where it is
+ * instead of stacking a second animation. Call {@link #pause()} / {@link #resume()}
+ * from onStop / onStart.
+ *
+ * Per frame the loop allocates nothing except the {@link LatLng} that
+ * {@link Marker#setPosition} requires.
+ */
+public class MarkerAnimator implements Choreographer.FrameCallback {
+
+    private static final long DURATION_NANOS = 1_000_000_000L;
+
+    private final Choreographer choreographer = Choreographer.getInstance();
+    private final Map<Marker, Integer> slots = new IdentityHashMap<>();
+
+    private Marker[] markers = new Marker[16];
+    private double[] startLat = new double[16];
+    private double[] startLng = new double[16];
+    private double[] targetLat = new double[16];
+    private double[] targetLng = new double[16];
+    private double[] currentLat = new double[16];
+    private double[] currentLng = new double[16];
+    private long[] startNanos = new long[16];
+    private boolean[] moving = new boolean[16];
+    private int count = 0;
+    private int movingCount = 0;
+
+    private boolean frameScheduled = false;
+    private boolean paused = false;
+
+    /** Move {@code marker} to the new position, continuing from wherever it currently is */
+    public void animateTo(Marker marker, double latitude, double longitude) {
+        Integer slot = slots.get(marker);
+        int i;
+        if (slot == null) {
+            i = add(marker);
+        } else {
+            i = slot;
+        }
+
+        startLat[i] = currentLat[i];
+        startLng[i] = currentLng[i];
+        targetLat[i] = latitude;
+        targetLng[i] = longitude;
+        startNanos[i] = System.nanoTime();
+        if (!moving[i]) {
+            moving[i] = true;
+            movingCount++;
+        }
+        scheduleFrame();
+    }
+
+    /** Stop tracking a marker (call before removing it from the map) */
+    public void remove(Marker marker) {
+        Integer slot = slots.remove(marker);
+        if (slot == null) return;
+        int i = slot;
+        if (moving[i]) movingCount--;
+
+        int last = --count;
+        if (i != last) {
+            markers[i] = markers[last];
+            startLat[i] = startLat[last];
+            startLng[i] = startLng[last];
+            targetLat[i] = targetLat[last];
+            targetLng[i] = targetLng[last];
+            currentLat[i] = currentLat[last];
+            currentLng[i] = currentLng[last];
+            startNanos[i] = startNanos[last];
+            moving[i] = moving[last];
+            slots.put(markers[i], i);
+        }
+        markers[last] = null;
+        moving[last] = false;
+    }
+
+    public void clear() {
+        for (int i = 0; i < count; i++) {
+            markers[i] = null;
+            moving[i] = false;
+        }
+        slots.clear();
+        count = 0;
+        movingCount = 0;
+        cancelFrame();
+    }
+
+    public void pause() {
+        paused = true;
+        cancelFrame();
+    }
+
+    public void resume() {
+        paused = false;
+        scheduleFrame();
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        frameScheduled = false;
+        if (paused) return;
+
+        for (int i = 0; i < count; i++) {
+            if (!moving[i]) continue;
+
+            float t = Math.min(1f, (float) (frameTimeNanos - startNanos[i]) / DURATION_NANOS);
+            if (t < 0) t = 0;
+            currentLat[i] = (targetLat[i] - startLat[i]) * t + startLat[i];
+            currentLng[i] = (targetLng[i] - startLng[i]) * t + startLng[i];
+            markers[i].setPosition(new LatLng(currentLat[i], currentLng[i]));
+
+            if (t >= 1f) {
+                moving[i] = false;
+                movingCount--;
+            }
+        }
+        scheduleFrame();
+    }
+
+    private int add(Marker marker) {
+        if (count == markers.length) grow();
+        int i = count++;
+        LatLng position = marker.getPosition();
+        markers[i] = marker;
+        currentLat[i] = position.latitude;
+        currentLng[i] = position.longitude;
+        moving[i] = false;
+        slots.put(marker, i);
+        return i;
+    }
+
+    private void grow() {
+        int size = markers.length * 2;
+        markers = Arrays.copyOf(markers, size);
+        startLat = Arrays.copyOf(startLat, size);
+        startLng = Arrays.copyOf(startLng, size);
+        targetLat = Arrays.copyOf(targetLat, size);
+        targetLng = Arrays.copyOf(targetLng, size);
+        currentLat = Arrays.copyOf(currentLat, size);
+        currentLng = Arrays.copyOf(currentLng, size);
+        startNanos = Arrays.copyOf(startNanos, size);
+        moving = Arrays.copyOf(moving, size);
+    }
+
+    private void scheduleFrame() {
+        if (frameScheduled || paused || movingCount == 0) return;
+        frameScheduled = true;
+        choreographer.postFrameCallback(this);
+    }
+
+    private void cancelFrame() {
+        if (!frameScheduled) return;
+        frameScheduled = false;
+        choreographer.removeFrameCallback(this);
+    }
+}
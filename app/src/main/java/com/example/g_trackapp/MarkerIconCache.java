@@ -0,0 +1,124 @@
+package com.example.g_trackapp;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.util.Log;
+import android.util.LruCache;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import com.google.android.gms.maps.model.BitmapDescriptor;
+import com.google.android.gms.maps.model.BitmapDescriptorFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 🖼️ MarkerIconCache
+ * Process-wide cache of rendered marker icons and label bubbles.
+ * Each entry is rendered once per (resource/text, density) and the same
+ * {@link BitmapDescriptor} is handed to every marker that needs it.
+ * Bounded by the byte size of the underlying bitmaps.
+ */
+public final class MarkerIconCache {
+
+    private static final String TAG = "MarkerIconCache";
+    private static final int MAX_BYTES = 4 * 1024 * 1024;
+
+    private static MarkerIconCache instance;
+
+    private final Context appContext;
+    private final float density;
+    private final ExecutorService prewarmExecutor = Executors.newSingleThreadExecutor();
+
+    private static class Entry {
+        final BitmapDescriptor descriptor;
+        final int bytes;
+
+        Entry(BitmapDescriptor descriptor, int bytes) {
+            this.descriptor = descriptor;
+            this.bytes = bytes;
+        }
+    }
+
+    private final LruCache<String, Entry> cache = new LruCache<String, Entry>(MAX_BYTES) {
+        @Override
+        protected int sizeOf(String key, Entry entry) {
+            return entry.bytes;
+        }
+    };
+
+    public static synchronized MarkerIconCache getInstance(Context context) {
+        if (instance == null) instance = new MarkerIconCache(context.getApplicationContext());
+        return instance;
+    }
+
+    private MarkerIconCache(Context appContext) {
+        this.appContext = appContext;
+        this.density = appContext.getResources().getDisplayMetrics().density;
+    }
+
+    /** Icon-only marker (custom_marker_layout with the label hidden) */
+    public BitmapDescriptor icon(int iconRes) {
+        String key = "icon:" + iconRes + "@" + density;
+        Entry entry = cache.get(key);
+        if (entry == null) {
+            View markerView = LayoutInflater.from(appContext).inflate(R.layout.custom_marker_layout, null);
+            ImageView icon = markerView.findViewById(R.id.markerIcon);
+            icon.setImageResource(iconRes);
+            markerView.findViewById(R.id.markerLabel).setVisibility(View.GONE);
+            entry = put(key, render(markerView));
+        }
+        return entry.descriptor;
+    }
+
+    /** White rounded label bubble (custom_marker_label_only) */
+    public BitmapDescriptor label(String text) {
+        String key = "label:" + text + "@" + density;
+        Entry entry = cache.get(key);
+        if (entry == null) {
+            View labelView = LayoutInflater.from(appContext).inflate(R.layout.custom_marker_label_only, null);
+            TextView label = labelView.findViewById(R.id.markerLabelOnly);
+            label.setText(text);
+            entry = put(key, render(labelView));
+        }
+        return entry.descriptor;
+    }
+
+    /**
+     * Render the given icons on a background thread so the first map snapshot
+     * finds them ready. Call once the map is initialized (BitmapDescriptorFactory needs it).
+     */
+    public void prewarm(int... iconRes) {
+        prewarmExecutor.execute(() -> {
+            for (int res : iconRes) {
+                try {
+                    icon(res);
+                } catch (RuntimeException e) {
+                    Log.w(TAG, "Prewarm failed for " + res, e);
+                }
+            }
+        });
+    }
+
+    private Entry put(String key, Bitmap bitmap) {
+        Entry entry = new Entry(BitmapDescriptorFactory.fromBitmap(bitmap), bitmap.getByteCount());
+        cache.put(key, entry);
+        return entry;
+    }
+
+    private static Bitmap render(View view) {
+        view.measure(View.MeasureSpec.UNSPECIFIED, View.MeasureSpec.UNSPECIFIED);
+        view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+        Bitmap bitmap = Bitmap.createBitmap(
+                view.getMeasuredWidth(),
+                view.getMeasuredHeight(),
+                Bitmap.Config.ARGB_8888
+        );
+        view.draw(new Canvas(bitmap));
+        return bitmap;
+    }
+}
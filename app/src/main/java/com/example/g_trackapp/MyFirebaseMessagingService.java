@@ -17,18 +17,33 @@ import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.messaging.FirebaseMessagingService;
 import com.google.firebase.messaging.RemoteMessage;
 
+import java.util.Map;
+
 public class MyFirebaseMessagingService extends FirebaseMessagingService {
 
     private static final String TAG = "MyFirebaseMsgService";
+    private static final String NEARBY_ALERT_TYPE = "collector_nearby";
 
     @Override
     public void onMessageReceived(@NonNull RemoteMessage remoteMessage) {
         Log.d(TAG, "Message received from: " + remoteMessage.getFrom());
 
+        // 🔹 Background nearby alert from notifyNearbyResidents (shares the on-device cooldown)
+        Map<String, String> data = remoteMessage.getData();
+        if (NEARBY_ALERT_TYPE.equals(data.get("type"))) {
+            String collectorId = data.get("collectorId");
+            if (collectorId != null) {
+                CollectorProximityMonitor.getInstance(this).onServerAlert(collectorId, data.get("collectorName"));
+            }
+            return;
+        }
+
         if (remoteMessage.getNotification() != null) {
-            sendNotification(
+            showNotification(
+                    this,
                     remoteMessage.getNotification().getTitle(),
-                    remoteMessage.getNotification().getBody()
+                    remoteMessage.getNotification().getBody(),
+                    0
             );
         }
     }
@@ -52,19 +67,23 @@ public class MyFirebaseMessagingService extends FirebaseMessagingService {
         }
     }
 
-    private void sendNotification(String title, String messageBody) {
-        Intent intent = new Intent(this, ResidentLandingPageActivity.class);
+    /**
+     * Show a G-Track notification that opens the resident landing page.
+     * Shared by FCM messages and locally raised alerts (e.g. collector nearby).
+     */
+    public static void showNotification(Context context, String title, String messageBody, int notificationId) {
+        Intent intent = new Intent(context, ResidentLandingPageActivity.class);
         intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP);
 
         PendingIntent pendingIntent = PendingIntent.getActivity(
-                this, 0, intent,
+                context, 0, intent,
                 PendingIntent.FLAG_ONE_SHOT | PendingIntent.FLAG_IMMUTABLE
         );
 
         String channelId = "gtrack_notifications";
         Uri defaultSoundUri = RingtoneManager.getDefaultUri(RingtoneManager.TYPE_NOTIFICATION);
 
-        NotificationCompat.Builder notificationBuilder = new NotificationCompat.Builder(this, channelId)
+        NotificationCompat.Builder notificationBuilder = new NotificationCompat.Builder(context, channelId)
                 .setSmallIcon(R.drawable.ic_notification) // replace with your icon
                 .setContentTitle(title)
                 .setContentText(messageBody)
@@ -73,7 +92,7 @@ public class MyFirebaseMessagingService extends FirebaseMessagingService {
                 .setContentIntent(pendingIntent);
 
         NotificationManager notificationManager =
-                (NotificationManager) getSystemService(Context.NOTIFICATION_SERVICE);
+                (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
 
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
             NotificationChannel channel = new NotificationChannel(
@@ -84,6 +103,6 @@ public class MyFirebaseMessagingService extends FirebaseMessagingService {
             notificationManager.createNotificationChannel(channel);
         }
 
-        notificationManager.notify(0, notificationBuilder.build());
+        notificationManager.notify(notificationId, notificationBuilder.build());
     }
 }
@@ -0,0 +1,104 @@
+package com.example.g_trackapp;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.util.Log;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * 📴 OfflineRouter
+ * Memory-maps the bundled road graph (built by tools/osm-graph) and answers
+ * route legs without the network. Used for stop ordering on road distances
+ * and as the drawn route whenever Directions cannot be reached.
+ * Without the asset {@link #isAvailable()} is false and callers keep the
+ * straight-line / Directions behavior.
+ */
+public final class OfflineRouter {
+
+    private static final String TAG = "OfflineRouter";
+    static final String ASSET_NAME = "road_graph.gtrg";
+    /** Stops farther than this from any road node are not snapped */
+    static final double SNAP_METERS = 300;
+
+    private static OfflineRouter instance;
+
+    private final RoadGraph graph;
+
+    public static synchronized OfflineRouter getInstance(Context context) {
+        if (instance == null) instance = new OfflineRouter(context.getApplicationContext());
+        return instance;
+    }
+
+    private OfflineRouter(Context appContext) {
+        RoadGraph loaded = null;
+        long start = System.nanoTime();
+        // The asset is stored uncompressed, so it can be mapped straight out of the APK
+        try (AssetFileDescriptor fd = appContext.getAssets().openFd(ASSET_NAME);
+             FileInputStream in = fd.createInputStream()) {
+            MappedByteBuffer buffer = in.getChannel()
+                    .map(FileChannel.MapMode.READ_ONLY, fd.getStartOffset(), fd.getDeclaredLength());
+            loaded = RoadGraph.from(buffer);
+            Log.d(TAG, "Road graph: " + loaded.nodeCount() + " nodes, " + loaded.edgeCount() + " edges, "
+                    + loaded.landmarkCount() + " landmarks, mapped in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        } catch (IOException e) {
+            Log.w(TAG, "No offline road graph — offline routing disabled", e);
+        }
+        graph = loaded;
+    }
+
+    public boolean isAvailable() {
+        return graph != null;
+    }
+
+    /** Road-distance matrix for {@link RouteOptimizer} (straight-line where a point does not snap) */
+    public synchronized float[] distanceMatrix(double[] latitudes, double[] longitudes) {
+        return graph.distanceMatrix(latitudes, longitudes, SNAP_METERS);
+    }
+
+    /**
+     * Route through the points in order, leg by leg. Points that do not snap
+     * or legs with no connection are joined with a straight segment.
+     * Duration assumes {@link StopPlanner#ASSUMED_SPEED_MPS}.
+     */
+    public synchronized RouteLegPlanner.PlannedRoute plan(double[] latitudes, double[] longitudes) {
+        long start = System.nanoTime();
+        int n = latitudes.length;
+        int[] nodes = new int[n];
+        for (int i = 0; i < n; i++) nodes[i] = graph.nearestNode(latitudes[i], longitudes[i], SNAP_METERS);
+
+        double[] path = new double[Math.max(16, n * 32)];
+        int count = 0;
+        double meters = 0;
+        int settled = 0;
+        path[count++] = latitudes[0];
+        path[count++] = longitudes[0];
+        for (int i = 1; i < n; i++) {
+            RoadGraph.Route leg = nodes[i - 1] >= 0 && nodes[i] >= 0 ? graph.route(nodes[i - 1], nodes[i]) : null;
+            double[] legPath = leg != null ? leg.path : new double[0];
+            if (leg != null) {
+                meters += leg.meters;
+                settled += leg.settled;
+            } else {
+                meters += GeoMath.distanceMeters(latitudes[i - 1], longitudes[i - 1], latitudes[i], longitudes[i]);
+            }
+            if (count + legPath.length + 2 > path.length) {
+                path = Arrays.copyOf(path, Math.max(path.length * 2, count + legPath.length + 2));
+            }
+            System.arraycopy(legPath, 0, path, count, legPath.length);
+            count += legPath.length;
+            path[count++] = latitudes[i];
+            path[count++] = longitudes[i];
+        }
+        path = Arrays.copyOf(path, count);
+        Log.d(TAG, "Offline route: " + (n - 1) + " legs, " + Math.round(meters) + " m, "
+                + settled + " nodes settled in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+
+        return new RouteLegPlanner.PlannedRoute(path, RouteLegPlanner.boundsOf(path), Math.round(meters),
+                Math.round(meters / StopPlanner.ASSUMED_SPEED_MPS), 0, 0);
+    }
+}
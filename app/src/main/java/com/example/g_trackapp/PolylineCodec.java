@@ -0,0 +1,89 @@
+package com.example.g_trackapp;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 🧵 PolylineCodec
+ * Google encoded-polyline format (1e5 precision) without any Android dependency.
+ * Used to ship compact location trails in a single Firestore field.
+ */
+public final class PolylineCodec {
+
+    private PolylineCodec() {}
+
+    /** Encode a list of fixes, in order, as a polyline string */
+    public static String encode(List<GeoFix> fixes) {
+        StringBuilder out = new StringBuilder(fixes.size() * 8);
+        long prevLat = 0, prevLng = 0;
+        for (GeoFix fix : fixes) {
+            long lat = Math.round(fix.latitude * 1e5);
+            long lng = Math.round(fix.longitude * 1e5);
+            encodeValue(lat - prevLat, out);
+            encodeValue(lng - prevLng, out);
+            prevLat = lat;
+            prevLng = lng;
+        }
+        return out.toString();
+    }
+
+    /** Encode a flat {lat0, lng0, lat1, lng1, …} path (the inverse of {@link #decode}) */
+    public static String encode(double[] path) {
+        StringBuilder out = new StringBuilder(path.length * 4);
+        long prevLat = 0, prevLng = 0;
+        for (int i = 0; i + 1 < path.length; i += 2) {
+            long lat = Math.round(path[i] * 1e5);
+            long lng = Math.round(path[i + 1] * 1e5);
+            encodeValue(lat - prevLat, out);
+            encodeValue(lng - prevLng, out);
+            prevLat = lat;
+            prevLng = lng;
+        }
+        return out.toString();
+    }
+
+    /**
+     * Decode a polyline string into a flat {lat0, lng0, lat1, lng1, …} array
+     * (no per-point objects; wrap into LatLng only where the map needs them).
+     */
+    public static double[] decode(String encoded) {
+        int length = encoded.length();
+        double[] out = new double[Math.max(2, length / 2)];
+        int count = 0;
+        int index = 0;
+        long lat = 0, lng = 0;
+        boolean latitudeNext = true;
+
+        while (index < length) {
+            long result = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = encoded.charAt(index++) - 63;
+                result |= (long) (b & 0x1f) << shift;
+                shift += 5;
+            } while (b >= 0x20 && index < length);
+            long delta = (result & 1) != 0 ? ~(result >> 1) : (result >> 1);
+
+            if (latitudeNext) {
+                lat += delta;
+            } else {
+                lng += delta;
+                if (count + 2 > out.length) out = Arrays.copyOf(out, out.length * 2);
+                out[count++] = lat * 1e-5;
+                out[count++] = lng * 1e-5;
+            }
+            latitudeNext = !latitudeNext;
+        }
+        return Arrays.copyOf(out, count);
+    }
+
+    private static void encodeValue(long value, StringBuilder out) {
+        value = value < 0 ? ~(value << 1) : (value << 1);
+        while (value >= 0x20) {
+            out.append((char) ((0x20 | (value & 0x1f)) + 63));
+            value >>= 5;
+        }
+        out.append((char) (value + 63));
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.g_trackapp;
+
+import java.util.Arrays;
+
+/**
+ * 📉 PolylineSimplifier
+ * Douglas–Peucker over flat {lat0, lng0, lat1, lng1, …} paths.
+ * One pass ranks every vertex by the tolerance at which Douglas–Peucker
+ * would still keep it (clamped to its parent split, so the ranks nest);
+ * any tolerance level is then a linear filter over the ranks. That makes
+ * precomputing several zoom levels cost about the same as one simplification.
+ */
+public final class PolylineSimplifier {
+
+    /** Google Maps ground resolution at zoom 0 on the equator, meters per dp */
+    private static final double METERS_PER_DP_ZOOM_0 = 156543.03392;
+    /** Deviation allowed on screen, in dp */
+    private static final double TOLERANCE_DP = 1.5;
+    /** Zoom levels that get their own precomputed path (coarsest first) */
+    static final int[] LEVEL_ZOOMS = {10, 12, 14, 16, 18};
+
+    private PolylineSimplifier() {}
+
+    /** One path per entry of {@link #LEVEL_ZOOMS}, finest last */
+    public static final class Levels {
+        public final double[][] paths;
+        public final int[] zooms;
+
+        Levels(double[][] paths, int[] zooms) {
+            this.paths = paths;
+            this.zooms = zooms;
+        }
+
+        /** Index of the level to show at the given camera zoom */
+        public int levelFor(float zoom) {
+            int level = 0;
+            for (int i = 0; i < zooms.length; i++) {
+                if (zoom >= zooms[i]) level = i;
+            }
+            return level;
+        }
+    }
+
+    /** Tolerance in meters that stays under {@link #TOLERANCE_DP} on screen at this zoom */
+    public static double toleranceForZoom(int zoom, double latitude) {
+        return TOLERANCE_DP * METERS_PER_DP_ZOOM_0 * Math.cos(Math.toRadians(latitude)) / (1L << zoom);
+    }
+
+    /** Precompute the path for every {@link #LEVEL_ZOOMS} level (call off the main thread) */
+    public static Levels precompute(double[] path) {
+        float[] rank = significance(path);
+        double latitude = path.length >= 2 ? path[0] : 0;
+        double[][] paths = new double[LEVEL_ZOOMS.length][];
+        for (int i = 0; i < LEVEL_ZOOMS.length; i++) {
+            paths[i] = filter(path, rank, toleranceForZoom(LEVEL_ZOOMS[i], latitude));
+        }
+        return new Levels(paths, LEVEL_ZOOMS);
+    }
+
+    public static double[] simplify(double[] path, double toleranceMeters) {
+        return filter(path, significance(path), toleranceMeters);
+    }
+
+    /**
+     * Per-vertex rank in meters: the vertex survives simplification with any
+     * tolerance below its rank. Endpoints rank +∞.
+     */
+    static float[] significance(double[] path) {
+        int n = path.length / 2;
+        float[] rank = new float[n];
+        if (n == 0) return rank;
+        rank[0] = Float.POSITIVE_INFINITY;
+        rank[n - 1] = Float.POSITIVE_INFINITY;
+        if (n < 3) return rank;
+
+        // Local equirectangular projection in meters — plenty for route-sized spans
+        double cosLat = Math.cos(Math.toRadians(path[0]));
+        double scale = Math.toRadians(1) * GeoMath.EARTH_RADIUS_M;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = (path[2 * i + 1] - path[1]) * cosLat * scale;
+            y[i] = (path[2 * i] - path[0]) * scale;
+        }
+
+        // Explicit stack of (first, last, parent rank): no recursion depth limit on 50k+ points
+        int[] firsts = new int[64];
+        int[] lasts = new int[64];
+        float[] parents = new float[64];
+        firsts[0] = 0;
+        lasts[0] = n - 1;
+        parents[0] = Float.POSITIVE_INFINITY;
+        int top = 1;
+
+        while (top > 0) {
+            top--;
+            int first = firsts[top], last = lasts[top];
+            float parent = parents[top];
+            if (last - first < 2) continue;
+
+            double ax = x[first], ay = y[first];
+            double dx = x[last] - ax, dy = y[last] - ay;
+            double lengthSq = dx * dx + dy * dy;
+
+            int split = -1;
+            double maxSq = -1;
+            for (int i = first + 1; i < last; i++) {
+                double px = x[i] - ax, py = y[i] - ay;
+                double distSq;
+                if (lengthSq == 0) {
+                    distSq = px * px + py * py;
+                } else {
+                    double t = (px * dx + py * dy) / lengthSq;
+                    if (t < 0) t = 0; else if (t > 1) t = 1;
+                    double ex = px - t * dx, ey = py - t * dy;
+                    distSq = ex * ex + ey * ey;
+                }
+                if (distSq > maxSq) {
+                    maxSq = distSq;
+                    split = i;
+                }
+            }
+
+            float r = (float) Math.min(Math.sqrt(maxSq), parent);
+            rank[split] = r;
+
+            if (top + 2 > firsts.length) {
+                firsts = Arrays.copyOf(firsts, firsts.length * 2);
+                lasts = Arrays.copyOf(lasts, lasts.length * 2);
+                parents = Arrays.copyOf(parents, parents.length * 2);
+            }
+            firsts[top] = first; lasts[top] = split; parents[top] = r; top++;
+            firsts[top] = split; lasts[top] = last; parents[top] = r; top++;
+        }
+        return rank;
+    }
+
+    private static double[] filter(double[] path, float[] rank, double toleranceMeters) {
+        int kept = 0;
+        for (float r : rank) if (r > toleranceMeters) kept++;
+        double[] out = new double[kept * 2];
+        int w = 0;
+        for (int i = 0; i < rank.length; i++) {
+            if (rank[i] > toleranceMeters) {
+                out[w++] = path[2 * i];
+                out[w++] = path[2 * i + 1];
+            }
+        }
+        return out;
+    }
+}
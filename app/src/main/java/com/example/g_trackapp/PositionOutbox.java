@@ -0,0 +1,245 @@
+package com.example.g_trackapp;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 📦 PositionOutbox
+ * Disk-backed, append-only log of collector fixes that have not been confirmed
+ * by Firestore yet. Survives process death and reboots; replayed in order once
+ * the device is back online. Bounded by {@link #maxRecords}: when full, the log
+ * is compacted by dropping closely spaced points and thinning the rest.
+ *
+ * Acks only move a persisted head pointer past the confirmed records; the file
+ * itself is rewritten once the acked prefix passes {@link #ACK_COMPACT_BYTES}
+ * (or simply truncated when everything is confirmed). A replay acks the
+ * {@link Pending} read it uploaded, so the head moves without re-reading it.
+ *
+ * Not thread-safe on its own — callers serialize access (single IO executor).
+ */
+public class PositionOutbox {
+
+    // time(8) + lat(8) + lon(8) + accuracy(4) + bearing(4)
+    static final int RECORD_BYTES = 32;
+    static final double COMPACT_MIN_SPACING_M = 25;
+    /** Acked prefix size that triggers a rewrite (~2k fixes) */
+    static final int ACK_COMPACT_BYTES = 64 * 1024;
+
+    private final File file;
+    private final File headFile;
+    private final int maxRecords;
+    private final int ackCompactBytes;
+    private int recordCount; // records in the file, acked ones included
+    private int head;        // records at the start of the file already confirmed
+    private int generation;  // bumped whenever the file is rewritten, invalidating Pending offsets
+
+    /** Pending fixes as read, plus where they end in the file */
+    public static final class Pending {
+        public final List<GeoFix> fixes;
+        private final int generation;
+        private final int end; // record index just past the last fix read
+
+        Pending(List<GeoFix> fixes, int generation, int end) {
+            this.fixes = fixes;
+            this.generation = generation;
+            this.end = end;
+        }
+    }
+
+    public PositionOutbox(File file, int maxRecords) {
+        this(file, maxRecords, ACK_COMPACT_BYTES);
+    }
+
+    PositionOutbox(File file, int maxRecords, int ackCompactBytes) {
+        this.file = file;
+        this.headFile = new File(file.getPath() + ".head");
+        this.maxRecords = maxRecords;
+        this.ackCompactBytes = ackCompactBytes;
+        this.recordCount = (int) (file.length() / RECORD_BYTES);
+        dropTornTail();
+        this.head = Math.min(readHead(), recordCount);
+    }
+
+    /** Pending (unconfirmed) fixes */
+    public int size() { return recordCount - head; }
+
+    public boolean isEmpty() { return size() == 0; }
+
+    /** Bytes on disk, acked prefix included */
+    long fileBytes() { return file.length(); }
+
+    /** Append one fix; compacts the log first if it is at capacity */
+    public void append(GeoFix fix) throws IOException {
+        if (size() >= maxRecords) compact();
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file, true), RECORD_BYTES))) {
+            writeRecord(out, fix);
+        }
+        recordCount++;
+    }
+
+    /** All pending fixes, oldest first */
+    public List<GeoFix> readAll() throws IOException {
+        return readRange(head, recordCount);
+    }
+
+    /** All pending fixes, with the offsets {@link #ack(Pending)} needs */
+    public Pending readPending() throws IOException {
+        return new Pending(readAll(), generation, recordCount);
+    }
+
+    /** Confirm everything in an earlier read; fixes appended since stay pending */
+    public void ack(Pending read) throws IOException {
+        if (read.generation == generation) {
+            advanceHead(read.end - head);
+        } else if (!read.fixes.isEmpty()) {
+            // Compacted since the read: the offsets are gone, fall back to the timestamps
+            ackThrough(read.fixes.get(read.fixes.size() - 1).timeMillis);
+        }
+    }
+
+    /**
+     * Drop the leading fixes with a timestamp at or before {@code timeMillis}
+     * (confirmed upstream). Reads only their timestamps, stopping at the first newer one.
+     */
+    public void ackThrough(long timeMillis) throws IOException {
+        if (isEmpty()) return;
+        int confirmed = 0;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            while (head + confirmed < recordCount) {
+                raf.seek((long) (head + confirmed) * RECORD_BYTES);
+                if (raf.readLong() > timeMillis) break;
+                confirmed++;
+            }
+        }
+        advanceHead(confirmed);
+    }
+
+    private void advanceHead(int confirmed) throws IOException {
+        if (confirmed <= 0) return;
+        if (head + confirmed >= recordCount) {
+            clear();
+        } else if ((long) (head + confirmed) * RECORD_BYTES >= ackCompactBytes) {
+            rewrite(readRange(head + confirmed, recordCount));
+        } else {
+            head += confirmed;
+            writeHead(head);
+        }
+    }
+
+    public void clear() throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(0);
+        }
+        recordCount = 0;
+        head = 0;
+        generation++;
+        writeHead(0);
+    }
+
+    /**
+     * Keep first/last points and points at least {@link #COMPACT_MIN_SPACING_M} apart,
+     * then thin evenly down to half capacity so appends don't compact every time.
+     */
+    void compact() throws IOException {
+        List<GeoFix> all = readAll();
+        if (all.size() < 3) return;
+
+        List<GeoFix> spaced = new ArrayList<>();
+        GeoFix lastKept = all.get(0);
+        spaced.add(lastKept);
+        for (int i = 1; i < all.size() - 1; i++) {
+            GeoFix fix = all.get(i);
+            if (GeoMath.distanceMeters(lastKept, fix) >= COMPACT_MIN_SPACING_M) {
+                spaced.add(fix);
+                lastKept = fix;
+            }
+        }
+        spaced.add(all.get(all.size() - 1));
+
+        rewrite(LocationUplink.downsample(spaced, Math.max(2, maxRecords / 2)));
+    }
+
+    private void rewrite(List<GeoFix> fixes) throws IOException {
+        // Reset the head first: a crash before the rename then replays acked fixes, never skips live ones
+        writeHead(0);
+        head = 0;
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tmp, false)))) {
+            for (GeoFix fix : fixes) writeRecord(out, fix);
+        }
+        if (!tmp.renameTo(file)) {
+            throw new IOException("Could not replace " + file);
+        }
+        recordCount = fixes.size();
+        generation++;
+    }
+
+    /** Records {@code [from, to)} of the file */
+    private List<GeoFix> readRange(int from, int to) throws IOException {
+        List<GeoFix> fixes = new ArrayList<>(Math.max(0, to - from));
+        if (to <= from) return fixes;
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            long skip = (long) from * RECORD_BYTES;
+            while (skip > 0) skip -= in.skip(skip);
+            for (int i = from; i < to; i++) {
+                fixes.add(readRecord(in));
+            }
+        }
+        return fixes;
+    }
+
+    private int readHead() {
+        if (headFile.length() != 4) return 0;
+        try (DataInputStream in = new DataInputStream(new FileInputStream(headFile))) {
+            return Math.max(0, in.readInt());
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private void writeHead(int value) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(headFile, false))) {
+            out.writeInt(value);
+        }
+    }
+
+    /** A crash mid-append can leave a partial record; cut it off */
+    private void dropTornTail() {
+        long expected = (long) recordCount * RECORD_BYTES;
+        if (file.length() == expected) return;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(expected);
+        } catch (IOException ignored) {
+            // Next rewrite will fix it; readAll() never reads past recordCount
+        }
+    }
+
+    private static void writeRecord(DataOutputStream out, GeoFix fix) throws IOException {
+        out.writeLong(fix.timeMillis);
+        out.writeDouble(fix.latitude);
+        out.writeDouble(fix.longitude);
+        out.writeFloat(fix.accuracy);
+        out.writeFloat(fix.bearing);
+    }
+
+    private static GeoFix readRecord(DataInputStream in) throws IOException {
+        long time = in.readLong();
+        double lat = in.readDouble();
+        double lon = in.readDouble();
+        float accuracy = in.readFloat();
+        float bearing = in.readFloat();
+        return new GeoFix(lat, lon, accuracy, Float.NaN, bearing, time);
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.g_trackapp;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 🗃️ ReportQueue
+ * Disk-backed queue of garbage reports not yet committed to Firestore. Every
+ * report gets an idempotency key on enqueue; it becomes the Firestore document
+ * id, so re-sending a report after a lost acknowledgement can find the
+ * document it already created instead of adding a duplicate.
+ *
+ * Records are length-prefixed and appended; a torn tail from a crash mid-append
+ * is cut off on open. Field values may be String, Double, Long, Boolean or null.
+ *
+ * Not thread-safe on its own — callers serialize access (single IO executor).
+ */
+public class ReportQueue {
+
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_DOUBLE = 2;
+    private static final byte TYPE_LONG = 3;
+    private static final byte TYPE_BOOLEAN = 4;
+    private static final byte TYPE_NULL = 5;
+
+    public static final class Report {
+        /** Idempotency key, used as the document id */
+        public final String id;
+        public final long createdAtMillis;
+        public final Map<String, Object> fields;
+
+        Report(String id, long createdAtMillis, Map<String, Object> fields) {
+            this.id = id;
+            this.createdAtMillis = createdAtMillis;
+            this.fields = Collections.unmodifiableMap(fields);
+        }
+    }
+
+    private final File file;
+    private final List<Report> pending = new ArrayList<>();
+
+    public ReportQueue(File file) throws IOException {
+        this.file = file;
+        load();
+    }
+
+    public int size() { return pending.size(); }
+
+    public boolean isEmpty() { return pending.isEmpty(); }
+
+    /** Persist one report under a fresh idempotency key; returns once it is on disk */
+    public Report enqueue(Map<String, Object> fields, long nowMillis) throws IOException {
+        Report report = new Report(UUID.randomUUID().toString(), nowMillis, new LinkedHashMap<>(fields));
+        byte[] record = encode(report);
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file, true)))) {
+            out.writeInt(record.length);
+            out.write(record);
+        }
+        pending.add(report);
+        return report;
+    }
+
+    /** Pending reports, oldest first */
+    public List<Report> pending() {
+        return new ArrayList<>(pending);
+    }
+
+    /** Drop reports confirmed by Firestore */
+    public void ack(Collection<String> ids) throws IOException {
+        Set<String> confirmed = new HashSet<>(ids);
+        List<Report> kept = new ArrayList<>(pending.size());
+        for (Report report : pending) {
+            if (!confirmed.contains(report.id)) kept.add(report);
+        }
+        if (kept.size() == pending.size()) return;
+        rewrite(kept);
+    }
+
+    private void load() throws IOException {
+        if (!file.exists()) return;
+        long validBytes = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException end) {
+                    break;
+                }
+                if (length <= 0 || validBytes + 4 + length > file.length()) break;
+                byte[] record = new byte[length];
+                in.readFully(record);
+                pending.add(decode(record));
+                validBytes += 4 + length;
+            }
+        }
+        // A crash mid-append can leave a partial record; cut it off
+        if (file.length() != validBytes) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(validBytes);
+            }
+        }
+    }
+
+    private void rewrite(List<Report> reports) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tmp, false)))) {
+            for (Report report : reports) {
+                byte[] record = encode(report);
+                out.writeInt(record.length);
+                out.write(record);
+            }
+        }
+        if (!tmp.renameTo(file)) {
+            throw new IOException("Could not replace " + file);
+        }
+        pending.clear();
+        pending.addAll(reports);
+    }
+
+    private static byte[] encode(Report report) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeUTF(report.id);
+        out.writeLong(report.createdAtMillis);
+        out.writeShort(report.fields.size());
+        for (Map.Entry<String, Object> field : report.fields.entrySet()) {
+            out.writeUTF(field.getKey());
+            Object value = field.getValue();
+            if (value == null) {
+                out.writeByte(TYPE_NULL); // stored as a Firestore null, like a direct set would
+            } else if (value instanceof String) {
+                out.writeByte(TYPE_STRING);
+                out.writeUTF((String) value);
+            } else if (value instanceof Double) {
+                out.writeByte(TYPE_DOUBLE);
+                out.writeDouble((Double) value);
+            } else if (value instanceof Long || value instanceof Integer) {
+                out.writeByte(TYPE_LONG);
+                out.writeLong(((Number) value).longValue());
+            } else if (value instanceof Boolean) {
+                out.writeByte(TYPE_BOOLEAN);
+                out.writeBoolean((Boolean) value);
+            } else {
+                throw new IllegalArgumentException("Unsupported value for " + field.getKey() + ": " + value);
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static Report decode(byte[] record) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        String id = in.readUTF();
+        long createdAt = in.readLong();
+        int count = in.readUnsignedShort();
+        Map<String, Object> fields = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            String key = in.readUTF();
+            byte type = in.readByte();
+            switch (type) {
+                case TYPE_STRING: fields.put(key, in.readUTF()); break;
+                case TYPE_DOUBLE: fields.put(key, in.readDouble()); break;
+                case TYPE_LONG: fields.put(key, in.readLong()); break;
+                case TYPE_BOOLEAN: fields.put(key, in.readBoolean()); break;
+                case TYPE_NULL: fields.put(key, null); break;
+                default: throw new IOException("Unknown field type " + type + " in report " + id);
+            }
+        }
+        return new Report(id, createdAt, fields);
+    }
+}
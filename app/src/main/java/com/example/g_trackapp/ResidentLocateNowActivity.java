@@ -3,17 +3,13 @@ package com.example.g_trackapp;
 import android.Manifest;
 import android.content.Intent;
 import android.content.pm.PackageManager;
-import android.graphics.Bitmap;
-import android.graphics.Canvas;
 import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
+import android.os.Looper;
 import android.view.MenuItem;
-import android.view.View;
-import android.view.animation.AlphaAnimation;
 import android.widget.ImageView;
 import android.widget.PopupMenu;
-import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
@@ -28,15 +24,22 @@ import com.google.android.gms.maps.GoogleMap;
 import com.google.android.gms.maps.OnMapReadyCallback;
 import com.google.android.gms.maps.SupportMapFragment;
 import com.google.android.gms.maps.model.BitmapDescriptor;
-import com.google.android.gms.maps.model.BitmapDescriptorFactory;
 import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
 import com.google.android.gms.maps.model.Marker;
 import com.google.android.gms.maps.model.MarkerOptions;
+import com.google.firebase.firestore.DocumentChange;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.maps.android.clustering.ClusterManager;
+import com.google.maps.android.clustering.algo.NonHierarchicalDistanceBasedAlgorithm;
+import com.google.maps.android.clustering.algo.PreCachingAlgorithmDecorator;
+import com.google.maps.android.collections.MarkerManager;
 
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 public class ResidentLocateNowActivity extends AppCompatActivity implements OnMapReadyCallback {
@@ -47,15 +50,50 @@ public class ResidentLocateNowActivity extends AppCompatActivity implements OnMa
     private ResidentSessionManager sessionManager;
     private FirebaseFirestore db;
 
-    private final Map<String, Marker> collectorMarkers = new HashMap<>();
-    private final Map<String, Marker> dropOffMarkers = new HashMap<>();
-    private ListenerRegistration collectorListener;
-    private ListenerRegistration dropOffListener;
+    private final Map<String, TrackedMarker> collectorItems = new HashMap<>();
+    private final Map<String, DropOffClusterItem> dropOffItems = new HashMap<>();
+
+    // 🔹 Drop-offs are clustered; collectors stay individual animated markers
+    private MarkerManager markerManager;
+    private MarkerManager.Collection collectorMarkerCollection;
+    private MarkerManager.Collection labelMarkerCollection;
+    private ClusterManager<DropOffClusterItem> dropOffClusterManager;
+    private final Map<String, String> collectorNames = new HashMap<>();
+    // 🔹 Viewport-bound listeners: one per geohash cell on screen (plus margin)
+    private static final int MAX_CELL_LISTENERS = 12;
+    private static final double VIEWPORT_MARGIN = 0.25; // of the visible span, each side
+    private CellSubscriptions collectorSubscriptions;
+    private CellSubscriptions dropOffSubscriptions;
+
+    // 🔹 Reconciliation
+    private static final long ORPHAN_GRACE_MS = 2000;        // a doc leaving one cell usually shows up in the next
+    private static final long COLLECTOR_STALE_MS = 10 * 60000; // no position for this long → truck is gone
+    private static final long STALE_SWEEP_MS = 60000;
+    private final Handler reconcileHandler = new Handler(Looper.getMainLooper());
+    private final Runnable staleSweep = new Runnable() {
+        @Override
+        public void run() {
+            evictStaleCollectors();
+            reconcileHandler.postDelayed(this, STALE_SWEEP_MS);
+        }
+    };
+
+    /** Marker plus what we last applied to it */
+    private static class TrackedMarker {
+        Marker marker;
+        String cell;      // cell whose listener last reported the document, null if orphaned
+        double latitude;
+        double longitude;
+        long seq;
+        long timestamp;
+    }
 
     private boolean firstCollectorShown = false;
     private boolean firstDropOffShown = false;
 
     private Marker activeLabelMarker = null; // current visible label marker
+    private final MarkerAnimator markerAnimator = new MarkerAnimator();
+    private MarkerIconCache iconCache;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -64,6 +102,7 @@ public class ResidentLocateNowActivity extends AppCompatActivity implements OnMa
 
         sessionManager = new ResidentSessionManager(this);
         db = FirebaseFirestore.getInstance();
+        iconCache = MarkerIconCache.getInstance(this);
         fusedLocationClient = LocationServices.getFusedLocationProviderClient(this);
 
         requestLocationPermission();
@@ -122,24 +161,46 @@ public class ResidentLocateNowActivity extends AppCompatActivity implements OnMa
     public void onMapReady(GoogleMap googleMap) {
         mMap = googleMap;
         mMap.getUiSettings().setZoomControlsEnabled(true);
+        iconCache.prewarm(R.drawable.ic_garbage_truck, R.drawable.ic_garbage_bin);
+        setUpMarkerLayers();
 
         if (ContextCompat.checkSelfPermission(this, Manifest.permission.ACCESS_FINE_LOCATION)
                 == PackageManager.PERMISSION_GRANTED) {
             mMap.setMyLocationEnabled(true);
             getDeviceLocation();
-            listenToCollectors();
-            listenToDropOffLocations();
+            startViewportSubscriptions();
         } else {
             requestLocationPermission();
         }
 
-        // 👇 Show label bubble when marker tapped
-        mMap.setOnMarkerClickListener(marker -> {
-            showLabelAboveMarker(marker);
+        // 👇 Show label bubble when a truck, a bin or a bin cluster is tapped
+        mMap.setOnMarkerClickListener(markerManager);
+        collectorMarkerCollection.setOnMarkerClickListener(marker -> {
+            showLabelAt(marker.getPosition(), marker.getTitle());
+            return true;
+        });
+        labelMarkerCollection.setOnMarkerClickListener(marker -> true);
+        dropOffClusterManager.setOnClusterItemClickListener(item -> {
+            showLabelAt(item.getPosition(), item.getTitle());
+            return true;
+        });
+        dropOffClusterManager.setOnClusterClickListener(cluster -> {
+            showLabelAt(cluster.getPosition(), cluster.getSize() + " drop-off bins");
             return true;
         });
     }
 
+    private void setUpMarkerLayers() {
+        markerManager = new MarkerManager(mMap);
+        collectorMarkerCollection = markerManager.newCollection();
+        labelMarkerCollection = markerManager.newCollection();
+
+        dropOffClusterManager = new ClusterManager<>(this, mMap, markerManager);
+        // Clustering runs on the manager's background executor; only marker diffs reach the UI thread
+        dropOffClusterManager.setAlgorithm(new PreCachingAlgorithmDecorator<>(new NonHierarchicalDistanceBasedAlgorithm<>()));
+        dropOffClusterManager.setRenderer(new DropOffClusterRenderer(this, mMap, dropOffClusterManager));
+    }
+
     private void getDeviceLocation() {
         if (ContextCompat.checkSelfPermission(this, Manifest.permission.ACCESS_FINE_LOCATION)
                 == PackageManager.PERMISSION_GRANTED) {
@@ -155,168 +216,309 @@ public class ResidentLocateNowActivity extends AppCompatActivity implements OnMa
         }
     }
 
-    /** ✅ Listen for collectors (icon only) */
-    private void listenToCollectors() {
-        collectorListener = db.collection("collectors").addSnapshotListener((querySnapshot, e) -> {
-            if (e != null || querySnapshot == null) return;
+    /** 🛰️ Subscribe to collectors and drop-offs only in the cells around the camera */
+    private void startViewportSubscriptions() {
+        if (collectorSubscriptions != null) return;
+
+        collectorSubscriptions = new CellSubscriptions(db, "collector_positions", MAX_CELL_LISTENERS,
+                new CellSubscriptions.Listener() {
+                    @Override
+                    public void onCellSnapshot(String cell, QuerySnapshot snapshot) {
+                        onCollectorCellSnapshot(cell, snapshot);
+                    }
 
-            for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
-                String id = doc.getId();
-                Double lat = doc.getDouble("latitude");
-                Double lon = doc.getDouble("longitude");
-                String name = doc.getString("firstName");
+                    @Override
+                    public void onCellRemoved(String cell) {
+                        evictCell(cell, collectorItems);
+                    }
+                });
+        dropOffSubscriptions = new CellSubscriptions(db, "dropofflocation", MAX_CELL_LISTENERS,
+                new CellSubscriptions.Listener() {
+                    @Override
+                    public void onCellSnapshot(String cell, QuerySnapshot snapshot) {
+                        onDropOffCellSnapshot(cell, snapshot);
+                    }
 
-                if (lat == null || lon == null) continue;
-                LatLng newPos = new LatLng(lat, lon);
+                    @Override
+                    public void onCellRemoved(String cell) {
+                        evictDropOffCell(cell);
+                    }
+                });
 
-                Marker existingMarker = collectorMarkers.get(id);
-                if (existingMarker == null) {
-                    MarkerOptions options = new MarkerOptions()
-                            .position(newPos)
-                            .title(name != null ? name : "Collector")
-                            .icon(getMarkerIcon(R.drawable.ic_garbage_truck));
+        mMap.setOnCameraIdleListener(() -> {
+            dropOffClusterManager.onCameraIdle();
+            retargetSubscriptions();
+        });
+        retargetSubscriptions();
+        reconcileHandler.postDelayed(staleSweep, STALE_SWEEP_MS);
+    }
 
-                    Marker marker = mMap.addMarker(options);
-                    collectorMarkers.put(id, marker);
+    private void retargetSubscriptions() {
+        if (mMap == null || collectorSubscriptions == null) return;
 
-                    if (!firstCollectorShown) {
-                        mMap.animateCamera(CameraUpdateFactory.newLatLngZoom(newPos, 14f));
-                        firstCollectorShown = true;
-                    }
-                } else {
-                    animateMarkerSmoothly(existingMarker, newPos);
-                }
+        LatLngBounds bounds = mMap.getProjection().getVisibleRegion().latLngBounds;
+        double latMargin = (bounds.northeast.latitude - bounds.southwest.latitude) * VIEWPORT_MARGIN;
+        double lonMargin = (bounds.northeast.longitude - bounds.southwest.longitude) * VIEWPORT_MARGIN;
+
+        List<String> cells = GeoCell.covering(
+                bounds.southwest.latitude - latMargin, bounds.southwest.longitude - lonMargin,
+                bounds.northeast.latitude + latMargin, bounds.northeast.longitude + lonMargin,
+                MAX_CELL_LISTENERS);
+
+        collectorSubscriptions.retarget(cells);
+        dropOffSubscriptions.retarget(cells);
+    }
+
+    /** Remove markers whose documents were last reported by a cell we stopped listening to */
+    private void evictCell(String cell, Map<String, TrackedMarker> items) {
+        Iterator<TrackedMarker> it = items.values().iterator();
+        while (it.hasNext()) {
+            TrackedMarker item = it.next();
+            if (!cell.equals(item.cell)) continue;
+            removeMarker(item);
+            it.remove();
+        }
+    }
+
+    /**
+     * REMOVED from the owning cell: the document either left the view or moved to a
+     * neighboring cell whose ADDED may still be on its way. Evict only if nobody claims it.
+     */
+    private void orphan(String id, String cell, Map<String, TrackedMarker> items) {
+        TrackedMarker item = items.get(id);
+        if (item == null || !cell.equals(item.cell)) return;
+        item.cell = null;
+        reconcileHandler.postDelayed(() -> {
+            if (items.get(id) == item && item.cell == null) {
+                removeMarker(item);
+                items.remove(id);
             }
-        });
+        }, ORPHAN_GRACE_MS);
+    }
+
+    private void evictDropOffCell(String cell) {
+        Iterator<DropOffClusterItem> it = dropOffItems.values().iterator();
+        boolean changed = false;
+        while (it.hasNext()) {
+            DropOffClusterItem item = it.next();
+            if (!cell.equals(item.cell)) continue;
+            dropOffClusterManager.removeItem(item);
+            it.remove();
+            changed = true;
+        }
+        if (changed) dropOffClusterManager.cluster();
     }
 
-    /** ✅ Listen for drop-off locations (icon only) */
-    private void listenToDropOffLocations() {
-        dropOffListener = db.collection("dropofflocation").addSnapshotListener((querySnapshot, e) -> {
-            if (e != null || querySnapshot == null) return;
+    private void orphanDropOff(String id, String cell) {
+        DropOffClusterItem item = dropOffItems.get(id);
+        if (item == null || !cell.equals(item.cell)) return;
+        item.cell = null;
+        reconcileHandler.postDelayed(() -> {
+            if (dropOffItems.get(id) == item && item.cell == null) {
+                dropOffClusterManager.removeItem(item);
+                dropOffItems.remove(id);
+                dropOffClusterManager.cluster();
+            }
+        }, ORPHAN_GRACE_MS);
+    }
+
+    private void evictStaleCollectors() {
+        long cutoff = System.currentTimeMillis() - COLLECTOR_STALE_MS;
+        Iterator<TrackedMarker> it = collectorItems.values().iterator();
+        while (it.hasNext()) {
+            TrackedMarker item = it.next();
+            if (item.timestamp > 0 && item.timestamp < cutoff) {
+                removeMarker(item);
+                it.remove();
+            }
+        }
+    }
 
-            for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
-                String id = doc.getId();
-                Double lat = doc.getDouble("latitude");
-                Double lon = doc.getDouble("longitude"); // ✅ FIXED
-                String locationName = doc.getString("location");
+    /** ✅ Collector position changes in one cell (icon only) — profile docs are read once for the name */
+    private void onCollectorCellSnapshot(String cell, QuerySnapshot querySnapshot) {
+        long staleCutoff = System.currentTimeMillis() - COLLECTOR_STALE_MS;
 
-                if (lat == null || lon == null) continue;
-                LatLng pos = new LatLng(lat, lon);
+        for (DocumentChange change : querySnapshot.getDocumentChanges()) {
+            DocumentSnapshot doc = change.getDocument();
+            String id = doc.getId();
 
-                if (!dropOffMarkers.containsKey(id)) {
-                    MarkerOptions options = new MarkerOptions()
-                            .position(pos)
-                            .title(locationName != null ? locationName : "Drop-off")
-                            .icon(getMarkerIcon(R.drawable.ic_garbage_bin));
+            if (change.getType() == DocumentChange.Type.REMOVED) {
+                orphan(id, cell, collectorItems);
+                continue;
+            }
 
-                    Marker marker = mMap.addMarker(options);
-                    dropOffMarkers.put(id, marker);
+            Double lat = doc.getDouble("latitude");
+            Double lon = doc.getDouble("longitude");
+            if (lat == null || lon == null) continue;
+            Long seqValue = doc.getLong("seq");
+            Long timeValue = doc.getLong("timestamp");
+            long seq = seqValue != null ? seqValue : 0;
+            long timestamp = timeValue != null ? timeValue : 0;
 
-                    if (!firstDropOffShown) {
-                        mMap.animateCamera(CameraUpdateFactory.newLatLngZoom(pos, 14f));
-                        firstDropOffShown = true;
-                    }
+            TrackedMarker item = collectorItems.get(id);
+            if (item == null) {
+                if (timestamp > 0 && timestamp < staleCutoff) continue; // parked tracker from hours ago
+
+                LatLng newPos = new LatLng(lat, lon);
+                MarkerOptions options = new MarkerOptions()
+                        .position(newPos)
+                        .title("Collector")
+                        .icon(getMarkerIcon(R.drawable.ic_garbage_truck));
+
+                item = new TrackedMarker();
+                item.marker = collectorMarkerCollection.addMarker(options);
+                collectorItems.put(id, item);
+                loadCollectorName(id, item.marker);
+
+                if (!firstCollectorShown) {
+                    mMap.animateCamera(CameraUpdateFactory.newLatLngZoom(newPos, 14f));
+                    firstCollectorShown = true;
                 }
+            } else {
+                item.cell = cell; // claimed again, cancels a pending orphan eviction
+                if (isStaleWrite(item, seq, timestamp)) continue; // late, out-of-order write
+                if (item.latitude == lat && item.longitude == lon) {
+                    item.seq = seq; // a newer fix may carry a restarted counter
+                    item.timestamp = timestamp;
+                    continue;
+                }
+                animateMarkerSmoothly(item.marker, new LatLng(lat, lon));
             }
-        });
+
+            item.cell = cell;
+            item.latitude = lat;
+            item.longitude = lon;
+            item.seq = seq;
+            item.timestamp = timestamp;
+        }
     }
 
+    /**
+     * Order writes by fix time first: seq only breaks ties, since the collector's
+     * counter can restart (reinstall, another device) and must not freeze the marker.
+     */
+    private static boolean isStaleWrite(TrackedMarker item, long seq, long timestamp) {
+        if (timestamp > 0 && item.timestamp > 0 && timestamp != item.timestamp) {
+            return timestamp < item.timestamp;
+        }
+        return seq != 0 && seq < item.seq;
+    }
 
-    /** 🎯 Show white rounded label above tapped marker */
-    private void showLabelAboveMarker(Marker marker) {
-        if (mMap == null || marker == null) return;
+    /** 🏷️ One-time profile read for the marker title */
+    private void loadCollectorName(String collectorId, Marker marker) {
+        String cached = collectorNames.get(collectorId);
+        if (cached != null) {
+            marker.setTitle(cached);
+            return;
+        }
+        db.collection("collectors").document(collectorId).get()
+                .addOnSuccessListener(doc -> {
+                    String name = doc.getString("firstName");
+                    if (name == null) return;
+                    collectorNames.put(collectorId, name);
+                    marker.setTitle(name);
+                });
+    }
 
-        if (activeLabelMarker != null) {
-            activeLabelMarker.remove();
-            activeLabelMarker = null;
+    /** ✅ Drop-off location changes in one cell, fed into the clustering layer */
+    private void onDropOffCellSnapshot(String cell, QuerySnapshot querySnapshot) {
+        boolean changed = false;
+
+        for (DocumentChange change : querySnapshot.getDocumentChanges()) {
+            DocumentSnapshot doc = change.getDocument();
+            String id = doc.getId();
+
+            if (change.getType() == DocumentChange.Type.REMOVED) {
+                orphanDropOff(id, cell);
+                continue;
+            }
+
+            Double lat = doc.getDouble("latitude");
+            Double lon = doc.getDouble("longitude"); // ✅ FIXED
+            String locationName = doc.getString("location");
+            String title = locationName != null ? locationName : "Drop-off";
+
+            if (lat == null || lon == null) continue;
+
+            DropOffClusterItem item = dropOffItems.get(id);
+            if (item != null && item.getPosition().latitude == lat
+                    && item.getPosition().longitude == lon && title.equals(item.getTitle())) {
+                item.cell = cell;
+                continue;
+            }
+
+            LatLng pos = new LatLng(lat, lon);
+            if (item != null) dropOffClusterManager.removeItem(item);
+            DropOffClusterItem updated = new DropOffClusterItem(id, pos, title);
+            updated.cell = cell;
+            dropOffItems.put(id, updated);
+            dropOffClusterManager.addItem(updated);
+            changed = true;
+
+            if (!firstDropOffShown) {
+                mMap.animateCamera(CameraUpdateFactory.newLatLngZoom(pos, 14f));
+                firstDropOffShown = true;
+            }
         }
 
-        String labelText = marker.getTitle();
-        if (labelText == null || labelText.trim().isEmpty()) return;
+        if (changed) dropOffClusterManager.cluster();
+    }
 
-        View labelView = getLayoutInflater().inflate(R.layout.custom_marker_label_only, null);
-        TextView label = labelView.findViewById(R.id.markerLabelOnly);
-        if (label == null) return;
-        label.setText(labelText);
+    /** 🎯 Show white rounded label above a tapped marker or cluster */
+    private void showLabelAt(LatLng pos, String labelText) {
+        if (mMap == null || pos == null) return;
 
-        AlphaAnimation fadeIn = new AlphaAnimation(0f, 1f);
-        fadeIn.setDuration(300);
-        labelView.startAnimation(fadeIn);
+        if (activeLabelMarker != null) {
+            labelMarkerCollection.remove(activeLabelMarker);
+            activeLabelMarker = null;
+        }
 
-        Bitmap labelBitmap = createBitmapFromView(labelView);
-        if (labelBitmap == null) return;
+        if (labelText == null || labelText.trim().isEmpty()) return;
 
-        LatLng pos = marker.getPosition();
         LatLng above = new LatLng(pos.latitude + 0.00025, pos.longitude);
 
-        activeLabelMarker = mMap.addMarker(new MarkerOptions()
+        activeLabelMarker = labelMarkerCollection.addMarker(new MarkerOptions()
                 .position(above)
-                .icon(BitmapDescriptorFactory.fromBitmap(labelBitmap))
+                .icon(iconCache.label(labelText))
                 .anchor(0.5f, 1f)
                 .zIndex(9999f));
     }
 
-    /** 🧱 Create icon-only marker bitmap */
+    /** 🧱 Icon-only marker bitmap, shared across markers */
     private BitmapDescriptor getMarkerIcon(int iconRes) {
-        View markerView = getLayoutInflater().inflate(R.layout.custom_marker_layout, null);
-        ImageView icon = markerView.findViewById(R.id.markerIcon);
-        icon.setImageResource(iconRes);
-        markerView.findViewById(R.id.markerLabel).setVisibility(View.GONE);
-
-        markerView.measure(View.MeasureSpec.UNSPECIFIED, View.MeasureSpec.UNSPECIFIED);
-        markerView.layout(0, 0, markerView.getMeasuredWidth(), markerView.getMeasuredHeight());
-
-        Bitmap bitmap = Bitmap.createBitmap(
-                markerView.getMeasuredWidth(),
-                markerView.getMeasuredHeight(),
-                Bitmap.Config.ARGB_8888
-        );
-        Canvas canvas = new Canvas(bitmap);
-        markerView.draw(canvas);
-        return BitmapDescriptorFactory.fromBitmap(bitmap);
-    }
-
-    /** 🧱 Convert any view to bitmap */
-    private Bitmap createBitmapFromView(View view) {
-        view.measure(View.MeasureSpec.UNSPECIFIED, View.MeasureSpec.UNSPECIFIED);
-        view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
-        Bitmap bitmap = Bitmap.createBitmap(
-                view.getMeasuredWidth(),
-                view.getMeasuredHeight(),
-                Bitmap.Config.ARGB_8888
-        );
-        Canvas canvas = new Canvas(bitmap);
-        view.draw(canvas);
-        return bitmap;
+        return iconCache.icon(iconRes);
     }
 
-    /** 🚗 Animate collector movement smoothly */
+    /** 🚗 Hand the new position to the shared frame-synced animator */
     private void animateMarkerSmoothly(Marker marker, LatLng newPosition) {
         if (marker == null || newPosition == null) return;
-        final LatLng start = marker.getPosition();
-        final long startTime = System.currentTimeMillis();
-        final long duration = 1000;
-        Handler handler = new Handler();
-
-        handler.post(new Runnable() {
-            @Override
-            public void run() {
-                long elapsed = System.currentTimeMillis() - startTime;
-                float t = Math.min(1, (float) elapsed / duration);
-                double lat = (newPosition.latitude - start.latitude) * t + start.latitude;
-                double lng = (newPosition.longitude - start.longitude) * t + start.longitude;
-                marker.setPosition(new LatLng(lat, lng));
-                if (t < 1.0) handler.postDelayed(this, 16);
-            }
-        });
+        markerAnimator.animateTo(marker, newPosition.latitude, newPosition.longitude);
+    }
+
+    private void removeMarker(TrackedMarker item) {
+        markerAnimator.remove(item.marker);
+        collectorMarkerCollection.remove(item.marker);
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        markerAnimator.resume();
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        markerAnimator.pause();
     }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        if (collectorListener != null) collectorListener.remove();
-        if (dropOffListener != null) dropOffListener.remove();
+        reconcileHandler.removeCallbacksAndMessages(null);
+        markerAnimator.clear();
+        if (collectorSubscriptions != null) collectorSubscriptions.clear();
+        if (dropOffSubscriptions != null) dropOffSubscriptions.clear();
     }
 
     @Override
@@ -329,8 +531,7 @@ public class ResidentLocateNowActivity extends AppCompatActivity implements OnMa
                         == PackageManager.PERMISSION_GRANTED) {
                     mMap.setMyLocationEnabled(true);
                     getDeviceLocation();
-                    listenToCollectors();
-                    listenToDropOffLocations();
+                    startViewportSubscriptions();
                 }
             } else {
                 Toast.makeText(this, "Location permission denied", Toast.LENGTH_SHORT).show();
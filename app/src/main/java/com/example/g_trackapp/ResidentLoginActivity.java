@@ -90,6 +90,9 @@ public class ResidentLoginActivity extends AppCompatActivity {
                                         contact != null ? contact : ""
                                 );
                                 sessionManager.saveExtraResidentInfo(region, city, barangay);
+                                sessionManager.saveHomeLocation(
+                                        document.getDouble("latitude"),
+                                        document.getDouble("longitude"));
 
                                 updateFcmToken(document.getId());
                                 goToResidentLandingPage();
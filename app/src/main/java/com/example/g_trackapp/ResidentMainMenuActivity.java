@@ -89,6 +89,9 @@ public class ResidentMainMenuActivity extends AppCompatActivity {
         btnMenu.setOnClickListener(v -> showPopupMenu(btnMenu));
 
         listenToNotifications();
+
+        // 🔹 Collector-nearby alerts are computed on this device around the home (refreshed on every session resume)
+        CollectorProximityMonitor.getInstance(this).resume();
     }
 
     // 🔔 Listen for Firestore notifications
@@ -7,6 +7,7 @@ import android.widget.*;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.google.android.gms.maps.model.LatLng;
 import com.google.android.libraries.places.api.Places;
 import com.google.android.libraries.places.api.model.Place;
 import com.google.android.libraries.places.api.model.AddressComponent;
@@ -32,6 +33,7 @@ public class ResidentRegisterActivity extends AppCompatActivity {
     private EditText etRegion, etCity, etBarangay, etStreet; // address fields
     private Button btnRegister;
     private ImageView btnBack;
+    private LatLng selectedLatLng; // home coordinates from the picked place
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -124,6 +126,7 @@ public class ResidentRegisterActivity extends AppCompatActivity {
             if (resultCode == RESULT_OK && data != null) {
                 Place place = Autocomplete.getPlaceFromIntent(data);
                 etStreet.setText(place.getAddress());
+                selectedLatLng = place.getLatLng();
 
                 AddressComponents components = place.getAddressComponents();
                 if (components != null) {
@@ -178,6 +181,11 @@ public class ResidentRegisterActivity extends AppCompatActivity {
             resident.put("phone", phone);
             resident.put("email", email);
             resident.put("password", password);
+            if (selectedLatLng != null) {
+                resident.put("latitude", selectedLatLng.latitude);
+                resident.put("longitude", selectedLatLng.longitude);
+                resident.put(GeoCell.FIELD, GeoCell.encode(selectedLatLng.latitude, selectedLatLng.longitude));
+            }
 
             db.collection("residents").document(String.valueOf(newId))
                     .set(resident)
@@ -16,11 +16,15 @@ public class ResidentSessionManager {
     private static final String KEY_REGION = "region";
     private static final String KEY_CITY = "city";
     private static final String KEY_BARANGAY = "barangay";
+    private static final String KEY_HOME_LAT = "home_lat";
+    private static final String KEY_HOME_LON = "home_lon";
 
     private final SharedPreferences pref;
     private final SharedPreferences.Editor editor;
+    private final Context appContext;
 
     public ResidentSessionManager(Context context) {
+        appContext = context.getApplicationContext();
         pref = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
         editor = pref.edit();
     }
@@ -44,6 +48,18 @@ public class ResidentSessionManager {
         editor.apply();
     }
 
+    // 🔹 Save home coordinates (stored as raw bits to keep full double precision)
+    public void saveHomeLocation(Double latitude, Double longitude) {
+        if (latitude == null || longitude == null) {
+            editor.remove(KEY_HOME_LAT);
+            editor.remove(KEY_HOME_LON);
+        } else {
+            editor.putLong(KEY_HOME_LAT, Double.doubleToRawLongBits(latitude));
+            editor.putLong(KEY_HOME_LON, Double.doubleToRawLongBits(longitude));
+        }
+        editor.apply();
+    }
+
     // 🔹 Save or update just the username
     public void saveUsername(String username) {
         if (username != null) {
@@ -62,14 +78,18 @@ public class ResidentSessionManager {
     public String getRegion() { return pref.getString(KEY_REGION, null); }
     public String getCity() { return pref.getString(KEY_CITY, null); }
     public String getBarangay() { return pref.getString(KEY_BARANGAY, null); }
+    public boolean hasHomeLocation() { return pref.contains(KEY_HOME_LAT) && pref.contains(KEY_HOME_LON); }
+    public double getHomeLatitude() { return Double.longBitsToDouble(pref.getLong(KEY_HOME_LAT, 0)); }
+    public double getHomeLongitude() { return Double.longBitsToDouble(pref.getLong(KEY_HOME_LON, 0)); }
 
     // 🔹 Check login
     public boolean isLoggedIn() {
         return getResidentId() != null && getUsername() != null;
     }
 
-    // 🔹 Logout
+    // 🔹 Logout (every screen's logout goes through here, so the proximity alerts stop too)
     public void logoutResident() {
+        CollectorProximityMonitor.getInstance(appContext).reset();
         clearSession();
     }
 
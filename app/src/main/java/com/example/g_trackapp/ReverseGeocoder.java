@@ -0,0 +1,204 @@
+package com.example.g_trackapp;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.location.Address;
+import android.location.Geocoder;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * 🏷️ ReverseGeocoder
+ * App-wide coordinate → street address lookups. Results are cached per
+ * geohash cell (precision 8, ~38 m × 19 m) in SharedPreferences for
+ * {@link #TTL_MS}, so repeat lookups on the same street answer straight from
+ * the cache. Misses run on a background executor; concurrent requests for
+ * the same cell share one platform Geocoder call.
+ */
+public final class ReverseGeocoder {
+
+    private static final String TAG = "ReverseGeocoder";
+    private static final String PREF_NAME = "GeocodeCachePref";
+    static final int CELL_PRECISION = 8;
+    static final long TTL_MS = 30L * 24 * 60 * 60 * 1000;
+    /** Entries kept on disk; the oldest are dropped beyond this */
+    static final int MAX_ENTRIES = 500;
+
+    public interface Callback {
+        /** @param address the address line, or null if none could be found */
+        void onAddress(@Nullable String address);
+    }
+
+    /** Blocking coordinate → address lookup (the platform Geocoder in the app) */
+    interface Lookup {
+        @Nullable
+        String addressAt(double latitude, double longitude) throws Exception;
+    }
+
+    /** Persistent string store (SharedPreferences in the app) */
+    interface Store {
+        @Nullable
+        String get(String key);
+        void put(String key, String value);
+        Map<String, ?> all();
+        void remove(List<String> keys);
+    }
+
+    interface Clock {
+        long now();
+    }
+
+    private static ReverseGeocoder instance;
+
+    private final Lookup lookup;
+    private final Executor worker;
+    private final Executor callbacks;
+    private final Store store;
+    private final Clock clock;
+
+    private final Map<String, List<Callback>> inFlight = new HashMap<>();
+    private long hits, misses, merged;
+
+    public static synchronized ReverseGeocoder getInstance(Context context) {
+        if (instance == null) {
+            Context appContext = context.getApplicationContext();
+            Geocoder geocoder = new Geocoder(appContext, Locale.getDefault());
+            SharedPreferences prefs = appContext.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+            instance = new ReverseGeocoder(
+                    (lat, lng) -> {
+                        if (!Geocoder.isPresent()) return null;
+                        List<Address> addresses = geocoder.getFromLocation(lat, lng, 1);
+                        return addresses != null && !addresses.isEmpty() ? addresses.get(0).getAddressLine(0) : null;
+                    },
+                    Executors.newFixedThreadPool(2),
+                    ContextCompat.getMainExecutor(appContext),
+                    new Store() {
+                        @Override public String get(String key) { return prefs.getString(key, null); }
+                        @Override public void put(String key, String value) { prefs.edit().putString(key, value).apply(); }
+                        @Override public Map<String, ?> all() { return prefs.getAll(); }
+                        @Override public void remove(List<String> keys) {
+                            SharedPreferences.Editor editor = prefs.edit();
+                            for (String key : keys) editor.remove(key);
+                            editor.apply();
+                        }
+                    },
+                    System::currentTimeMillis);
+        }
+        return instance;
+    }
+
+    ReverseGeocoder(Lookup lookup, Executor worker, Executor callbacks, Store store, Clock clock) {
+        this.lookup = lookup;
+        this.worker = worker;
+        this.callbacks = callbacks;
+        this.store = store;
+        this.clock = clock;
+    }
+
+    /**
+     * Address near a coordinate. A fresh cached address is delivered
+     * synchronously on the calling thread; otherwise the callback runs on the
+     * main thread once the lookup finishes.
+     */
+    public void lookup(double latitude, double longitude, Callback callback) {
+        String cell = GeoCell.encode(latitude, longitude, CELL_PRECISION);
+        String cached = cachedAddress(cell);
+        if (cached != null) {
+            synchronized (this) {
+                hits++;
+            }
+            callback.onAddress(cached);
+            return;
+        }
+
+        synchronized (this) {
+            List<Callback> waiting = inFlight.get(cell);
+            if (waiting != null) {
+                // Same spot already being looked up: ride along
+                waiting.add(callback);
+                merged++;
+                return;
+            }
+            waiting = new ArrayList<>();
+            waiting.add(callback);
+            inFlight.put(cell, waiting);
+            misses++;
+        }
+
+        worker.execute(() -> {
+            String address = null;
+            try {
+                address = lookup.addressAt(latitude, longitude);
+            } catch (Exception e) {
+                Log.e(TAG, "Geocoder lookup failed", e);
+            }
+            if (address != null) remember(cell, address);
+
+            List<Callback> waiting;
+            synchronized (this) {
+                waiting = inFlight.remove(cell);
+            }
+            String result = address;
+            callbacks.execute(() -> {
+                for (Callback c : waiting) c.onAddress(result);
+            });
+        });
+    }
+
+    public synchronized String statsLine() {
+        return hits + " cached, " + misses + " looked up, " + merged + " merged";
+    }
+
+    @Nullable
+    private String cachedAddress(String cell) {
+        String value = store.get(cell);
+        if (value == null) return null;
+        int tab = value.indexOf('\t');
+        if (tab < 0) return null;
+        try {
+            long savedAt = Long.parseLong(value.substring(0, tab));
+            return clock.now() - savedAt < TTL_MS ? value.substring(tab + 1) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /** Store "savedAt\taddress"; past {@link #MAX_ENTRIES}, drop expired then oldest entries */
+    private void remember(String cell, String address) {
+        long now = clock.now();
+        store.put(cell, now + "\t" + address);
+
+        Map<String, ?> all = store.all();
+        if (all.size() <= MAX_ENTRIES) return;
+        List<Map.Entry<String, Long>> ages = new ArrayList<>(all.size());
+        for (Map.Entry<String, ?> entry : all.entrySet()) {
+            String value = String.valueOf(entry.getValue());
+            int tab = value.indexOf('\t');
+            long savedAt;
+            try {
+                savedAt = tab < 0 ? 0 : Long.parseLong(value.substring(0, tab));
+            } catch (NumberFormatException e) {
+                savedAt = 0;
+            }
+            ages.add(new AbstractMap.SimpleEntry<>(entry.getKey(), savedAt));
+        }
+        ages.sort((a, b) -> Long.compare(a.getValue(), b.getValue()));
+        List<String> drop = new ArrayList<>();
+        for (int i = 0; i < ages.size(); i++) {
+            boolean expired = now - ages.get(i).getValue() >= TTL_MS;
+            if (expired || ages.size() - drop.size() > MAX_ENTRIES) drop.add(ages.get(i).getKey());
+        }
+        store.remove(drop);
+    }
+}
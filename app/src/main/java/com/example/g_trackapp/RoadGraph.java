@@ -0,0 +1,482 @@
+package com.example.g_trackapp;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * 🛣️ RoadGraph
+ * Offline road network for leg queries without Directions. The file is a flat
+ * big-endian layout read through buffer views, so a memory-mapped asset is used
+ * in place (pages load on demand); nothing is parsed into objects.
+ *
+ * <pre>
+ * int magic "GTRG", version, nodeCount, edgeCount, landmarkCount
+ * int[nodeCount]          latitude  × 1e7
+ * int[nodeCount]          longitude × 1e7
+ * int[nodeCount + 1]      first outgoing edge of each node (CSR)
+ * int[edgeCount]          edge target node
+ * float[edgeCount]        edge length in meters
+ * int[landmarkCount]      landmark nodes
+ * char[landmarkCount × nodeCount]  landmark → node distance, 10 m units (0xFFFF = unreachable)
+ * char[landmarkCount × nodeCount]  node → landmark distance, same units
+ * </pre>
+ *
+ * Queries run A* with ALT bounds (triangle inequality over the landmarks);
+ * written by {@link #write} from tools/osm-graph. Queries are not concurrent:
+ * one set of search arrays is reused (and never cleared — a generation stamp
+ * marks what belongs to the current search).
+ */
+public final class RoadGraph {
+
+    static final int MAGIC = 0x47545247; // "GTRG"
+    static final int VERSION = 1;
+    private static final int HEADER_BYTES = 5 * 4;
+    private static final int UNREACHABLE = 0xFFFF;
+    private static final double LANDMARK_UNIT_M = 10;
+    /** Nearest-node grid cell, ~220 m */
+    private static final double GRID_DEG = 0.002;
+
+    /** A leg through the network */
+    public static final class Route {
+        /** Flat {lat0, lng0, lat1, lng1, …} node coordinates */
+        public final double[] path;
+        public final double meters;
+        /** Nodes settled by the search (how much work the query did) */
+        public final int settled;
+
+        Route(double[] path, double meters, int settled) {
+            this.path = path;
+            this.meters = meters;
+            this.settled = settled;
+        }
+    }
+
+    private final int nodeCount, edgeCount, landmarkCount;
+    private final IntBuffer latE7, lngE7, edgeStart, edgeTarget;
+    private final FloatBuffer edgeLength;
+    private final CharBuffer fromLandmark, toLandmark;
+
+    // Nearest-node grid, built on load (nodes bucketed by cell)
+    private final double gridLat0, gridLng0;
+    private final int gridRows, gridCols;
+    private final int[] cellStart, cellNodes;
+
+    // Search state, stamped per query
+    private final float[] dist;
+    private final int[] parent;
+    private final int[] reachedIn, settledIn;
+    private int generation;
+    private int[] heapNodes = new int[256];
+    private float[] heapKeys = new float[256];
+    private int heapSize;
+    private final int[] targetFrom, targetTo;
+
+    private boolean useLandmarks = true;
+
+    /** Wraps (does not copy) a buffer holding a graph file, e.g. a mapped asset */
+    public static RoadGraph from(ByteBuffer buffer) throws IOException {
+        return new RoadGraph(buffer.duplicate());
+    }
+
+    private RoadGraph(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt(0) != MAGIC) throw new IOException("Not a road graph");
+        if (buffer.getInt(4) != VERSION) throw new IOException("Road graph version " + buffer.getInt(4));
+        nodeCount = buffer.getInt(8);
+        edgeCount = buffer.getInt(12);
+        landmarkCount = buffer.getInt(16);
+
+        int offset = HEADER_BYTES;
+        latE7 = slice(buffer, offset, nodeCount * 4).asIntBuffer();
+        offset += nodeCount * 4;
+        lngE7 = slice(buffer, offset, nodeCount * 4).asIntBuffer();
+        offset += nodeCount * 4;
+        edgeStart = slice(buffer, offset, (nodeCount + 1) * 4).asIntBuffer();
+        offset += (nodeCount + 1) * 4;
+        edgeTarget = slice(buffer, offset, edgeCount * 4).asIntBuffer();
+        offset += edgeCount * 4;
+        edgeLength = slice(buffer, offset, edgeCount * 4).asFloatBuffer();
+        offset += edgeCount * 4;
+        offset += landmarkCount * 4; // landmark ids: only the builder needs them
+        fromLandmark = slice(buffer, offset, landmarkCount * nodeCount * 2).asCharBuffer();
+        offset += landmarkCount * nodeCount * 2;
+        toLandmark = slice(buffer, offset, landmarkCount * nodeCount * 2).asCharBuffer();
+
+        dist = new float[nodeCount];
+        parent = new int[nodeCount];
+        reachedIn = new int[nodeCount];
+        settledIn = new int[nodeCount];
+        targetFrom = new int[landmarkCount];
+        targetTo = new int[landmarkCount];
+
+        // 🔹 Bucket nodes into a lat/lng grid for snapping
+        double minLat = Double.MAX_VALUE, minLng = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE, maxLng = -Double.MAX_VALUE;
+        for (int v = 0; v < nodeCount; v++) {
+            double lat = latitude(v), lng = longitude(v);
+            minLat = Math.min(minLat, lat);
+            maxLat = Math.max(maxLat, lat);
+            minLng = Math.min(minLng, lng);
+            maxLng = Math.max(maxLng, lng);
+        }
+        gridLat0 = nodeCount == 0 ? 0 : minLat;
+        gridLng0 = nodeCount == 0 ? 0 : minLng;
+        gridRows = nodeCount == 0 ? 1 : (int) ((maxLat - minLat) / GRID_DEG) + 1;
+        gridCols = nodeCount == 0 ? 1 : (int) ((maxLng - minLng) / GRID_DEG) + 1;
+        cellStart = new int[gridRows * gridCols + 1];
+        int[] cellOf = new int[nodeCount];
+        for (int v = 0; v < nodeCount; v++) {
+            cellOf[v] = cell(latitude(v), longitude(v));
+            cellStart[cellOf[v] + 1]++;
+        }
+        for (int c = 0; c < gridRows * gridCols; c++) cellStart[c + 1] += cellStart[c];
+        cellNodes = new int[nodeCount];
+        int[] fill = Arrays.copyOf(cellStart, cellStart.length - 1);
+        for (int v = 0; v < nodeCount; v++) cellNodes[fill[cellOf[v]]++] = v;
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) throws IOException {
+        if (offset + length > buffer.limit()) throw new IOException("Truncated road graph");
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset);
+        view.limit(offset + length);
+        return view.slice();
+    }
+
+    public int nodeCount() { return nodeCount; }
+    public int edgeCount() { return edgeCount; }
+    public int landmarkCount() { return landmarkCount; }
+
+    public double latitude(int node) { return latE7.get(node) * 1e-7; }
+    public double longitude(int node) { return lngE7.get(node) * 1e-7; }
+
+    /** Plain A* (straight-line bound only) instead of ALT — for comparisons */
+    void setUseLandmarks(boolean useLandmarks) {
+        this.useLandmarks = useLandmarks;
+    }
+
+    /** Closest node within {@code maxMeters}, or -1 */
+    public int nearestNode(double lat, double lng, double maxMeters) {
+        int row = clamp((int) ((lat - gridLat0) / GRID_DEG), gridRows);
+        int col = clamp((int) ((lng - gridLng0) / GRID_DEG), gridCols);
+        double cellMeters = GRID_DEG * GeoMath.EARTH_RADIUS_M * Math.toRadians(1) * Math.cos(Math.toRadians(lat));
+        int maxRing = (int) Math.ceil(maxMeters / cellMeters) + 1;
+
+        int best = -1;
+        double bestMeters = maxMeters;
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Anything in this ring or beyond is at least (ring - 1) cells away
+            if (best >= 0 && (ring - 1) * cellMeters > bestMeters) break;
+            for (int r = row - ring; r <= row + ring; r++) {
+                if (r < 0 || r >= gridRows) continue;
+                for (int c = col - ring; c <= col + ring; c++) {
+                    if (c < 0 || c >= gridCols) continue;
+                    if (Math.abs(r - row) != ring && Math.abs(c - col) != ring) continue; // ring border only
+                    int cellIndex = r * gridCols + c;
+                    for (int i = cellStart[cellIndex]; i < cellStart[cellIndex + 1]; i++) {
+                        int v = cellNodes[i];
+                        double d = GeoMath.distanceMeters(lat, lng, latitude(v), longitude(v));
+                        if (d <= bestMeters) {
+                            bestMeters = d;
+                            best = v;
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /** Shortest route from {@code from} to {@code to}, or null if {@code to} is unreachable */
+    public Route route(int from, int to) {
+        startSearch();
+        for (int l = 0; l < landmarkCount; l++) {
+            targetFrom[l] = fromLandmark.get(l * nodeCount + to);
+            targetTo[l] = toLandmark.get(l * nodeCount + to);
+        }
+        double toLat = latitude(to), toLng = longitude(to);
+
+        reach(from, 0, -1, heuristic(from, toLat, toLng));
+        int settled = 0;
+        while (heapSize > 0) {
+            int v = pop();
+            if (settledIn[v] == generation) continue;
+            settledIn[v] = generation;
+            settled++;
+            if (v == to) return new Route(pathTo(to), dist[to], settled);
+
+            float dv = dist[v];
+            for (int e = edgeStart.get(v), end = edgeStart.get(v + 1); e < end; e++) {
+                int w = edgeTarget.get(e);
+                float dw = dv + edgeLength.get(e);
+                if (reachedIn[w] == generation && dw >= dist[w]) continue;
+                // Rounded landmark bounds are admissible but not strictly consistent: reopen if shorter
+                settledIn[w] = 0;
+                reach(w, dw, v, dw + heuristic(w, toLat, toLng));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Road distances between every pair of points (row-major, meters), for
+     * {@link RouteOptimizer}. Each row is one Dijkstra that stops once every
+     * target is settled; points that do not snap or connect fall back to the
+     * straight-line distance.
+     */
+    public float[] distanceMatrix(double[] latitudes, double[] longitudes, double snapMeters) {
+        int n = latitudes.length;
+        int[] nodes = new int[n];
+        for (int i = 0; i < n; i++) nodes[i] = nearestNode(latitudes[i], longitudes[i], snapMeters);
+        float[] matrix = RouteOptimizer.haversineMatrix(latitudes, longitudes);
+
+        for (int i = 0; i < n; i++) {
+            if (nodes[i] < 0) continue;
+            startSearch();
+            int remaining = 0;
+            for (int j = 0; j < n; j++) if (j != i && nodes[j] >= 0) remaining++;
+            reach(nodes[i], 0, -1, 0);
+            while (heapSize > 0 && remaining > 0) {
+                int v = pop();
+                if (settledIn[v] == generation) continue;
+                settledIn[v] = generation;
+                for (int j = 0; j < n; j++) {
+                    if (j != i && nodes[j] == v) {
+                        matrix[i * n + j] = Math.max(dist[v], matrix[i * n + j]);
+                        remaining--;
+                    }
+                }
+                float dv = dist[v];
+                for (int e = edgeStart.get(v), end = edgeStart.get(v + 1); e < end; e++) {
+                    int w = edgeTarget.get(e);
+                    float dw = dv + edgeLength.get(e);
+                    if (settledIn[w] != generation && (reachedIn[w] != generation || dw < dist[w])) reach(w, dw, v, dw);
+                }
+            }
+        }
+        return matrix;
+    }
+
+    // 🔹 Lower bound on the remaining distance: straight line, tightened by every landmark
+    private float heuristic(int v, double toLat, double toLng) {
+        double bound = GeoMath.distanceMeters(latitude(v), longitude(v), toLat, toLng);
+        if (!useLandmarks) return (float) bound;
+        int best = 0;
+        for (int l = 0; l < landmarkCount; l++) {
+            int lv = fromLandmark.get(l * nodeCount + v);
+            int vl = toLandmark.get(l * nodeCount + v);
+            // d(v,t) >= d(L,t) - d(L,v) and d(v,t) >= d(v,L) - d(t,L); one unit off for rounding down
+            if (targetFrom[l] != UNREACHABLE && lv != UNREACHABLE) best = Math.max(best, targetFrom[l] - lv - 1);
+            if (vl != UNREACHABLE && targetTo[l] != UNREACHABLE) best = Math.max(best, vl - targetTo[l] - 1);
+        }
+        return (float) Math.max(bound, best * LANDMARK_UNIT_M);
+    }
+
+    private double[] pathTo(int to) {
+        int count = 0;
+        for (int v = to; v >= 0; v = parent[v]) count++;
+        double[] path = new double[count * 2];
+        int i = count - 1;
+        for (int v = to; v >= 0; v = parent[v], i--) {
+            path[2 * i] = latitude(v);
+            path[2 * i + 1] = longitude(v);
+        }
+        return path;
+    }
+
+    private void startSearch() {
+        generation++;
+        heapSize = 0;
+    }
+
+    private void reach(int v, float d, int from, float key) {
+        reachedIn[v] = generation;
+        dist[v] = d;
+        parent[v] = from;
+        push(v, key);
+    }
+
+    // 🔹 Binary heap with lazy deletion (stale entries are skipped when popped)
+    private void push(int node, float key) {
+        if (heapSize == heapNodes.length) {
+            heapNodes = Arrays.copyOf(heapNodes, heapSize * 2);
+            heapKeys = Arrays.copyOf(heapKeys, heapSize * 2);
+        }
+        int i = heapSize++;
+        while (i > 0) {
+            int up = (i - 1) >>> 1;
+            if (heapKeys[up] <= key) break;
+            heapNodes[i] = heapNodes[up];
+            heapKeys[i] = heapKeys[up];
+            i = up;
+        }
+        heapNodes[i] = node;
+        heapKeys[i] = key;
+    }
+
+    private int pop() {
+        int top = heapNodes[0];
+        int node = heapNodes[--heapSize];
+        float key = heapKeys[heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) break;
+            if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child]) child++;
+            if (heapKeys[child] >= key) break;
+            heapNodes[i] = heapNodes[child];
+            heapKeys[i] = heapKeys[child];
+            i = child;
+        }
+        heapNodes[i] = node;
+        heapKeys[i] = key;
+        return top;
+    }
+
+    private int cell(double lat, double lng) {
+        return clamp((int) ((lat - gridLat0) / GRID_DEG), gridRows) * gridCols
+                + clamp((int) ((lng - gridLng0) / GRID_DEG), gridCols);
+    }
+
+    private static int clamp(int value, int size) {
+        return Math.max(0, Math.min(size - 1, value));
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // Build side (tools/osm-graph)
+    // ─────────────────────────────────────────────────────────────
+
+    /**
+     * Write a graph file. Edges are CSR: node v's edges are
+     * {@code edgeStart[v] .. edgeStart[v + 1] - 1}. Landmarks are picked by
+     * farthest-point selection, so they sit on the edges of the network where
+     * their bounds are tightest.
+     */
+    public static void write(OutputStream output, double[] latitudes, double[] longitudes,
+                             int[] edgeStart, int[] edgeTarget, float[] edgeLength, int landmarks) throws IOException {
+        int n = latitudes.length;
+        int m = edgeTarget.length;
+        landmarks = Math.min(landmarks, n);
+
+        // Reverse graph for node → landmark distances
+        int[] reverseStart = new int[n + 1];
+        for (int e = 0; e < m; e++) reverseStart[edgeTarget[e] + 1]++;
+        for (int v = 0; v < n; v++) reverseStart[v + 1] += reverseStart[v];
+        int[] reverseTarget = new int[m];
+        float[] reverseLength = new float[m];
+        int[] fill = Arrays.copyOf(reverseStart, n);
+        for (int v = 0; v < n; v++) {
+            for (int e = edgeStart[v]; e < edgeStart[v + 1]; e++) {
+                int slot = fill[edgeTarget[e]]++;
+                reverseTarget[slot] = v;
+                reverseLength[slot] = edgeLength[e];
+            }
+        }
+
+        int[] landmarkNodes = new int[landmarks];
+        float[][] from = new float[landmarks][];
+        float[][] to = new float[landmarks][];
+        float[] nearestLandmark = new float[n];
+        Arrays.fill(nearestLandmark, Float.POSITIVE_INFINITY);
+        int next = 0;
+        for (int l = 0; l < landmarks; l++) {
+            landmarkNodes[l] = next;
+            from[l] = dijkstraAll(n, edgeStart, edgeTarget, edgeLength, next);
+            to[l] = dijkstraAll(n, reverseStart, reverseTarget, reverseLength, next);
+            // Next landmark: the reachable node farthest from every landmark so far
+            float farthest = -1;
+            for (int v = 0; v < n; v++) {
+                float d = Math.min(from[l][v], to[l][v]);
+                if (d < nearestLandmark[v]) nearestLandmark[v] = d;
+                if (nearestLandmark[v] != Float.POSITIVE_INFINITY && nearestLandmark[v] > farthest) {
+                    farthest = nearestLandmark[v];
+                    next = v;
+                }
+            }
+        }
+
+        DataOutputStream out = new DataOutputStream(output);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(n);
+        out.writeInt(m);
+        out.writeInt(landmarks);
+        for (double lat : latitudes) out.writeInt((int) Math.round(lat * 1e7));
+        for (double lng : longitudes) out.writeInt((int) Math.round(lng * 1e7));
+        for (int start : edgeStart) out.writeInt(start);
+        for (int target : edgeTarget) out.writeInt(target);
+        for (float length : edgeLength) out.writeFloat(length);
+        for (int node : landmarkNodes) out.writeInt(node);
+        for (float[] distances : from) writeLandmarkDistances(out, distances);
+        for (float[] distances : to) writeLandmarkDistances(out, distances);
+        out.flush();
+    }
+
+    /** Rounded down so the ALT bounds stay admissible */
+    private static void writeLandmarkDistances(DataOutputStream out, float[] distances) throws IOException {
+        for (float d : distances) {
+            long units = (long) Math.floor(d / LANDMARK_UNIT_M);
+            out.writeChar(d == Float.POSITIVE_INFINITY || units >= UNREACHABLE ? UNREACHABLE : (int) units);
+        }
+    }
+
+    private static float[] dijkstraAll(int n, int[] start, int[] target, float[] length, int source) {
+        float[] dist = new float[n];
+        Arrays.fill(dist, Float.POSITIVE_INFINITY);
+        boolean[] done = new boolean[n];
+        int[] heap = new int[Math.max(16, n)];
+        float[] keys = new float[heap.length];
+        int size = 0;
+        dist[source] = 0;
+        heap[size] = source;
+        keys[size++] = 0;
+        while (size > 0) {
+            int v = heap[0];
+            float dv = keys[0];
+            // pop
+            size--;
+            int last = heap[size];
+            float lastKey = keys[size];
+            int i = 0;
+            while (true) {
+                int c = 2 * i + 1;
+                if (c >= size) break;
+                if (c + 1 < size && keys[c + 1] < keys[c]) c++;
+                if (keys[c] >= lastKey) break;
+                heap[i] = heap[c];
+                keys[i] = keys[c];
+                i = c;
+            }
+            heap[i] = last;
+            keys[i] = lastKey;
+
+            if (done[v] || dv > dist[v]) continue;
+            done[v] = true;
+            for (int e = start[v]; e < start[v + 1]; e++) {
+                int w = target[e];
+                float dw = dv + length[e];
+                if (dw >= dist[w]) continue;
+                dist[w] = dw;
+                if (size == heap.length) {
+                    heap = Arrays.copyOf(heap, size * 2);
+                    keys = Arrays.copyOf(keys, size * 2);
+                }
+                int j = size++;
+                while (j > 0) {
+                    int up = (j - 1) >>> 1;
+                    if (keys[up] <= dw) break;
+                    heap[j] = heap[up];
+                    keys[j] = keys[up];
+                    j = up;
+                }
+                heap[j] = w;
+                keys[j] = dw;
+            }
+        }
+        return dist;
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.g_trackapp;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 💾 RouteCache
+ * Disk-backed LRU of planned routes, one small binary file per route.
+ * Keys hash the normalized stop list (5 decimals, the polyline precision)
+ * and travel mode, so the same route asked for again maps to the same file.
+ * The origin is the truck's live position, so it is keyed by its
+ * {@link #ORIGIN_PRECISION} geohash cell instead: a few metres of GPS drift
+ * between replans still hit the cached route.
+ * Entries younger than {@code revalidateAfterMillis} are served as-is; older
+ * ones are still served but should be refreshed in the background; past
+ * {@code ttlMillis} they are dropped. Not for the main thread.
+ */
+public class RouteCache {
+
+    private static final String TAG = "RouteCache";
+
+    private static final int MAGIC = 0x47545243; // "GTRC"
+    private static final int VERSION = 2;
+    private static final String SUFFIX = ".route";
+
+    static final long DEFAULT_MAX_BYTES = 2 * 1024 * 1024;
+    static final long DEFAULT_REVALIDATE_AFTER_MS = 60 * 60 * 1000L;
+    static final long DEFAULT_TTL_MS = 7 * 24 * 60 * 60 * 1000L;
+    /** Geohash precision of the origin in a key (~150 m cells) */
+    static final int ORIGIN_PRECISION = 7;
+
+    private static RouteCache instance;
+
+    public static final class Entry {
+        public final RouteLegPlanner.PlannedRoute route;
+        public final long storedAtMillis;
+        private final long revalidateAfterMillis;
+
+        Entry(RouteLegPlanner.PlannedRoute route, long storedAtMillis, long revalidateAfterMillis) {
+            this.route = route;
+            this.storedAtMillis = storedAtMillis;
+            this.revalidateAfterMillis = revalidateAfterMillis;
+        }
+
+        public boolean needsRevalidation(long nowMillis) {
+            return nowMillis - storedAtMillis >= revalidateAfterMillis;
+        }
+    }
+
+    private final File dir;
+    private final long maxBytes;
+    private final long revalidateAfterMillis;
+    private final long ttlMillis;
+
+    /** key → file size, least recently used first */
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes = 0;
+
+    // 🔹 Debug counters
+    private long hits, misses, bytesSaved;
+
+    public static synchronized RouteCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new RouteCache(new File(context.getCacheDir(), "route_cache"),
+                    DEFAULT_MAX_BYTES, DEFAULT_REVALIDATE_AFTER_MS, DEFAULT_TTL_MS);
+        }
+        return instance;
+    }
+
+    RouteCache(File dir, long maxBytes, long revalidateAfterMillis, long ttlMillis) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        this.revalidateAfterMillis = revalidateAfterMillis;
+        this.ttlMillis = ttlMillis;
+        loadIndex();
+    }
+
+    /** Normalized key for an ordered stop list (origin first, destination last) */
+    public static String key(double[] latitudes, double[] longitudes, String mode) {
+        StringBuilder normalized = new StringBuilder(latitudes.length * 20 + 8);
+        normalized.append(mode.toLowerCase(Locale.US));
+        if (latitudes.length > 0) {
+            normalized.append('|').append(GeoCell.encode(latitudes[0], longitudes[0], ORIGIN_PRECISION));
+        }
+        for (int i = 1; i < latitudes.length; i++) {
+            normalized.append('|')
+                    .append(Math.round(latitudes[i] * 1e5)).append(',')
+                    .append(Math.round(longitudes[i] * 1e5));
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(normalized.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(40);
+            for (int i = 0; i < 20; i++) hex.append(String.format(Locale.US, "%02x", digest[i]));
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Cached route, or null on a miss or expired entry */
+    public synchronized Entry get(String key, long nowMillis) {
+        // index.get (not containsKey) so the access moves the key to the LRU tail
+        if (index.get(key) == null) {
+            misses++;
+            return null;
+        }
+
+        File file = file(key);
+        Entry entry;
+        try {
+            entry = read(file);
+        } catch (IOException e) {
+            Log.w(TAG, "Dropping unreadable entry " + key, e);
+            remove(key);
+            misses++;
+            return null;
+        }
+
+        if (nowMillis - entry.storedAtMillis >= ttlMillis) {
+            remove(key);
+            misses++;
+            return null;
+        }
+
+        hits++;
+        bytesSaved += entry.route.responseBytes;
+        file.setLastModified(nowMillis);
+        return entry;
+    }
+
+    public synchronized void put(String key, RouteLegPlanner.PlannedRoute route, long nowMillis) {
+        if (!dir.exists() && !dir.mkdirs()) {
+            Log.e(TAG, "Cannot create " + dir);
+            return;
+        }
+
+        File file = file(key);
+        File tmp = new File(dir, key + ".tmp");
+        try {
+            write(tmp, route, nowMillis);
+            if (!tmp.renameTo(file)) throw new IOException("rename failed");
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to store route " + key, e);
+            tmp.delete();
+            return;
+        }
+
+        Long previous = index.put(key, file.length());
+        if (previous != null) totalBytes -= previous;
+        totalBytes += file.length();
+        evict();
+    }
+
+    public synchronized void clear() {
+        for (String key : index.keySet()) file(key).delete();
+        index.clear();
+        totalBytes = 0;
+    }
+
+    public synchronized long getHits() { return hits; }
+    public synchronized long getMisses() { return misses; }
+    public synchronized long getBytesSaved() { return bytesSaved; }
+    public synchronized long getSizeBytes() { return totalBytes; }
+
+    public synchronized String statsLine() {
+        long total = hits + misses;
+        return String.format(Locale.US, "hits %d/%d (%.0f%%), %d KB saved, %d entries, %d KB on disk",
+                hits, total, total == 0 ? 0.0 : 100.0 * hits / total,
+                bytesSaved / 1024, index.size(), totalBytes / 1024);
+    }
+
+    private void loadIndex() {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(SUFFIX));
+        if (files == null) return;
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (File f : files) {
+            String name = f.getName();
+            index.put(name.substring(0, name.length() - SUFFIX.length()), f.length());
+            totalBytes += f.length();
+        }
+        evict();
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> it = index.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            file(eldest.getKey()).delete();
+            totalBytes -= eldest.getValue();
+            it.remove();
+        }
+    }
+
+    private void remove(String key) {
+        Long size = index.remove(key);
+        if (size != null) totalBytes -= size;
+        file(key).delete();
+    }
+
+    private File file(String key) {
+        return new File(dir, key + SUFFIX);
+    }
+
+    // 🔹 Binary layout: header, totals, bounds, then the path as 1e5 fixed-point ints
+
+    private static void write(File file, RouteLegPlanner.PlannedRoute route, long storedAt) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(storedAt);
+            out.writeLong(route.distanceMeters);
+            out.writeLong(route.durationSeconds);
+            out.writeInt(route.chunks);
+            out.writeLong(route.responseBytes);
+            out.writeBoolean(route.bounds != null);
+            if (route.bounds != null) for (double v : route.bounds) out.writeDouble(v);
+            out.writeInt(route.path.length);
+            for (double v : route.path) out.writeInt((int) Math.round(v * 1e5));
+        }
+    }
+
+    private Entry read(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) throw new IOException("bad header");
+            long storedAt = in.readLong();
+            long distance = in.readLong();
+            long duration = in.readLong();
+            int chunks = in.readInt();
+            long responseBytes = in.readLong();
+            double[] bounds = null;
+            if (in.readBoolean()) {
+                bounds = new double[4];
+                for (int i = 0; i < 4; i++) bounds[i] = in.readDouble();
+            }
+            int length = in.readInt();
+            if (length < 0 || length % 2 != 0) throw new IOException("bad length " + length);
+            double[] path = new double[length];
+            for (int i = 0; i < length; i++) path[i] = in.readInt() * 1e-5;
+            return new Entry(new RouteLegPlanner.PlannedRoute(path, bounds, distance, duration, chunks, responseBytes),
+                    storedAt, revalidateAfterMillis);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.g_trackapp;
+
+/**
+ * 🧲 RouteFollower
+ * Snaps live fixes onto the drawn route and tracks progress along it.
+ * Each fix is only projected onto the segments in a short window around the
+ * last matched segment, and that index only moves forward with the truck, so
+ * a fix costs O(1) amortized regardless of route length. Once the truck has
+ * driven {@link #REROUTE_AFTER_M} off the route, one {@link State#REROUTE}
+ * asks the caller to recompute the legs that are still ahead.
+ *
+ * Paths are flat {lat0, lng0, lat1, lng1, …} arrays; pure Java.
+ */
+public final class RouteFollower {
+
+    /** A fix within this of the route (or within its accuracy, up to the cap) is on it */
+    static final double ON_ROUTE_M = 30;
+    private static final double MAX_ON_ROUTE_M = 60;
+    /** Off-route driving tolerated before asking for a reroute */
+    static final double REROUTE_AFTER_M = 100;
+    /** Matching window around the last matched position */
+    private static final double WINDOW_BEHIND_M = 40;
+    private static final double WINDOW_AHEAD_M = 250;
+    /** While off route, look this far ahead for the truck rejoining later */
+    private static final double REJOIN_AHEAD_M = 2000;
+    /** A waypoint counts as passed once the truck is this far beyond it */
+    private static final double WAYPOINT_PASSED_M = 15;
+
+    public enum State { ON_ROUTE, OFF_ROUTE, REROUTE }
+
+    public static final class Progress {
+        public final State state;
+        /** Position on the route (last matched one while off route) */
+        public final double snappedLatitude, snappedLongitude;
+        public final double alongMeters;
+        public final double remainingMeters;
+        /** Distance of the fix from the route */
+        public final double crossTrackMeters;
+        /** Meters driven since leaving the route (0 when on it) */
+        public final double offRouteMeters;
+        /** First waypoint not yet passed (waypoints.length / 2 when all are) */
+        public final int nextWaypoint;
+
+        Progress(State state, double snappedLatitude, double snappedLongitude, double alongMeters,
+                 double remainingMeters, double crossTrackMeters, double offRouteMeters, int nextWaypoint) {
+            this.state = state;
+            this.snappedLatitude = snappedLatitude;
+            this.snappedLongitude = snappedLongitude;
+            this.alongMeters = alongMeters;
+            this.remainingMeters = remainingMeters;
+            this.crossTrackMeters = crossTrackMeters;
+            this.offRouteMeters = offRouteMeters;
+            this.nextWaypoint = nextWaypoint;
+        }
+
+        public double fraction(double totalMeters) {
+            return totalMeters <= 0 ? 1 : Math.min(1, alongMeters / totalMeters);
+        }
+    }
+
+    private final int vertexCount;
+    // Local equirectangular projection in meters, and distance along the route at each vertex
+    private final double originLat, originLng, cosLat, scale;
+    private final double[] x, y, along;
+    private final double[] waypointAlong;
+
+    private int segment = 0;
+    private double matchedAlong = 0;
+    private double matchedX, matchedY;
+    private boolean hasFix = false;
+    private double lastFixX, lastFixY;
+    private double offRouteMeters = 0;
+    private boolean rerouteRequested = false;
+    private int nextWaypoint = 0;
+
+    private long fixes, segmentsExamined;
+
+    /**
+     * @param path      the drawn route
+     * @param waypoints the stops it was planned through, in order (flat lat/lng);
+     *                  used to tell which legs are still ahead
+     */
+    public RouteFollower(double[] path, double[] waypoints) {
+        if (path.length < 4) throw new IllegalArgumentException("Route needs at least two points");
+        vertexCount = path.length / 2;
+        originLat = path[0];
+        originLng = path[1];
+        cosLat = Math.cos(Math.toRadians(originLat));
+        scale = Math.toRadians(1) * GeoMath.EARTH_RADIUS_M;
+
+        x = new double[vertexCount];
+        y = new double[vertexCount];
+        along = new double[vertexCount];
+        for (int i = 0; i < vertexCount; i++) {
+            x[i] = toX(path[2 * i + 1]);
+            y[i] = toY(path[2 * i]);
+            if (i > 0) along[i] = along[i - 1] + Math.hypot(x[i] - x[i - 1], y[i] - y[i - 1]);
+        }
+        matchedX = x[0];
+        matchedY = y[0];
+
+        // Waypoints in order: each one's first close approach after the previous one
+        waypointAlong = new double[waypoints.length / 2];
+        int from = 0;
+        for (int w = 0; w < waypointAlong.length; w++) {
+            double px = toX(waypoints[2 * w + 1]), py = toY(waypoints[2 * w]);
+            double best = Double.MAX_VALUE;
+            int bestSegment = from;
+            double bestAlong = along[from];
+            for (int s = from; s < vertexCount - 1; s++) {
+                double t = projection(s, px, py);
+                double d = distanceTo(s, t, px, py);
+                if (d < best) {
+                    best = d;
+                    bestSegment = s;
+                    bestAlong = along[s] + t * (along[s + 1] - along[s]);
+                } else if (best < MAX_ON_ROUTE_M && d > best + WINDOW_AHEAD_M) {
+                    break; // moved well past a close match; later passes belong to later stops
+                }
+            }
+            waypointAlong[w] = bestAlong;
+            from = bestSegment;
+        }
+    }
+
+    public double totalMeters() {
+        return along[vertexCount - 1];
+    }
+
+    /** Average segments projected per fix (stays small: the amortized O(1) claim) */
+    public double segmentsPerFix() {
+        return fixes == 0 ? 0 : (double) segmentsExamined / fixes;
+    }
+
+    public Progress update(GeoFix fix) {
+        fixes++;
+        double px = toX(fix.longitude), py = toY(fix.latitude);
+        double moved = hasFix ? Math.hypot(px - lastFixX, py - lastFixY) : 0;
+        hasFix = true;
+        lastFixX = px;
+        lastFixY = py;
+
+        double tolerance = Math.min(MAX_ON_ROUTE_M, Math.max(ON_ROUTE_M, fix.hasAccuracy() ? fix.accuracy : 0));
+        // First fix: one full scan, since the truck may be anywhere along a route redrawn mid-shift
+        double crossTrack = match(px, py, fixes == 1 ? Double.MAX_VALUE : WINDOW_AHEAD_M, tolerance);
+        if (crossTrack > tolerance) {
+            // Not near the usual window: maybe the truck took a shortcut back onto the route
+            crossTrack = match(px, py, REJOIN_AHEAD_M, tolerance);
+        }
+
+        State state;
+        if (crossTrack <= tolerance) {
+            offRouteMeters = 0;
+            rerouteRequested = false;
+            state = State.ON_ROUTE;
+        } else {
+            offRouteMeters += moved;
+            if (offRouteMeters >= REROUTE_AFTER_M && !rerouteRequested) {
+                rerouteRequested = true;
+                state = State.REROUTE;
+            } else {
+                state = State.OFF_ROUTE;
+            }
+        }
+
+        // The match may step back a little (window behind), so the waypoint pointer can too
+        while (nextWaypoint < waypointAlong.length && waypointAlong[nextWaypoint] + WAYPOINT_PASSED_M < matchedAlong) {
+            nextWaypoint++;
+        }
+        while (nextWaypoint > 0 && waypointAlong[nextWaypoint - 1] + WAYPOINT_PASSED_M >= matchedAlong) {
+            nextWaypoint--;
+        }
+        return new Progress(state, toLat(matchedY), toLng(matchedX), matchedAlong,
+                totalMeters() - matchedAlong, crossTrack, offRouteMeters, nextWaypoint);
+    }
+
+    /**
+     * Project onto the segments from a little behind the current match to
+     * {@code ahead} meters past it; adopt the closest one if it is on the route.
+     * @return distance from the route
+     */
+    private double match(double px, double py, double ahead, double tolerance) {
+        int first = segment;
+        while (first > 0 && matchedAlong - along[first] < WINDOW_BEHIND_M) first--;
+
+        double best = Double.MAX_VALUE;
+        int bestSegment = segment;
+        double bestT = 0;
+        for (int s = first; s < vertexCount - 1 && along[s] <= matchedAlong + ahead; s++) {
+            segmentsExamined++;
+            double t = projection(s, px, py);
+            double d = distanceTo(s, t, px, py);
+            if (d < best) {
+                best = d;
+                bestSegment = s;
+                bestT = t;
+            }
+        }
+        if (best <= tolerance) {
+            segment = bestSegment;
+            matchedAlong = along[bestSegment] + bestT * (along[bestSegment + 1] - along[bestSegment]);
+            matchedX = x[bestSegment] + bestT * (x[bestSegment + 1] - x[bestSegment]);
+            matchedY = y[bestSegment] + bestT * (y[bestSegment + 1] - y[bestSegment]);
+        }
+        return best;
+    }
+
+    private double projection(int s, double px, double py) {
+        double dx = x[s + 1] - x[s], dy = y[s + 1] - y[s];
+        double lengthSq = dx * dx + dy * dy;
+        if (lengthSq == 0) return 0;
+        double t = ((px - x[s]) * dx + (py - y[s]) * dy) / lengthSq;
+        return t < 0 ? 0 : (t > 1 ? 1 : t);
+    }
+
+    private double distanceTo(int s, double t, double px, double py) {
+        return Math.hypot(px - (x[s] + t * (x[s + 1] - x[s])), py - (y[s] + t * (y[s + 1] - y[s])));
+    }
+
+    private double toX(double lng) { return (lng - originLng) * cosLat * scale; }
+    private double toY(double lat) { return (lat - originLat) * scale; }
+    private double toLng(double px) { return originLng + px / (cosLat * scale); }
+    private double toLat(double py) { return originLat + py / scale; }
+}
@@ -0,0 +1,280 @@
+package com.example.g_trackapp;
+
+import android.util.Log;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * 🛣️ RouteLegPlanner
+ * Draws an already-ordered stop list of any length with the Directions API.
+ * The stops are split into chunks that fit one request (origin + destination
+ * + {@link #MAX_WAYPOINTS}); consecutive chunks share their boundary stop so
+ * the legs tile the whole route. Chunks are fetched concurrently on the given
+ * (bounded) executor and stitched back into one path. A failed chunk is
+ * retried on its own — the other chunks' results are kept.
+ *
+ * {@link #plan} blocks; call it off the main thread.
+ */
+public class RouteLegPlanner {
+
+    private static final String TAG = "RouteLegPlanner";
+
+    public static final String DIRECTIONS_URL = "https://maps.googleapis.com/maps/api/directions/json";
+    /** Intermediate waypoints the Directions API accepts per request */
+    static final int MAX_WAYPOINTS = 25;
+    static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_BACKOFF_MS = 500;
+
+    /** One stitched route: flat {lat0, lng0, lat1, lng1, …} path plus totals */
+    public static final class PlannedRoute {
+        public final double[] path;
+        /** {south, west, north, east}, or null for an empty route */
+        public final double[] bounds;
+        public final long distanceMeters;
+        public final long durationSeconds;
+        public final int chunks;
+        /** Directions response bytes this route was built from (cache savings accounting) */
+        public final long responseBytes;
+
+        PlannedRoute(double[] path, double[] bounds, long distanceMeters, long durationSeconds,
+                     int chunks, long responseBytes) {
+            this.path = path;
+            this.bounds = bounds;
+            this.distanceMeters = distanceMeters;
+            this.durationSeconds = durationSeconds;
+            this.chunks = chunks;
+            this.responseBytes = responseBytes;
+        }
+
+        public int pointCount() {
+            return path.length / 2;
+        }
+    }
+
+    /** A non-OK Directions status or HTTP error */
+    public static class DirectionsException extends IOException {
+        private static final long serialVersionUID = 1L;
+        public final String status;
+        public final boolean retryable;
+
+        DirectionsException(String status, boolean retryable) {
+            super("Directions status " + status);
+            this.status = status;
+            this.retryable = retryable;
+        }
+    }
+
+    private static final class ChunkResult {
+        final DirectionsParser.Result parsed;
+        final long responseBytes;
+
+        ChunkResult(DirectionsParser.Result parsed, long responseBytes) {
+            this.parsed = parsed;
+            this.responseBytes = responseBytes;
+        }
+    }
+
+    /** Counts bytes as the parser pulls them off the (already gunzipped) body */
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) count += n;
+            return n;
+        }
+    }
+
+    private final OkHttpClient client;
+    private final HttpUrl baseUrl;
+    private final String apiKey;
+    private final ExecutorService executor;
+
+    public RouteLegPlanner(OkHttpClient client, String baseUrl, String apiKey, ExecutorService executor) {
+        this.client = client;
+        this.baseUrl = HttpUrl.get(baseUrl);
+        this.apiKey = apiKey;
+        this.executor = executor;
+    }
+
+    /**
+     * Index ranges [first, last] (inclusive) of each request. Each chunk holds at
+     * most {@code maxPoints} stops and starts on the previous chunk's last stop.
+     */
+    static List<int[]> chunk(int stopCount, int maxPoints) {
+        List<int[]> chunks = new ArrayList<>();
+        if (stopCount < 2) return chunks;
+        int first = 0;
+        while (first < stopCount - 1) {
+            int last = Math.min(stopCount - 1, first + maxPoints - 1);
+            chunks.add(new int[]{first, last});
+            first = last;
+        }
+        return chunks;
+    }
+
+    /** Fetch and stitch the driving route through every stop, in the given order */
+    public PlannedRoute plan(double[] latitudes, double[] longitudes) throws IOException {
+        List<int[]> chunks = chunk(latitudes.length, MAX_WAYPOINTS + 2);
+        if (chunks.isEmpty()) return new PlannedRoute(new double[0], null, 0, 0, 0, 0);
+
+        List<Future<ChunkResult>> futures = new ArrayList<>(chunks.size());
+        for (int[] range : chunks) {
+            futures.add(executor.submit(() -> fetchWithRetry(latitudes, longitudes, range[0], range[1])));
+        }
+
+        List<ChunkResult> results = new ArrayList<>(chunks.size());
+        try {
+            for (Future<ChunkResult> future : futures) results.add(future.get());
+        } catch (InterruptedException e) {
+            for (Future<ChunkResult> future : futures) future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IOException("Route planning interrupted", e);
+        } catch (ExecutionException e) {
+            for (Future<ChunkResult> future : futures) future.cancel(true);
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new IOException(cause);
+        }
+
+        return stitch(results);
+    }
+
+    private ChunkResult fetchWithRetry(double[] lat, double[] lng, int first, int last) throws IOException {
+        IOException failure = null;
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            try {
+                return fetch(lat, lng, first, last);
+            } catch (DirectionsException e) {
+                if (!e.retryable) throw e;
+                failure = e;
+            } catch (IOException e) {
+                failure = e;
+            }
+            Log.w(TAG, "Chunk " + first + "–" + last + " attempt " + attempt + " failed: " + failure.getMessage());
+            if (attempt < MAX_ATTEMPTS) {
+                try {
+                    Thread.sleep(RETRY_BACKOFF_MS * attempt);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Route planning interrupted", e);
+                }
+            }
+        }
+        throw failure;
+    }
+
+    private ChunkResult fetch(double[] lat, double[] lng, int first, int last) throws IOException {
+        HttpUrl.Builder url = baseUrl.newBuilder()
+                .addQueryParameter("origin", lat[first] + "," + lng[first])
+                .addQueryParameter("destination", lat[last] + "," + lng[last])
+                .addQueryParameter("mode", "driving")
+                .addQueryParameter("key", apiKey);
+        if (last - first > 1) {
+            StringBuilder waypoints = new StringBuilder();
+            for (int i = first + 1; i < last; i++) {
+                if (waypoints.length() > 0) waypoints.append('|');
+                waypoints.append(lat[i]).append(',').append(lng[i]);
+            }
+            url.addQueryParameter("waypoints", waypoints.toString());
+        }
+
+        Request request = new Request.Builder().url(url.build()).build();
+        try (Response response = client.newCall(request).execute()) {
+            if (!response.isSuccessful() || response.body() == null) {
+                int code = response.code();
+                throw new DirectionsException("HTTP_" + code, code >= 500 || code == 429);
+            }
+            // Parse straight off the stream: no response String, no JSON tree
+            CountingInputStream counted = new CountingInputStream(response.body().byteStream());
+            DirectionsParser.Result parsed = DirectionsParser.parse(
+                    new InputStreamReader(counted, StandardCharsets.UTF_8));
+            if (!parsed.isOk()) {
+                throw new DirectionsException(parsed.status,
+                        "OVER_QUERY_LIMIT".equals(parsed.status) || "UNKNOWN_ERROR".equals(parsed.status));
+            }
+            if (parsed.path.length == 0) throw new DirectionsException("ZERO_RESULTS", false);
+            return new ChunkResult(parsed, counted.count);
+        }
+    }
+
+    /** Concatenate chunk paths, dropping the repeated boundary point between chunks */
+    private static PlannedRoute stitch(List<ChunkResult> results) {
+        int total = 0;
+        for (ChunkResult r : results) total += r.parsed.path.length;
+
+        double[] path = new double[total];
+        int count = 0;
+        long distance = 0, duration = 0, bytes = 0;
+        double[] bounds = null;
+        boolean allBounds = true;
+        for (ChunkResult r : results) {
+            double[] chunk = r.parsed.path;
+            int from = 0;
+            if (count >= 2 && chunk.length >= 2
+                    && path[count - 2] == chunk[0] && path[count - 1] == chunk[1]) {
+                from = 2;
+            }
+            System.arraycopy(chunk, from, path, count, chunk.length - from);
+            count += chunk.length - from;
+            distance += r.parsed.distanceMeters;
+            duration += r.parsed.durationSeconds;
+            bytes += r.responseBytes;
+
+            double[] b = r.parsed.bounds;
+            if (b == null) {
+                allBounds = false;
+            } else if (bounds == null) {
+                bounds = b.clone();
+            } else {
+                bounds[0] = Math.min(bounds[0], b[0]);
+                bounds[1] = Math.min(bounds[1], b[1]);
+                bounds[2] = Math.max(bounds[2], b[2]);
+                bounds[3] = Math.max(bounds[3], b[3]);
+            }
+        }
+        path = Arrays.copyOf(path, count);
+        if (!allBounds) bounds = boundsOf(path);
+        return new PlannedRoute(path, bounds, distance, duration, results.size(), bytes);
+    }
+
+    /** {south, west, north, east} of a flat path, or null when empty */
+    static double[] boundsOf(double[] path) {
+        if (path.length < 2) return null;
+        double[] b = {path[0], path[1], path[0], path[1]};
+        for (int i = 2; i < path.length; i += 2) {
+            b[0] = Math.min(b[0], path[i]);
+            b[1] = Math.min(b[1], path[i + 1]);
+            b[2] = Math.max(b[2], path[i]);
+            b[3] = Math.max(b[3], path[i + 1]);
+        }
+        return b;
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.g_trackapp;
+
+/**
+ * 🧭 RouteOptimizer
+ * Orders a collection route's stops on the device: nearest-neighbor
+ * construction, then 2-opt and Or-opt (segments of 1–3 stops, either
+ * direction) until no move improves the route or the time budget runs out.
+ * Routes are open paths that start at a fixed stop and end wherever is cheapest.
+ *
+ * Distances come from a flat row-major {@code n × n} matrix, so a cached
+ * road-distance matrix can replace the haversine one without other changes.
+ */
+public final class RouteOptimizer {
+
+    /** Longest segment Or-opt tries to relocate */
+    private static final int OR_OPT_MAX_SEGMENT = 3;
+    /** Ignore "improvements" below this many meters (float rounding) */
+    private static final float EPSILON = 1e-3f;
+
+    private final long timeBudgetNanos;
+
+    private int twoOptMoves;
+    private int orOptMoves;
+
+    public RouteOptimizer(long timeBudgetMillis) {
+        this.timeBudgetNanos = timeBudgetMillis * 1_000_000L;
+    }
+
+    /** Visit order (indices into the arrays) of every stop, starting at {@code start} */
+    public int[] order(double[] latitudes, double[] longitudes, int start) {
+        return order(haversineMatrix(latitudes, longitudes), latitudes.length, start);
+    }
+
+    /** Visit order for a row-major {@code n × n} distance matrix in meters */
+    public int[] order(float[] matrix, int n, int start) {
+        twoOptMoves = 0;
+        orOptMoves = 0;
+        if (n == 0) return new int[0];
+        if (start < 0 || start >= n) throw new IllegalArgumentException("start " + start + " of " + n);
+
+        long deadline = System.nanoTime() + timeBudgetNanos;
+        int[] tour = nearestNeighbor(matrix, n, start);
+        if (n < 4) return tour;
+
+        boolean improved = true;
+        while (improved && System.nanoTime() < deadline) {
+            improved = twoOpt(matrix, n, tour, deadline);
+            improved |= orOpt(matrix, n, tour, deadline);
+        }
+        return tour;
+    }
+
+    public int getTwoOptMoves() {
+        return twoOptMoves;
+    }
+
+    public int getOrOptMoves() {
+        return orOptMoves;
+    }
+
+    /** Total length of an open path through {@code order} */
+    public static double pathLength(float[] matrix, int n, int[] order) {
+        double total = 0;
+        for (int i = 1; i < order.length; i++) total += matrix[order[i - 1] * n + order[i]];
+        return total;
+    }
+
+    public static float[] haversineMatrix(double[] latitudes, double[] longitudes) {
+        int n = latitudes.length;
+        float[] matrix = new float[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                float d = (float) GeoMath.distanceMeters(latitudes[i], longitudes[i], latitudes[j], longitudes[j]);
+                matrix[i * n + j] = d;
+                matrix[j * n + i] = d;
+            }
+        }
+        return matrix;
+    }
+
+    // 🔹 Construction: always drive to the closest unvisited stop
+    private static int[] nearestNeighbor(float[] m, int n, int start) {
+        int[] tour = new int[n];
+        boolean[] visited = new boolean[n];
+        tour[0] = start;
+        visited[start] = true;
+        for (int i = 1; i < n; i++) {
+            int from = tour[i - 1];
+            int best = -1;
+            float bestDistance = Float.MAX_VALUE;
+            for (int j = 0; j < n; j++) {
+                if (!visited[j] && m[from * n + j] < bestDistance) {
+                    bestDistance = m[from * n + j];
+                    best = j;
+                }
+            }
+            tour[i] = best;
+            visited[best] = true;
+        }
+        return tour;
+    }
+
+    // 🔹 2-opt: reverse tour[i+1..j] when swapping two edges shortens the path
+    private boolean twoOpt(float[] m, int n, int[] t, long deadline) {
+        boolean any = false;
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int i = 0; i < n - 2; i++) {
+                if (System.nanoTime() > deadline) return any;
+                int a = t[i], b = t[i + 1];
+                float ab = m[a * n + b];
+                for (int j = i + 2; j < n; j++) {
+                    int c = t[j];
+                    float delta;
+                    if (j == n - 1) {
+                        // Open end: the reversed tail simply ends at b
+                        delta = m[a * n + c] - ab;
+                    } else {
+                        int d = t[j + 1];
+                        delta = m[a * n + c] + m[b * n + d] - ab - m[c * n + d];
+                    }
+                    if (delta < -EPSILON) {
+                        reverse(t, i + 1, j);
+                        twoOptMoves++;
+                        improved = true;
+                        any = true;
+                        b = t[i + 1];
+                        ab = m[a * n + b];
+                    }
+                }
+            }
+        }
+        return any;
+    }
+
+    // 🔹 Or-opt: move a short run of stops (possibly reversed) to a cheaper gap
+    private boolean orOpt(float[] m, int n, int[] t, long deadline) {
+        boolean any = false;
+        int[] scratch = new int[n];
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int len = 1; len <= OR_OPT_MAX_SEGMENT && !improved; len++) {
+                for (int i = 1; i + len <= n && !improved; i++) {
+                    if (System.nanoTime() > deadline) return any;
+                    int last = i + len - 1;
+                    int prev = t[i - 1], s0 = t[i], s1 = t[last];
+                    boolean hasNext = last + 1 < n;
+                    int next = hasNext ? t[last + 1] : -1;
+
+                    float removeGain = m[prev * n + s0]
+                            + (hasNext ? m[s1 * n + next] - m[prev * n + next] : 0);
+
+                    // Try every gap (k, k+1) outside the segment; k+1 == n is the open end
+                    for (int k = 0; k < n; k++) {
+                        if (k >= i - 1 && k <= last) continue;
+                        int p = t[k];
+                        boolean gapHasNext = k + 1 < n;
+                        int q = gapHasNext ? t[k + 1] : -1;
+                        float pq = gapHasNext ? m[p * n + q] : 0;
+
+                        float forward = m[p * n + s0] + (gapHasNext ? m[s1 * n + q] : 0) - pq;
+                        float reversed = m[p * n + s1] + (gapHasNext ? m[s0 * n + q] : 0) - pq;
+                        boolean reverse = reversed < forward;
+                        float insertCost = reverse ? reversed : forward;
+
+                        if (insertCost < removeGain - EPSILON) {
+                            move(t, scratch, i, last, k, reverse);
+                            orOptMoves++;
+                            improved = true;
+                            any = true;
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        return any;
+    }
+
+    /** Relocate t[i..last] to sit right after the stop currently at index k */
+    private static void move(int[] t, int[] scratch, int i, int last, int k, boolean reverse) {
+        int n = t.length;
+        int len = last - i + 1;
+        int w = 0;
+        for (int x = 0; x < n; x++) {
+            if (x >= i && x <= last) continue;
+            scratch[w++] = t[x];
+            if (x == k) {
+                for (int s = 0; s < len; s++) {
+                    scratch[w++] = reverse ? t[last - s] : t[i + s];
+                }
+            }
+        }
+        System.arraycopy(scratch, 0, t, 0, n);
+    }
+
+    private static void reverse(int[] t, int from, int to) {
+        while (from < to) {
+            int tmp = t[from];
+            t[from++] = t[to];
+            t[to--] = tmp;
+        }
+    }
+}
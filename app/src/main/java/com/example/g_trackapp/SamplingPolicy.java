@@ -0,0 +1,113 @@
+package com.example.g_trackapp;
+
+import java.util.ArrayDeque;
+
+/**
+ * 🚦 SamplingPolicy
+ * Classifies the collector truck as parked, crawling door-to-door or driving
+ * from recent speed and dwell, so the location request can be re-issued with
+ * settings that fit. Parked trucks get sparse, low-power fixes; collecting
+ * trucks keep full resolution.
+ */
+public class SamplingPolicy {
+
+    public enum State {
+        PARKED(60000, 25f),
+        CRAWLING(5000, 5f),
+        DRIVING(10000, 30f);
+
+        public final long intervalMillis;
+        public final float minDistanceMeters;
+
+        State(long intervalMillis, float minDistanceMeters) {
+            this.intervalMillis = intervalMillis;
+            this.minDistanceMeters = minDistanceMeters;
+        }
+    }
+
+    // 🔹 Tuning thresholds
+    static final long SPEED_WINDOW_MS = 60000;      // average speed over the last minute
+    static final double PARK_RADIUS_M = 30;         // staying inside this radius counts as dwelling
+    static final long PARK_DWELL_MS = 3 * 60000;    // dwell needed before we call it parked
+    static final double PARK_MAX_SPEED = 0.5;       // m/s
+    static final double DRIVE_MIN_SPEED = 4.5;      // m/s (~16 km/h)
+    static final int CONFIRM_FIXES = 2;             // crawl ⇄ drive needs this many agreeing fixes
+
+    private final ArrayDeque<GeoFix> window = new ArrayDeque<>();
+    private final ArrayDeque<Double> windowSpeeds = new ArrayDeque<>();
+    private double speedSum = 0;
+
+    private GeoFix anchor;
+    private GeoFix previous;
+
+    private State state = State.CRAWLING;
+    private State candidate = State.CRAWLING;
+    private int candidateCount = 0;
+
+    public State getState() { return state; }
+
+    /**
+     * Feed a fix into the policy.
+     * @return the new state if this fix caused a transition, otherwise null
+     */
+    public State observe(GeoFix fix) {
+        double speed = instantSpeed(fix);
+        previous = fix;
+
+        window.addLast(fix);
+        windowSpeeds.addLast(speed);
+        speedSum += speed;
+        while (fix.timeMillis - window.peekFirst().timeMillis > SPEED_WINDOW_MS) {
+            window.removeFirst();
+            speedSum -= windowSpeeds.removeFirst();
+        }
+        double avgSpeed = speedSum / window.size();
+
+        if (anchor == null || GeoMath.distanceMeters(anchor, fix) > PARK_RADIUS_M) {
+            anchor = fix;
+        }
+        long dwell = fix.timeMillis - anchor.timeMillis;
+
+        State next;
+        if (dwell >= PARK_DWELL_MS && avgSpeed < PARK_MAX_SPEED) {
+            next = State.PARKED;
+        } else if (avgSpeed >= DRIVE_MIN_SPEED) {
+            next = State.DRIVING;
+        } else {
+            next = State.CRAWLING;
+        }
+
+        if (next == state) {
+            candidateCount = 0;
+            return null;
+        }
+
+        // Leaving PARKED is immediate so collection starts at full resolution
+        if (state == State.PARKED || next == State.PARKED) {
+            return transition(next);
+        }
+
+        if (next == candidate) {
+            candidateCount++;
+        } else {
+            candidate = next;
+            candidateCount = 1;
+        }
+        return candidateCount >= CONFIRM_FIXES ? transition(next) : null;
+    }
+
+    private State transition(State next) {
+        state = next;
+        candidate = next;
+        candidateCount = 0;
+        return next;
+    }
+
+    private double instantSpeed(GeoFix fix) {
+        if (fix.hasSpeed()) return fix.speed;
+        if (previous == null) return 0;
+        long dt = fix.timeMillis - previous.timeMillis;
+        if (dt <= 0) return 0;
+        return GeoMath.distanceMeters(previous, fix) * 1000.0 / dt;
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.g_trackapp;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 🚛 StopPlanner
+ * Keeps a collector's tour of open garbage reports up to date as reports
+ * stream in. A new report is inserted at its cheapest position in the current
+ * tour instead of re-solving; a resolved one is spliced out. Severity adds a
+ * deadline (Extreme within 15 min of driving, High within 45 min) and a soft
+ * pull towards the front of the tour, weighted by severity.
+ * Travel time is estimated from straight-line distance at {@link #ASSUMED_SPEED_MPS}.
+ */
+public class StopPlanner {
+
+    /** Average truck speed including short stops (~15 km/h) */
+    static final double ASSUMED_SPEED_MPS = 4.0;
+    /** Meters of detour accepted per meter a stop is reached earlier, per unit of weight */
+    static final double URGENCY_PER_WEIGHT = 0.05;
+
+    public enum Priority {
+        LOW(1, 0),
+        MEDIUM(2, 0),
+        HIGH(3, 45),
+        EXTREME(4, 15);
+
+        public final int weight;
+        /** Latest arrival after the shift start, in minutes (0 = no bound) */
+        public final int deadlineMinutes;
+
+        Priority(int weight, int deadlineMinutes) {
+            this.weight = weight;
+            this.deadlineMinutes = deadlineMinutes;
+        }
+
+        double deadlineMeters() {
+            return deadlineMinutes == 0 ? Double.POSITIVE_INFINITY : deadlineMinutes * 60 * ASSUMED_SPEED_MPS;
+        }
+
+        /** "Low" / "Medium" / "High" / "Extreme" as written by CollectorLevelsOfGarbageActivity */
+        public static Priority fromLevel(String level) {
+            if (level == null) return LOW;
+            switch (level) {
+                case "Extreme": return EXTREME;
+                case "High": return HIGH;
+                case "Medium": return MEDIUM;
+                default: return LOW;
+            }
+        }
+    }
+
+    public static final class Stop {
+        public final String id;
+        public final double latitude;
+        public final double longitude;
+        public final Priority priority;
+        public final String label;
+
+        public Stop(String id, double latitude, double longitude, Priority priority, String label) {
+            this.id = id;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.priority = priority;
+            this.label = label;
+        }
+    }
+
+    private final double startLatitude, startLongitude;
+    private final List<Stop> tour = new ArrayList<>();
+    private final Map<String, Stop> byId = new HashMap<>();
+
+    /** arrival[i]: meters driven from the start to tour[i] */
+    private double[] arrival = new double[16];
+
+    private int insertions, lateInsertions;
+
+    public StopPlanner(double startLatitude, double startLongitude) {
+        this.startLatitude = startLatitude;
+        this.startLongitude = startLongitude;
+    }
+
+    /** Row-major {@code n × n} distances in meters between the given points */
+    public interface Distances {
+        float[] matrix(double[] latitudes, double[] longitudes);
+    }
+
+    public void insertAll(Collection<Stop> stops, RouteOptimizer optimizer) {
+        insertAll(stops, optimizer, RouteOptimizer::haversineMatrix);
+    }
+
+    /**
+     * Seed an empty planner with many stops. Without deadlines the whole set is
+     * ordered by {@link RouteOptimizer} over {@code distances} (e.g. road
+     * distances from {@link OfflineRouter}); otherwise stops go in by cheapest
+     * insertion, most severe first, so they claim the early slots.
+     */
+    public synchronized void insertAll(Collection<Stop> stops, RouteOptimizer optimizer, Distances distances) {
+        boolean anyDeadline = false;
+        for (Stop s : stops) anyDeadline |= s.priority.deadlineMinutes > 0;
+
+        if (tour.isEmpty() && !anyDeadline && optimizer != null && stops.size() > 2) {
+            List<Stop> list = new ArrayList<>(stops);
+            double[] lat = new double[list.size() + 1];
+            double[] lng = new double[list.size() + 1];
+            lat[0] = startLatitude;
+            lng[0] = startLongitude;
+            for (int i = 0; i < list.size(); i++) {
+                lat[i + 1] = list.get(i).latitude;
+                lng[i + 1] = list.get(i).longitude;
+            }
+            int[] order = optimizer.order(distances.matrix(lat, lng), lat.length, 0);
+            for (int i = 1; i < order.length; i++) {
+                Stop s = list.get(order[i] - 1);
+                tour.add(s);
+                byId.put(s.id, s);
+            }
+            recomputeArrivals();
+            return;
+        }
+
+        List<Stop> sorted = new ArrayList<>(stops);
+        sorted.sort((a, b) -> b.priority.weight - a.priority.weight);
+        for (Stop s : sorted) insert(s);
+    }
+
+    /** Insert (or move, if the id is already planned) one stop; returns its tour index */
+    public synchronized int insert(Stop stop) {
+        if (byId.containsKey(stop.id)) remove(stop.id);
+
+        int n = tour.size();
+        double deadline = stop.priority.deadlineMeters();
+        double urgency = URGENCY_PER_WEIGHT * stop.priority.weight;
+
+        // suffixSlack[k]: how much later every stop from k on may be reached
+        double[] suffixSlack = new double[n + 1];
+        suffixSlack[n] = Double.POSITIVE_INFINITY;
+        for (int k = n - 1; k >= 0; k--) {
+            double slack = tour.get(k).priority.deadlineMeters() - arrival[k];
+            suffixSlack[k] = Math.min(slack, suffixSlack[k + 1]);
+        }
+
+        int best = -1, fallback = 0;
+        double bestCost = Double.POSITIVE_INFINITY, fallbackCost = Double.POSITIVE_INFINITY;
+        // Position p: between prev (start when p == 0) and tour[p] (open end when p == n)
+        for (int p = 0; p <= n; p++) {
+            double prevLat = p == 0 ? startLatitude : tour.get(p - 1).latitude;
+            double prevLng = p == 0 ? startLongitude : tour.get(p - 1).longitude;
+            double prevArrival = p == 0 ? 0 : arrival[p - 1];
+
+            double toNew = GeoMath.distanceMeters(prevLat, prevLng, stop.latitude, stop.longitude);
+            double detour = toNew;
+            if (p < n) {
+                Stop next = tour.get(p);
+                detour += GeoMath.distanceMeters(stop.latitude, stop.longitude, next.latitude, next.longitude)
+                        - GeoMath.distanceMeters(prevLat, prevLng, next.latitude, next.longitude);
+            }
+            double arriveNew = prevArrival + toNew;
+            double cost = detour + urgency * arriveNew;
+
+            boolean feasible = arriveNew <= deadline && detour <= suffixSlack[p];
+            if (feasible && cost < bestCost) {
+                bestCost = cost;
+                best = p;
+            }
+            // Nothing feasible: prefer keeping the existing promises, then cost
+            double lateness = Math.max(0, detour - suffixSlack[p]) + Math.max(0, arriveNew - deadline);
+            double fallbackScore = lateness * 1e3 + cost;
+            if (fallbackScore < fallbackCost) {
+                fallbackCost = fallbackScore;
+                fallback = p;
+            }
+        }
+
+        if (best < 0) {
+            best = fallback;
+            lateInsertions++;
+        }
+        tour.add(best, stop);
+        byId.put(stop.id, stop);
+        insertions++;
+        recomputeArrivals();
+        return best;
+    }
+
+    /** Splice a stop out (report resolved); its neighbors are joined directly */
+    public synchronized boolean remove(String id) {
+        Stop stop = byId.remove(id);
+        if (stop == null) return false;
+        tour.remove(stop);
+        recomputeArrivals();
+        return true;
+    }
+
+    public synchronized boolean contains(String id) {
+        return byId.containsKey(id);
+    }
+
+    /** Tour in visiting order (copy) */
+    public synchronized List<Stop> stops() {
+        return Collections.unmodifiableList(new ArrayList<>(tour));
+    }
+
+    public synchronized int size() {
+        return tour.size();
+    }
+
+    /** Driving distance estimate from the start through every stop */
+    public synchronized double lengthMeters() {
+        return tour.isEmpty() ? 0 : arrival[tour.size() - 1];
+    }
+
+    /** Stops reached after their deadline in the current tour */
+    public synchronized int lateStops() {
+        int late = 0;
+        for (int i = 0; i < tour.size(); i++) {
+            if (arrival[i] > tour.get(i).priority.deadlineMeters()) late++;
+        }
+        return late;
+    }
+
+    public double getStartLatitude() { return startLatitude; }
+    public double getStartLongitude() { return startLongitude; }
+
+    public synchronized int getInsertions() { return insertions; }
+    public synchronized int getLateInsertions() { return lateInsertions; }
+
+    private void recomputeArrivals() {
+        int n = tour.size();
+        if (arrival.length < n) arrival = new double[Math.max(n, arrival.length * 2)];
+        double lat = startLatitude, lng = startLongitude, total = 0;
+        for (int i = 0; i < n; i++) {
+            Stop s = tour.get(i);
+            total += GeoMath.distanceMeters(lat, lng, s.latitude, s.longitude);
+            arrival[i] = total;
+            lat = s.latitude;
+            lng = s.longitude;
+        }
+    }
+}
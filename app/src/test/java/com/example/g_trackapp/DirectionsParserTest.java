@@ -0,0 +1,69 @@
+package com.example.g_trackapp;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DirectionsParserTest {
+
+    // Trimmed real-shaped response: extra fields and an alternative route must be skipped
+    private static final String OK_RESPONSE = "{"
+            + "\"geocoded_waypoints\":[{\"geocoder_status\":\"OK\",\"place_id\":\"abc\",\"types\":[\"street_address\"]}],"
+            + "\"routes\":[{"
+            + "  \"bounds\":{\"northeast\":{\"lat\":14.6095,\"lng\":120.9942},\"southwest\":{\"lat\":14.5995,\"lng\":120.9842}},"
+            + "  \"copyrights\":\"Map data ©2025\","
+            + "  \"legs\":["
+            + "    {\"distance\":{\"text\":\"1.2 km\",\"value\":1234},\"duration\":{\"text\":\"4 mins\",\"value\":240},"
+            + "     \"steps\":[{\"polyline\":{\"points\":\"ignored\"},\"html_instructions\":\"Head <b>north</b>\"}],"
+            + "     \"via_waypoint\":[]},"
+            + "    {\"distance\":{\"text\":\"0.8 km\",\"value\":766},\"duration\":{\"text\":\"2 mins\",\"value\":120},"
+            + "     \"steps\":[]}"
+            + "  ],"
+            + "  \"overview_polyline\":{\"points\":\"_p~iF~ps|U_ulLnnqC_mqNvxq`@\"},"
+            + "  \"summary\":\"Rizal Ave\",\"warnings\":[],\"waypoint_order\":[0]"
+            + "},{"
+            + "  \"legs\":[{\"distance\":{\"value\":99999},\"duration\":{\"value\":9999}}],"
+            + "  \"overview_polyline\":{\"points\":\"??\"}"
+            + "}],"
+            + "\"status\":\"OK\"}";
+
+    @Test
+    public void parse_readsFirstRouteInOnePass() throws Exception {
+        DirectionsParser.Result r = DirectionsParser.parse(new StringReader(OK_RESPONSE));
+
+        assertTrue(r.isOk());
+        assertEquals(2, r.legCount);
+        assertEquals(2000, r.distanceMeters);
+        assertEquals(360, r.durationSeconds);
+        assertArrayEquals(new double[]{14.5995, 120.9842, 14.6095, 120.9942}, r.bounds, 1e-9);
+
+        // Google's documented example polyline
+        assertArrayEquals(new double[]{38.5, -120.2, 40.7, -120.95, 43.252, -126.453}, r.path, 1e-9);
+    }
+
+    @Test
+    public void parse_reportsErrorStatus() throws Exception {
+        DirectionsParser.Result r = DirectionsParser.parse(new StringReader(
+                "{\"error_message\":\"The provided API key is invalid.\",\"routes\":[],\"status\":\"REQUEST_DENIED\"}"));
+
+        assertFalse(r.isOk());
+        assertEquals("REQUEST_DENIED", r.status);
+        assertEquals("The provided API key is invalid.", r.errorMessage);
+        assertEquals(0, r.path.length);
+        assertNull(r.bounds);
+    }
+
+    @Test
+    public void decode_roundTripsEncode() {
+        double[] decoded = PolylineCodec.decode("_p~iF~ps|U_ulLnnqC_mqNvxq`@");
+        List<GeoFix> fixes = new ArrayList<>();
+        for (int i = 0; i < decoded.length; i += 2) {
+            fixes.add(new GeoFix(decoded[i], decoded[i + 1], Float.NaN, Float.NaN, Float.NaN, 0));
+        }
+        assertEquals("_p~iF~ps|U_ulLnnqC_mqNvxq`@", PolylineCodec.encode(fixes));
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.g_trackapp;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Replays synthetic traces through {@link FixFilter} on the JVM.
+ */
+public class FixFilterTest {
+
+    private static final double BASE_LAT = 14.6650;
+    private static final double BASE_LON = 120.9560;
+    private static final double METERS_PER_DEG_LAT = 111320.0;
+
+    private static GeoFix fix(double northMeters, double eastMeters, float accuracy, long timeMillis) {
+        double lat = BASE_LAT + northMeters / METERS_PER_DEG_LAT;
+        double lon = BASE_LON + eastMeters / (METERS_PER_DEG_LAT * Math.cos(Math.toRadians(BASE_LAT)));
+        return new GeoFix(lat, lon, accuracy, Float.NaN, Float.NaN, timeMillis);
+    }
+
+    @Test
+    public void stationaryJitter_isSuppressed() {
+        FixFilter filter = new FixFilter();
+        Random random = new Random(42);
+        int published = 0;
+
+        // Ten minutes parked, fixes every 5 s jumping 5–30 m around the truck
+        for (int i = 0; i < 120; i++) {
+            double angle = random.nextDouble() * 2 * Math.PI;
+            double radius = 5 + random.nextDouble() * 25;
+            GeoFix smoothed = filter.filter(fix(radius * Math.sin(angle), radius * Math.cos(angle), 20f, i * 5000L));
+            if (smoothed != null && filter.shouldPublish(smoothed)) published++;
+        }
+
+        // 120 raw fixes would have been 120 writes; allow at most one in twenty through
+        assertTrue("published " + published, published <= 6);
+    }
+
+    @Test
+    public void impossibleJump_isRejected() {
+        FixFilter filter = new FixFilter();
+        assertNotNull(filter.filter(fix(0, 0, 5f, 0)));
+        assertNotNull(filter.filter(fix(20, 0, 5f, 5000)));
+
+        // 2 km in 5 s
+        assertNull(filter.filter(fix(2000, 0, 5f, 10000)));
+        assertEquals(1, filter.getRejected());
+
+        GeoFix next = filter.filter(fix(40, 0, 5f, 15000));
+        assertNotNull(next);
+        assertTrue((next.latitude - BASE_LAT) * METERS_PER_DEG_LAT < 100);
+    }
+
+    @Test
+    public void sustainedJump_reseedsAfterGap() {
+        FixFilter filter = new FixFilter();
+        filter.filter(fix(0, 0, 5f, 0));
+
+        // Truck came out of a dead zone far away: repeated agreeing fixes win
+        GeoFix last = null;
+        for (int i = 1; i <= FixFilter.RESEED_AFTER_REJECTS; i++) {
+            last = filter.filter(fix(3000, 0, 5f, i * 1000L));
+        }
+        assertNotNull(last);
+        assertEquals(3000, (last.latitude - BASE_LAT) * METERS_PER_DEG_LAT, 1);
+    }
+
+    @Test
+    public void steadyDriving_isPublished() {
+        FixFilter filter = new FixFilter();
+        int published = 0;
+
+        // 8 m/s east for two minutes
+        for (int i = 0; i < 24; i++) {
+            GeoFix smoothed = filter.filter(fix(0, i * 40, 8f, i * 5000L));
+            if (smoothed != null && filter.shouldPublish(smoothed)) published++;
+        }
+
+        assertEquals(0, filter.getRejected());
+        assertTrue("published " + published, published >= 20);
+    }
+}
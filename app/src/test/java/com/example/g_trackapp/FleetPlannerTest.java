@@ -0,0 +1,98 @@
+package com.example.g_trackapp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class FleetPlannerTest {
+
+    private static final double LAT = 14.6625;
+    private static final double LON = 120.9567;
+
+    @Test
+    public void loadForLevel_scalesWithSeverity() {
+        assertEquals(8, FleetPlanner.loadForLevel("Extreme"));
+        assertEquals(4, FleetPlanner.loadForLevel("High"));
+        assertEquals(2, FleetPlanner.loadForLevel("Medium"));
+        assertEquals(1, FleetPlanner.loadForLevel("Low"));
+        assertEquals(FleetPlanner.HOUSEHOLD_LOAD, FleetPlanner.loadForLevel(null));
+    }
+
+    @Test
+    public void twoNeighborhoods_goToTheirNearestTrucks() {
+        List<FleetPlanner.Truck> trucks = new ArrayList<>();
+        trucks.add(new FleetPlanner.Truck("west", LAT, LON, 100));
+        trucks.add(new FleetPlanner.Truck("east", LAT, LON + 0.1, 100));
+
+        Random random = new Random(1);
+        List<FleetPlanner.Stop> stops = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            double lng = (i % 2 == 0 ? LON : LON + 0.1) + random.nextDouble() * 0.01;
+            stops.add(new FleetPlanner.Stop((i % 2 == 0 ? "w" : "e") + i, LAT + random.nextDouble() * 0.01, lng, 1));
+        }
+
+        FleetPlanner.Result result = new FleetPlanner(200).plan(trucks, stops);
+        assertTrue(result.unassigned.isEmpty());
+        for (FleetPlanner.TruckPlan plan : result.plans) {
+            assertEquals(20, plan.stops.size());
+            String prefix = plan.truck.id.substring(0, 1);
+            for (FleetPlanner.Stop stop : plan.stops) assertTrue(stop.id.startsWith(prefix));
+        }
+    }
+
+    @Test
+    public void capacity_isNeverExceeded() {
+        List<FleetPlanner.Truck> trucks = new ArrayList<>();
+        trucks.add(new FleetPlanner.Truck("a", LAT, LON, 32));
+        trucks.add(new FleetPlanner.Truck("b", LAT + 0.01, LON, 32));
+
+        List<FleetPlanner.Stop> stops = new ArrayList<>();
+        // 80 units of demand, all nearest to truck a; only 64 fit in the fleet
+        for (int i = 0; i < 20; i++) {
+            stops.add(new FleetPlanner.Stop("s" + i, LAT - 0.001 * i, LON, FleetPlanner.loadForLevel("High")));
+        }
+
+        FleetPlanner.Result result = new FleetPlanner(100).plan(trucks, stops);
+        int planned = 0;
+        for (FleetPlanner.TruckPlan plan : result.plans) {
+            assertTrue(plan.load <= plan.truck.capacity);
+            planned += plan.stops.size();
+        }
+        assertEquals(16, planned);
+        assertEquals(4, result.unassigned.size());
+    }
+
+    @Test
+    public void fiveTrucksThousandStops_allPlannedWithinCapacity() {
+        Random random = new Random(11);
+        List<FleetPlanner.Truck> trucks = new ArrayList<>();
+        for (int t = 0; t < 5; t++) {
+            trucks.add(new FleetPlanner.Truck("t" + t, LAT + random.nextDouble() * 0.05,
+                    LON + random.nextDouble() * 0.05, FleetPlanner.DEFAULT_TRUCK_CAPACITY * 3));
+        }
+        List<FleetPlanner.Stop> stops = new ArrayList<>();
+        String[] levels = {null, null, null, "Low", "Medium", "High", "Extreme"};
+        for (int i = 0; i < 1000; i++) {
+            stops.add(new FleetPlanner.Stop("s" + i, LAT + random.nextDouble() * 0.05, LON + random.nextDouble() * 0.05,
+                    FleetPlanner.loadForLevel(levels[random.nextInt(levels.length)])));
+        }
+
+        FleetPlanner planner = new FleetPlanner(1500);
+        FleetPlanner.Result result = planner.plan(trucks, stops);
+
+        Set<String> seen = new HashSet<>();
+        for (FleetPlanner.TruckPlan plan : result.plans) {
+            assertTrue(plan.load <= plan.truck.capacity);
+            for (FleetPlanner.Stop stop : plan.stops) assertTrue(seen.add(stop.id));
+        }
+        assertTrue(result.unassigned.isEmpty());
+        assertEquals(1000, seen.size());
+        assertTrue(result.partitionRounds >= 1 && result.partitionRounds <= 8);
+    }
+}
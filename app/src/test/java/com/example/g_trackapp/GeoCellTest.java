@@ -0,0 +1,82 @@
+package com.example.g_trackapp;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GeoCellTest {
+
+    // Malabon city hall
+    private static final double LAT = 14.6625;
+    private static final double LON = 120.9567;
+
+    @Test
+    public void encode_matchesReferenceVectors() {
+        assertEquals("u4pruydqqvj", GeoCell.encode(57.64911, 10.40744, 11));
+        assertEquals("ezs42", GeoCell.encode(42.6, -5.6, 5));
+    }
+
+    @Test
+    public void bounds_containEncodedPoint() {
+        String hash = GeoCell.encode(LAT, LON);
+        double[] b = GeoCell.bounds(hash);
+        assertTrue(LAT >= b[0] && LAT <= b[2]);
+        assertTrue(LON >= b[1] && LON <= b[3]);
+        assertEquals(GeoCell.WRITE_PRECISION, hash.length());
+    }
+
+    @Test
+    public void neighborhood_isNineAdjacentCells() {
+        String center = GeoCell.encode(LAT, LON, 6);
+        List<String> cells = GeoCell.neighborhood(center);
+        assertEquals(9, cells.size());
+        assertEquals(9, cells.stream().distinct().count());
+
+        double[] c = GeoCell.bounds(center);
+        for (String cell : cells) {
+            double[] b = GeoCell.bounds(cell);
+            // Touching or overlapping the center cell on both axes
+            assertTrue(b[0] <= c[2] + 1e-9 && b[2] >= c[0] - 1e-9);
+            assertTrue(b[1] <= c[3] + 1e-9 && b[3] >= c[1] - 1e-9);
+        }
+    }
+
+    @Test
+    public void covering_coversBoxWithinCap() {
+        double minLat = 14.64, minLon = 120.93, maxLat = 14.69, maxLon = 120.99;
+        List<String> cells = GeoCell.covering(minLat, minLon, maxLat, maxLon, 16);
+        assertTrue(cells.size() <= 16);
+
+        // Every corner and the center fall inside some covering cell
+        double[][] probes = {{minLat, minLon}, {minLat, maxLon}, {maxLat, minLon}, {maxLat, maxLon},
+                {(minLat + maxLat) / 2, (minLon + maxLon) / 2}};
+        for (double[] p : probes) {
+            String hash = GeoCell.encode(p[0], p[1]);
+            assertTrue("uncovered " + p[0] + "," + p[1],
+                    cells.stream().anyMatch(hash::startsWith));
+        }
+    }
+
+    @Test
+    public void range_boundsEveryKeyWithPrefix() {
+        String[] r = GeoCell.range("wdw4");
+        String key = GeoCell.encode(LAT, LON);
+        String prefix = key.substring(0, 4);
+        String[] own = GeoCell.range(prefix);
+        assertTrue(key.compareTo(own[0]) >= 0 && key.compareTo(own[1]) < 0);
+        assertTrue("wdw4zzzzz".compareTo(r[1]) < 0);
+        assertTrue("wdw5".compareTo(r[1]) > 0);
+    }
+
+    @Test
+    public void manyQueries_stayWithinCellBudgets() {
+        for (int i = 0; i < 2_000; i++) {
+            assertEquals(GeoCell.WRITE_PRECISION, GeoCell.encode(LAT + i * 1e-4, LON + i * 1e-4).length());
+            assertEquals(9, GeoCell.neighborhood(GeoCell.encode(LAT + i * 1e-4, LON, 7)).size());
+            int cells = GeoCell.covering(LAT, LON, LAT + 0.05 + i * 1e-5, LON + 0.05, 16).size();
+            assertTrue(cells >= 1 && cells <= 16);
+        }
+    }
+}
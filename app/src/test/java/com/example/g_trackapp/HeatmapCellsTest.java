@@ -0,0 +1,82 @@
+package com.example.g_trackapp;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class HeatmapCellsTest {
+
+    private static final double LAT = 14.6625;
+    private static final double LON = 120.9567;
+
+    @Test
+    public void reportsInOneCell_foldIntoOneWeightedPoint() {
+        double[] cell = GeoCell.bounds(GeoCell.encode(LAT, LON, HeatmapCells.CELL_PRECISION));
+        double midLat = (cell[0] + cell[2]) / 2, midLon = (cell[1] + cell[3]) / 2;
+
+        HeatmapCells heat = new HeatmapCells();
+        heat.put("a", midLat - 0.0001, midLon, 1);
+        heat.put("b", midLat + 0.0001, midLon, 3);
+        List<HeatmapCells.Cell> cells = heat.cells();
+
+        assertEquals(1, cells.size());
+        assertEquals(4, cells.get(0).weight, 1e-9);
+        assertEquals(2, cells.get(0).reports);
+        assertEquals(midLat + 0.00005, cells.get(0).latitude, 1e-9); // pulled towards the heavier report
+    }
+
+    @Test
+    public void updateAndRemove_backOutOldContribution() {
+        HeatmapCells heat = new HeatmapCells();
+        heat.put("a", LAT, LON, 8);
+        heat.put("b", LAT + 0.05, LON, 2);
+        assertEquals(2, heat.cells().size());
+
+        // Level downgraded, then the other report closed
+        heat.put("a", LAT, LON, 1);
+        heat.remove("b");
+        heat.remove("unknown");
+        List<HeatmapCells.Cell> cells = heat.cells();
+        assertEquals(1, cells.size());
+        assertEquals(1, cells.get(0).weight, 1e-9);
+        assertEquals(LAT, cells.get(0).latitude, 1e-9);
+
+        heat.remove("a");
+        assertTrue(heat.isEmpty());
+        assertTrue(heat.cells().isEmpty());
+    }
+
+    @Test
+    public void putAndRemove_reportWhetherWeightsMoved() {
+        HeatmapCells heat = new HeatmapCells();
+        assertTrue(heat.put("a", LAT, LON, 4));
+        // Same report touched again (e.g. assignedTo stamped): nothing to redraw
+        assertFalse(heat.put("a", LAT, LON, 4));
+        assertTrue(heat.put("a", LAT, LON, 8));
+        assertTrue(heat.put("a", LAT + 0.01, LON, 8));
+
+        assertTrue(heat.remove("a"));
+        assertFalse(heat.remove("a"));
+        assertFalse(heat.put("b", LAT, LON, 0)); // zero weight, never counted
+        assertTrue(heat.isEmpty());
+    }
+
+    @Test
+    public void streamOfChanges_foldsIntoFewerCells() {
+        HeatmapCells heat = new HeatmapCells();
+        Random random = new Random(3);
+        for (int i = 0; i < 20_000; i++) {
+            heat.put("r" + i, LAT + random.nextDouble() * 0.1, LON + random.nextDouble() * 0.1, 1 + random.nextInt(8));
+        }
+        for (int i = 0; i < 20_000; i += 2) heat.remove("r" + i);
+
+        assertEquals(10_000, heat.reportCount());
+        int reports = 0;
+        for (HeatmapCells.Cell cell : heat.cells()) reports += cell.reports;
+        assertEquals(10_000, reports);
+        assertTrue(heat.cells().size() < heat.reportCount());
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.g_trackapp;
+
+import org.junit.Test;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.junit.Assert.*;
+
+public class HttpCallMetricsTest {
+
+    @Test
+    public void sharedClient_reusesPooledConnection() throws Exception {
+        try (MockWebServer server = new MockWebServer()) {
+            server.enqueue(new MockResponse().setBody("one"));
+            server.enqueue(new MockResponse().setBody("two"));
+            server.start();
+
+            HttpCallMetrics metrics = new HttpCallMetrics();
+            OkHttpClient client = new OkHttpClient.Builder().eventListenerFactory(metrics).build();
+
+            for (int i = 0; i < 2; i++) {
+                try (Response response = client.newCall(new Request.Builder().url(server.url("/")).build()).execute()) {
+                    assertTrue(response.isSuccessful());
+                    response.body().string();
+                }
+            }
+
+            assertEquals(2, metrics.getCalls());
+            assertEquals(1, metrics.getPooledCalls());
+            assertTrue(metrics.statsLine().startsWith("2 calls (0 failed, 1 on pooled connections"));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.g_trackapp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class LocationUplinkTest {
+
+    private static final double LAT = 14.6625;
+    private static final double LON = 120.9567;
+
+    private final List<GeoFix> published = new ArrayList<>();
+    private final List<List<GeoFix>> trails = new ArrayList<>();
+    private final LocationUplink uplink = new LocationUplink((latest, trail) -> {
+        published.add(latest);
+        trails.add(trail);
+        return true;
+    }, 15_000, 5);
+
+    @Test
+    public void fixesWithinOneCadenceWindow_shareOneWrite() {
+        assertTrue(uplink.offer(fix(0), 0)); // first fix goes out at once
+        for (int t = 1; t < 15; t++) assertFalse(uplink.offer(fix(t), t * 1000L));
+        assertTrue(uplink.offer(fix(15), 15_000));
+
+        assertEquals(2, uplink.getWritesIssued());
+        assertEquals(16, uplink.getFixesReceived());
+        assertEquals(15_000, published.get(1).timeMillis);
+        // Skipped fixes ride along as the trail, oldest first
+        List<GeoFix> trail = trails.get(1);
+        assertEquals(1_000, trail.get(0).timeMillis);
+        assertEquals(14_000, trail.get(trail.size() - 1).timeMillis);
+    }
+
+    @Test
+    public void millisUntilDue_drivesTheDeferredFlush() {
+        assertEquals(-1, uplink.millisUntilDue(0));
+        uplink.offer(fix(0), 0);
+        uplink.offer(fix(4), 4_000);
+        assertEquals(11_000, uplink.millisUntilDue(4_000));
+        assertEquals(0, uplink.millisUntilDue(20_000));
+
+        // A truck that stopped sending still gets its last fix out
+        assertTrue(uplink.flush(15_000));
+        assertEquals(4_000, published.get(1).timeMillis);
+        assertFalse(uplink.hasPending());
+        assertFalse(uplink.flush(16_000));
+    }
+
+    @Test
+    public void declinedWrites_areNotCounted() {
+        List<GeoFix> sent = new ArrayList<>();
+        boolean[] online = {false};
+        LocationUplink offlineUplink = new LocationUplink((latest, trail) -> {
+            if (!online[0]) return false;
+            sent.add(latest);
+            return true;
+        }, 15_000, 5);
+
+        assertFalse(offlineUplink.offer(fix(0), 0));
+        assertFalse(offlineUplink.offer(fix(20), 20_000));
+        assertEquals(0, offlineUplink.getWritesIssued());
+        assertEquals(2, offlineUplink.getFixesReceived());
+
+        online[0] = true;
+        assertTrue(offlineUplink.offer(fix(40), 40_000));
+        assertEquals(1, offlineUplink.getWritesIssued());
+        assertEquals(40_000, sent.get(0).timeMillis);
+    }
+
+    @Test
+    public void longTrail_isDownsampledKeepingBothEnds() {
+        uplink.offer(fix(0), 0);
+        for (int t = 1; t <= 14; t++) uplink.offer(fix(t), t * 1000L);
+        uplink.flush(15_000);
+
+        List<GeoFix> trail = trails.get(1);
+        assertEquals(5, trail.size());
+        assertEquals(1_000, trail.get(0).timeMillis);
+        assertEquals(13_000, trail.get(4).timeMillis);
+        for (int i = 1; i < trail.size(); i++) {
+            assertTrue(trail.get(i).timeMillis > trail.get(i - 1).timeMillis);
+        }
+    }
+
+    @Test
+    public void downsample_edgeCases() {
+        List<GeoFix> points = new ArrayList<>();
+        for (int t = 0; t < 3; t++) points.add(fix(t));
+        assertTrue(LocationUplink.downsample(new ArrayList<>(), 5).isEmpty());
+        assertEquals(3, LocationUplink.downsample(points, 5).size());
+        assertEquals(2_000, LocationUplink.downsample(points, 1).get(0).timeMillis);
+        assertTrue(LocationUplink.downsample(points, 0).isEmpty());
+    }
+
+    private static GeoFix fix(int seconds) {
+        return new GeoFix(LAT + seconds * 1e-5, LON, 5f, Float.NaN, Float.NaN, seconds * 1000L);
+    }
+}
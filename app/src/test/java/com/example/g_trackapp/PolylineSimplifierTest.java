@@ -0,0 +1,101 @@
+package com.example.g_trackapp;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PolylineSimplifierTest {
+
+    private static final double LAT = 14.6625;
+    private static final double LON = 120.9567;
+
+    @Test
+    public void straightLine_collapsesToEndpoints() {
+        double[] path = new double[200];
+        for (int i = 0; i < 100; i++) {
+            path[2 * i] = LAT + i * 1e-4;
+            path[2 * i + 1] = LON + i * 1e-4;
+        }
+        double[] simplified = PolylineSimplifier.simplify(path, 1);
+        assertArrayEquals(new double[]{path[0], path[1], path[198], path[199]}, simplified, 0);
+    }
+
+    @Test
+    public void simplify_keepsEveryDroppedVertexWithinTolerance() {
+        double[] path = randomWalk(5000, 3);
+        for (double tolerance : new double[]{1, 5, 25}) {
+            double[] simplified = PolylineSimplifier.simplify(path, tolerance);
+            assertTrue(simplified.length < path.length);
+            assertMaxDeviation(path, simplified, tolerance * 1.001 + 0.01);
+        }
+    }
+
+    @Test
+    public void levels_getCoarserAsZoomDecreases() {
+        double[] path = randomWalk(20_000, 4);
+        PolylineSimplifier.Levels levels = PolylineSimplifier.precompute(path);
+
+        for (int i = 1; i < levels.paths.length; i++) {
+            assertTrue(levels.paths[i].length >= levels.paths[i - 1].length);
+        }
+        assertEquals(0, levels.levelFor(5));
+        assertEquals(2, levels.levelFor(15.3f));
+        assertEquals(levels.paths.length - 1, levels.levelFor(21));
+    }
+
+    @Test
+    public void fiftyThousandPoints_coarserLevelsKeepFewerVertices() {
+        double[] path = randomWalk(50_000, 5);
+        PolylineSimplifier.Levels levels = PolylineSimplifier.precompute(path);
+
+        for (int i = 1; i < levels.paths.length; i++) {
+            assertTrue(levels.paths[i - 1].length <= levels.paths[i].length);
+        }
+        assertTrue(levels.paths[levels.paths.length - 1].length <= path.length);
+        assertTrue(levels.paths[0].length * 10 < path.length);
+    }
+
+    private static void assertMaxDeviation(double[] path, double[] simplified, double maxMeters) {
+        // Walk the original; each original vertex must lie near the kept segment spanning it
+        int seg = 0;
+        for (int i = 0; i < path.length / 2; i++) {
+            double lat = path[2 * i], lng = path[2 * i + 1];
+            if (seg + 1 < simplified.length / 2
+                    && lat == simplified[2 * (seg + 1)] && lng == simplified[2 * (seg + 1) + 1]) {
+                seg++;
+                continue;
+            }
+            int next = Math.min(seg + 1, simplified.length / 2 - 1);
+            double d = distanceToSegment(lat, lng, simplified[2 * seg], simplified[2 * seg + 1],
+                    simplified[2 * next], simplified[2 * next + 1]);
+            assertTrue("vertex " + i + " off by " + d, d <= maxMeters);
+        }
+    }
+
+    private static double distanceToSegment(double lat, double lng, double aLat, double aLng, double bLat, double bLng) {
+        double scale = Math.toRadians(1) * GeoMath.EARTH_RADIUS_M;
+        double cos = Math.cos(Math.toRadians(LAT));
+        double px = (lng - aLng) * cos * scale, py = (lat - aLat) * scale;
+        double dx = (bLng - aLng) * cos * scale, dy = (bLat - aLat) * scale;
+        double len = dx * dx + dy * dy;
+        double t = len == 0 ? 0 : Math.max(0, Math.min(1, (px * dx + py * dy) / len));
+        return Math.hypot(px - t * dx, py - t * dy);
+    }
+
+    /** Road-like trace: ~5 m steps with slowly drifting heading */
+    private static double[] randomWalk(int n, long seed) {
+        Random random = new Random(seed);
+        double[] path = new double[n * 2];
+        double lat = LAT, lng = LON, heading = 0;
+        for (int i = 0; i < n; i++) {
+            heading += random.nextGaussian() * 0.2;
+            lat += Math.cos(heading) * 5 / 111_320.0;
+            lng += Math.sin(heading) * 5 / (111_320.0 * Math.cos(Math.toRadians(LAT)));
+            path[2 * i] = lat;
+            path[2 * i + 1] = lng;
+        }
+        return path;
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.g_trackapp;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PositionOutboxTest {
+
+    private static final double LAT = 14.6625;
+    private static final double LON = 120.9567;
+    private static final double LAT_PER_M = 1 / 111_195.0;
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void fixesSurviveReopen_inOrder() throws IOException {
+        File file = new File(tmp.getRoot(), "outbox.bin");
+        PositionOutbox outbox = new PositionOutbox(file, 100);
+        for (int i = 0; i < 5; i++) outbox.append(fix(i * 10, i));
+
+        List<GeoFix> fixes = new PositionOutbox(file, 100).readAll();
+        assertEquals(5, fixes.size());
+        assertEquals(4000, fixes.get(4).timeMillis);
+        assertEquals(LAT + 40 * LAT_PER_M, fixes.get(4).latitude, 1e-12);
+    }
+
+    @Test
+    public void ackThrough_movesTheHeadWithoutRewriting_untilTheThreshold() throws IOException {
+        File file = new File(tmp.getRoot(), "outbox.bin");
+        // Rewrite once 4 records are acked
+        PositionOutbox outbox = new PositionOutbox(file, 100, 4 * PositionOutbox.RECORD_BYTES);
+        for (int i = 0; i < 10; i++) outbox.append(fix(i * 10, i));
+
+        outbox.ackThrough(1000); // two records: head only
+        assertEquals(8, outbox.size());
+        assertEquals(10L * PositionOutbox.RECORD_BYTES, outbox.fileBytes());
+        assertEquals(2000, outbox.readAll().get(0).timeMillis);
+
+        // The head survives a restart
+        PositionOutbox reopened = new PositionOutbox(file, 100, 4 * PositionOutbox.RECORD_BYTES);
+        assertEquals(8, reopened.size());
+        assertEquals(2000, reopened.readAll().get(0).timeMillis);
+
+        reopened.ackThrough(4000); // five acked in total: past the threshold, rewritten
+        assertEquals(5, reopened.size());
+        assertEquals(5L * PositionOutbox.RECORD_BYTES, reopened.fileBytes());
+        assertEquals(5000, new PositionOutbox(file, 100).readAll().get(0).timeMillis);
+
+        reopened.ackThrough(4000); // already confirmed: nothing changes
+        assertEquals(5, reopened.size());
+
+        reopened.ackThrough(Long.MAX_VALUE);
+        assertTrue(reopened.isEmpty());
+        assertEquals(0, reopened.fileBytes());
+        reopened.append(fix(0, 20));
+        assertEquals(20_000, new PositionOutbox(file, 100).readAll().get(0).timeMillis);
+    }
+
+    @Test
+    public void ackOfAReplayRead_keepsFixesAppendedSince() throws IOException {
+        File file = new File(tmp.getRoot(), "outbox.bin");
+        PositionOutbox outbox = new PositionOutbox(file, 100, 4 * PositionOutbox.RECORD_BYTES);
+        for (int i = 0; i < 3; i++) outbox.append(fix(i * 10, i));
+
+        PositionOutbox.Pending replayed = outbox.readPending();
+        assertEquals(3, replayed.fixes.size());
+        outbox.append(fix(30, 1)); // arrives during the upload, with an older clock than the last replayed fix
+        outbox.ack(replayed);
+
+        assertEquals(1, outbox.size());
+        assertEquals(4L * PositionOutbox.RECORD_BYTES, outbox.fileBytes()); // head moved, no rewrite
+        assertEquals(1000, new PositionOutbox(file, 100).readAll().get(0).timeMillis);
+    }
+
+    @Test
+    public void ackOfAStaleRead_afterCompaction_fallsBackToTimestamps() throws IOException {
+        File file = new File(tmp.getRoot(), "outbox.bin");
+        PositionOutbox outbox = new PositionOutbox(file, 100, 2 * PositionOutbox.RECORD_BYTES);
+        for (int i = 0; i < 6; i++) outbox.append(fix(i * 10, i));
+
+        PositionOutbox.Pending replayed = outbox.readPending();
+        outbox.ackThrough(2000); // rewrites the file: the read's offsets no longer apply
+        outbox.append(fix(60, 6));
+        outbox.ack(replayed);
+
+        List<GeoFix> left = outbox.readAll();
+        assertEquals(1, left.size());
+        assertEquals(6000, left.get(0).timeMillis);
+    }
+
+    @Test
+    public void tornTail_isCutOffOnOpen() throws IOException {
+        File file = new File(tmp.getRoot(), "outbox.bin");
+        PositionOutbox outbox = new PositionOutbox(file, 100);
+        outbox.append(fix(0, 0));
+        outbox.append(fix(10, 1));
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(new byte[PositionOutbox.RECORD_BYTES / 2]); // crash mid-append
+        }
+
+        PositionOutbox reopened = new PositionOutbox(file, 100);
+        assertEquals(2, reopened.size());
+        assertEquals(2L * PositionOutbox.RECORD_BYTES, file.length());
+        reopened.append(fix(20, 2));
+        assertEquals(2000, new PositionOutbox(file, 100).readAll().get(2).timeMillis);
+    }
+
+    @Test
+    public void fullOutbox_compactsCloseFixes_andKeepsBothEnds() throws IOException {
+        File file = new File(tmp.getRoot(), "outbox.bin");
+        PositionOutbox outbox = new PositionOutbox(file, 20);
+        // 20 fixes 5 m apart: all but every fifth sit inside the compaction spacing
+        for (int i = 0; i < 20; i++) outbox.append(fix(i * 5, i));
+        outbox.append(fix(200, 20)); // at capacity: compacts first
+
+        List<GeoFix> fixes = outbox.readAll();
+        assertTrue(fixes.size() <= 10 + 1);
+        assertEquals(0, fixes.get(0).timeMillis);
+        assertEquals(19_000, fixes.get(fixes.size() - 2).timeMillis);
+        assertEquals(20_000, fixes.get(fixes.size() - 1).timeMillis);
+        for (int i = 1; i < fixes.size() - 2; i++) {
+            assertTrue(GeoMath.distanceMeters(fixes.get(i - 1), fixes.get(i)) >= PositionOutbox.COMPACT_MIN_SPACING_M);
+        }
+    }
+
+    private static GeoFix fix(double northMeters, int seconds) {
+        return new GeoFix(LAT + northMeters * LAT_PER_M, LON, 5f, Float.NaN, 90f, seconds * 1000L);
+    }
+}
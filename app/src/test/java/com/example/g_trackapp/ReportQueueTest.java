@@ -0,0 +1,116 @@
+package com.example.g_trackapp;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ReportQueueTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void reportsSurviveReopen_withTheirKeysAndFields() throws IOException {
+        File file = tmp.newFile("queue.bin");
+        ReportQueue queue = new ReportQueue(file);
+        ReportQueue.Report first = queue.enqueue(report("High", 14.66), 1000);
+        ReportQueue.Report second = queue.enqueue(report("Low", 14.67), 2000);
+        assertNotEquals(first.id, second.id);
+
+        List<ReportQueue.Report> reopened = new ReportQueue(file).pending();
+        assertEquals(2, reopened.size());
+        assertEquals(first.id, reopened.get(0).id);
+        assertEquals(1000, reopened.get(0).createdAtMillis);
+        assertEquals("High", reopened.get(0).fields.get("garbageLevel"));
+        assertEquals(14.67, (Double) reopened.get(1).fields.get("latitude"), 0);
+        assertEquals(3L, reopened.get(1).fields.get("bins"));
+        assertEquals(true, reopened.get(1).fields.get("urgent"));
+    }
+
+    @Test
+    public void ack_dropsOnlyConfirmedReports() throws IOException {
+        File file = tmp.newFile("queue.bin");
+        ReportQueue queue = new ReportQueue(file);
+        ReportQueue.Report a = queue.enqueue(report("Low", 1), 1);
+        ReportQueue.Report b = queue.enqueue(report("Medium", 2), 2);
+        ReportQueue.Report c = queue.enqueue(report("High", 3), 3);
+
+        queue.ack(Arrays.asList(a.id, c.id, "unknown"));
+        assertEquals(1, queue.size());
+        assertEquals(b.id, new ReportQueue(file).pending().get(0).id);
+
+        // Acking the same batch again (retried commit) is harmless
+        queue.ack(Arrays.asList(a.id, c.id));
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    public void tornTail_isCutOffOnOpen() throws IOException {
+        File file = tmp.newFile("queue.bin");
+        ReportQueue queue = new ReportQueue(file);
+        queue.enqueue(report("Low", 1), 1);
+        long goodLength = file.length();
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(new byte[]{0, 0, 0, 90, 1, 2, 3}); // length prefix of a record that never finished
+        }
+
+        ReportQueue reopened = new ReportQueue(file);
+        assertEquals(1, reopened.size());
+        assertEquals(goodLength, file.length());
+        reopened.enqueue(report("High", 2), 2);
+        assertEquals(2, new ReportQueue(file).size());
+    }
+
+    @Test
+    public void nullValue_roundTripsAsNull() throws IOException {
+        File file = tmp.newFile("queue.bin");
+        ReportQueue queue = new ReportQueue(file);
+        Map<String, Object> fields = report("Medium", 14.66);
+        fields.put("collectorId", null);
+        queue.enqueue(fields, 1000);
+        queue.enqueue(report("Low", 14.67), 2000);
+
+        List<ReportQueue.Report> reopened = new ReportQueue(file).pending();
+        assertEquals(2, reopened.size());
+        assertTrue(reopened.get(0).fields.containsKey("collectorId"));
+        assertNull(reopened.get(0).fields.get("collectorId"));
+        assertEquals("Medium", reopened.get(0).fields.get("garbageLevel"));
+        assertEquals("Low", reopened.get(1).fields.get("garbageLevel"));
+    }
+
+    @Test
+    public void unsupportedValue_isRejectedBeforeWriting() throws IOException {
+        File file = tmp.newFile("queue.bin");
+        ReportQueue queue = new ReportQueue(file);
+        Map<String, Object> fields = report("Low", 1);
+        fields.put("tags", new HashSet<>());
+        try {
+            queue.enqueue(fields, 1);
+            fail();
+        } catch (IllegalArgumentException expected) {
+            assertEquals(0, file.length());
+            assertTrue(queue.isEmpty());
+        }
+    }
+
+    private static Map<String, Object> report(String level, double latitude) {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("garbageLevel", level);
+        fields.put("status", "open");
+        fields.put("latitude", latitude);
+        fields.put("bins", 3);
+        fields.put("urgent", true);
+        return fields;
+    }
+}
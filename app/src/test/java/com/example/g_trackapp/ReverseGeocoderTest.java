@@ -0,0 +1,124 @@
+package com.example.g_trackapp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ReverseGeocoderTest {
+
+    private static final double LAT = 14.6625;
+    private static final double LON = 120.9567;
+
+    private final MapStore store = new MapStore();
+    private final AtomicInteger lookups = new AtomicInteger();
+    private long now = 1_000_000;
+
+    @Test
+    public void repeatLookupInSameCell_isServedFromCache() {
+        ReverseGeocoder geocoder = geocoder(Runnable::run);
+        List<String> results = new ArrayList<>();
+
+        // Two spots ~5 m apart around the middle of one precision-8 cell
+        double[] cell = GeoCell.bounds(GeoCell.encode(LAT, LON, ReverseGeocoder.CELL_PRECISION));
+        double midLat = (cell[0] + cell[2]) / 2, midLon = (cell[1] + cell[3]) / 2;
+        geocoder.lookup(midLat - 0.00002, midLon - 0.00002, results::add);
+        geocoder.lookup(midLat + 0.00002, midLon + 0.00002, results::add);
+
+        assertEquals(1, lookups.get());
+        assertEquals("Street 1", results.get(0));
+        assertEquals("Street 1", results.get(1));
+        assertTrue(geocoder.statsLine().startsWith("1 cached, 1 looked up"));
+    }
+
+    @Test
+    public void expiredEntry_isLookedUpAgain() {
+        ReverseGeocoder geocoder = geocoder(Runnable::run);
+        List<String> results = new ArrayList<>();
+        geocoder.lookup(LAT, LON, results::add);
+
+        now += ReverseGeocoder.TTL_MS;
+        geocoder.lookup(LAT, LON, results::add);
+        assertEquals(2, lookups.get());
+        assertEquals("Street 2", results.get(1));
+    }
+
+    @Test
+    public void concurrentRequestsForOneSpot_shareOneLookup() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService worker = Executors.newFixedThreadPool(2);
+        ReverseGeocoder geocoder = new ReverseGeocoder((lat, lng) -> {
+            release.await(5, TimeUnit.SECONDS);
+            return "Street " + lookups.incrementAndGet();
+        }, worker, Runnable::run, store, () -> now);
+
+        CountDownLatch delivered = new CountDownLatch(5);
+        List<String> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            geocoder.lookup(LAT, LON, address -> {
+                synchronized (results) {
+                    results.add(address);
+                }
+                delivered.countDown();
+            });
+        }
+        release.countDown();
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        worker.shutdown();
+
+        assertEquals(1, lookups.get());
+        for (String address : results) assertEquals("Street 1", address);
+        assertTrue(geocoder.statsLine().endsWith("4 merged"));
+    }
+
+    @Test
+    public void failedLookup_deliversNullAndIsNotCached() {
+        ReverseGeocoder geocoder = new ReverseGeocoder((lat, lng) -> {
+            lookups.incrementAndGet();
+            throw new java.io.IOException("grpc failed");
+        }, Runnable::run, Runnable::run, store, () -> now);
+        List<String> results = new ArrayList<>();
+        geocoder.lookup(LAT, LON, results::add);
+        geocoder.lookup(LAT, LON, results::add);
+
+        assertEquals(2, lookups.get());
+        assertNull(results.get(0));
+        assertTrue(store.map.isEmpty());
+    }
+
+    @Test
+    public void store_isBoundedToMaxEntries() {
+        ReverseGeocoder geocoder = geocoder(Runnable::run);
+        for (int i = 0; i < ReverseGeocoder.MAX_ENTRIES + 50; i++) {
+            now++;
+            geocoder.lookup(LAT + i * 0.001, LON, address -> { });
+        }
+        assertEquals(ReverseGeocoder.MAX_ENTRIES, store.map.size());
+        // The newest cell survived
+        assertNotNull(store.get(GeoCell.encode(LAT + (ReverseGeocoder.MAX_ENTRIES + 49) * 0.001, LON,
+                ReverseGeocoder.CELL_PRECISION)));
+    }
+
+    private ReverseGeocoder geocoder(java.util.concurrent.Executor worker) {
+        return new ReverseGeocoder((lat, lng) -> "Street " + lookups.incrementAndGet(),
+                worker, Runnable::run, store, () -> now);
+    }
+
+    private static final class MapStore implements ReverseGeocoder.Store {
+        final Map<String, String> map = new HashMap<>();
+
+        @Override public synchronized String get(String key) { return map.get(key); }
+        @Override public synchronized void put(String key, String value) { map.put(key, value); }
+        @Override public synchronized Map<String, ?> all() { return new HashMap<>(map); }
+        @Override public synchronized void remove(List<String> keys) { for (String key : keys) map.remove(key); }
+    }
+}
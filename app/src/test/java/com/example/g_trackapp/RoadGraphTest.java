@@ -0,0 +1,132 @@
+package com.example.g_trackapp;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RoadGraphTest {
+
+    private static final double LAT = 14.6625;
+    private static final double LON = 120.9567;
+    /** ~100 m blocks */
+    private static final double STEP = 0.0009;
+
+    @Test
+    public void route_matchesDijkstraOnEveryQuery() throws IOException {
+        RoadGraph graph = grid(40, 0.15, 3);
+        Random random = new Random(4);
+        for (int q = 0; q < 200; q++) {
+            int from = random.nextInt(graph.nodeCount());
+            int to = random.nextInt(graph.nodeCount());
+            RoadGraph.Route route = graph.route(from, to);
+            float[] reference = graph.distanceMatrix(
+                    new double[]{graph.latitude(from), graph.latitude(to)},
+                    new double[]{graph.longitude(from), graph.longitude(to)}, 1);
+            if (from == to) continue;
+            assertNotNull(route);
+            assertEquals("query " + from + " → " + to, reference[1], route.meters, 0.5);
+            assertEquals(graph.latitude(from), route.path[0], 1e-9);
+            assertEquals(graph.longitude(to), route.path[route.path.length - 1], 1e-9);
+        }
+    }
+
+    @Test
+    public void oneWayStreet_isOnlyDrivenOneWay() throws IOException {
+        // 0 → 1 → 2 one-way; 2 → 0 only around a long loop through 3
+        double[] lat = {LAT, LAT, LAT, LAT + 0.01};
+        double[] lng = {LON, LON + STEP, LON + 2 * STEP, LON + STEP};
+        int[][] edges = {{0, 1}, {1, 2}, {2, 3}, {3, 2}, {3, 0}, {0, 3}};
+        RoadGraph graph = load(lat, lng, edges, 2);
+
+        RoadGraph.Route forward = graph.route(0, 2);
+        assertEquals(3, forward.path.length / 2);
+        RoadGraph.Route back = graph.route(2, 0);
+        assertEquals(3, back.path.length / 2);
+        assertTrue(back.meters > 2 * forward.meters);
+    }
+
+    @Test
+    public void nearestNode_snapsWithinRadius() throws IOException {
+        RoadGraph graph = grid(10, 0, 1);
+        int node = graph.nearestNode(LAT + 3 * STEP + 0.0001, LON + 5 * STEP - 0.0001, 100);
+        assertEquals(LAT + 3 * STEP, graph.latitude(node), STEP * 0.1);
+        assertEquals(LON + 5 * STEP, graph.longitude(node), STEP * 0.1);
+        assertEquals(-1, graph.nearestNode(LAT + 1, LON, 500));
+    }
+
+    @Test(expected = IOException.class)
+    public void from_rejectsOtherFiles() throws IOException {
+        RoadGraph.from(ByteBuffer.wrap("GTRC not a graph at all".getBytes()));
+    }
+
+    /** ALT vs straight-line A* on a 100 × 100 grid */
+    @Test
+    public void alt_settlesFewerNodesThanAStar() throws IOException {
+        RoadGraph graph = grid(100, 0.2, 8);
+        Random random = new Random(9);
+        int queries = 300;
+        int[] from = new int[queries], to = new int[queries];
+        for (int q = 0; q < queries; q++) {
+            from[q] = random.nextInt(graph.nodeCount());
+            to[q] = random.nextInt(graph.nodeCount());
+        }
+
+        long[] settled = new long[2];
+        for (int mode = 0; mode < 2; mode++) {
+            graph.setUseLandmarks(mode == 0);
+            for (int q = 0; q < queries; q++) settled[mode] += graph.route(from[q], to[q]).settled;
+        }
+        assertTrue(settled[0] < settled[1]);
+    }
+
+    /** size × size street grid; a fraction of blocks become one-way, the rest two-way */
+    private static RoadGraph grid(int size, double oneWayShare, int landmarks) throws IOException {
+        Random random = new Random(size);
+        int n = size * size;
+        double[] lat = new double[n], lng = new double[n];
+        List<int[]> edges = new ArrayList<>();
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                int v = r * size + c;
+                // Slight jitter so not every route ties
+                lat[v] = LAT + r * STEP + random.nextDouble() * STEP * 0.1;
+                lng[v] = LON + c * STEP + random.nextDouble() * STEP * 0.1;
+                if (c + 1 < size) addStreet(edges, v, v + 1, random.nextDouble() < oneWayShare);
+                if (r + 1 < size) addStreet(edges, v, v + size, random.nextDouble() < oneWayShare);
+            }
+        }
+        return load(lat, lng, edges.toArray(new int[0][]), landmarks);
+    }
+
+    private static void addStreet(List<int[]> edges, int a, int b, boolean oneWay) {
+        edges.add(new int[]{a, b});
+        if (!oneWay) edges.add(new int[]{b, a});
+    }
+
+    private static RoadGraph load(double[] lat, double[] lng, int[][] edges, int landmarks) throws IOException {
+        int n = lat.length;
+        int[][] sorted = edges.clone();
+        Arrays.sort(sorted, (a, b) -> Integer.compare(a[0], b[0]));
+        int[] edgeStart = new int[n + 1];
+        int[] target = new int[sorted.length];
+        float[] length = new float[sorted.length];
+        for (int e = 0; e < sorted.length; e++) {
+            edgeStart[sorted[e][0] + 1]++;
+            target[e] = sorted[e][1];
+            length[e] = (float) GeoMath.distanceMeters(lat[sorted[e][0]], lng[sorted[e][0]], lat[sorted[e][1]], lng[sorted[e][1]]);
+        }
+        for (int v = 0; v < n; v++) edgeStart[v + 1] += edgeStart[v];
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RoadGraph.write(out, lat, lng, edgeStart, target, length, landmarks);
+        return RoadGraph.from(ByteBuffer.wrap(out.toByteArray()));
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.g_trackapp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class RouteCacheTest {
+
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    private File dir;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("route_cache").toFile();
+    }
+
+    @Test
+    public void key_isNormalizedToPolylinePrecision() {
+        double[] lat = {14.65, 14.66, 14.67};
+        double[] lng = {120.95, 120.96, 120.97};
+        double[] jitter = {14.650000004, 14.66, 14.669999996};
+
+        assertEquals(RouteCache.key(lat, lng, "driving"), RouteCache.key(jitter, lng, "DRIVING"));
+        assertNotEquals(RouteCache.key(lat, lng, "driving"), RouteCache.key(lat, lng, "walking"));
+        assertNotEquals(RouteCache.key(lat, lng, "driving"),
+                RouteCache.key(new double[]{14.67, 14.66, 14.65}, new double[]{120.97, 120.96, 120.95}, "driving"));
+    }
+
+    @Test
+    public void key_snapsTheOriginToItsCell_butNotTheStops() {
+        double[] cell = GeoCell.bounds(GeoCell.encode(14.65, 120.95, RouteCache.ORIGIN_PRECISION));
+        double midLat = (cell[0] + cell[2]) / 2, midLng = (cell[1] + cell[3]) / 2;
+        double[] lng = {midLng, 120.96, 120.97};
+
+        // The truck drifted ~20 m inside its cell between replans
+        assertEquals(RouteCache.key(new double[]{midLat, 14.66, 14.67}, lng, "driving"),
+                RouteCache.key(new double[]{midLat + 0.0002, 14.66, 14.67}, lng, "driving"));
+        // Next cell over: a different origin
+        assertNotEquals(RouteCache.key(new double[]{midLat, 14.66, 14.67}, lng, "driving"),
+                RouteCache.key(new double[]{cell[2] + 0.0002, 14.66, 14.67}, lng, "driving"));
+        // A stop that moved by the same ~20 m is a different route
+        assertNotEquals(RouteCache.key(new double[]{midLat, 14.66, 14.67}, lng, "driving"),
+                RouteCache.key(new double[]{midLat, 14.6602, 14.67}, lng, "driving"));
+    }
+
+    @Test
+    public void putThenGet_roundTripsRoute() {
+        RouteCache cache = new RouteCache(dir, 1 << 20, HOUR, 24 * HOUR);
+        RouteLegPlanner.PlannedRoute route = route(500);
+        cache.put("k", route, 1000);
+
+        RouteCache.Entry entry = cache.get("k", 2000);
+        assertNotNull(entry);
+        assertEquals(route.distanceMeters, entry.route.distanceMeters);
+        assertEquals(route.durationSeconds, entry.route.durationSeconds);
+        assertEquals(route.responseBytes, entry.route.responseBytes);
+        assertArrayEquals(route.path, entry.route.path, 1e-9);
+        assertArrayEquals(route.bounds, entry.route.bounds, 0);
+        assertFalse(entry.needsRevalidation(2000));
+        assertTrue(entry.needsRevalidation(1000 + HOUR));
+
+        // Binary form is far smaller than the JSON it replaces
+        assertTrue(cache.getSizeBytes() < route.responseBytes / 4);
+    }
+
+    @Test
+    public void get_dropsExpiredEntries() {
+        RouteCache cache = new RouteCache(dir, 1 << 20, HOUR, 24 * HOUR);
+        cache.put("k", route(10), 0);
+        assertNull(cache.get("k", 24 * HOUR));
+        assertEquals(0, cache.getSizeBytes());
+        assertEquals(0, dir.listFiles().length);
+    }
+
+    @Test
+    public void put_evictsLeastRecentlyUsed() {
+        RouteCache probe = new RouteCache(dir, Long.MAX_VALUE, HOUR, 24 * HOUR);
+        probe.put("size", route(100), 0);
+        long entrySize = probe.getSizeBytes();
+        probe.clear();
+
+        RouteCache cache = new RouteCache(dir, entrySize * 2, HOUR, 24 * HOUR);
+        cache.put("a", route(100), 0);
+        cache.put("b", route(100), 1);
+        assertNotNull(cache.get("a", 2)); // a is now most recent
+        cache.put("c", route(100), 3);
+
+        assertNotNull(cache.get("a", 4));
+        assertNull(cache.get("b", 4));
+        assertNotNull(cache.get("c", 4));
+    }
+
+    @Test
+    public void reopen_keepsEntriesAndCountsSavings() {
+        new RouteCache(dir, 1 << 20, HOUR, 24 * HOUR).put("k", route(50), 0);
+
+        RouteCache reopened = new RouteCache(dir, 1 << 20, HOUR, 24 * HOUR);
+        assertNotNull(reopened.get("k", 10));
+        assertNull(reopened.get("missing", 10));
+
+        assertEquals(1, reopened.getHits());
+        assertEquals(1, reopened.getMisses());
+        assertEquals(route(50).responseBytes, reopened.getBytesSaved());
+        assertTrue(reopened.statsLine().startsWith("hits 1/2 (50%)"));
+    }
+
+    private static RouteLegPlanner.PlannedRoute route(int points) {
+        double[] path = new double[points * 2];
+        for (int i = 0; i < points; i++) {
+            path[2 * i] = Math.round((14.65 + i * 0.0001) * 1e5) / 1e5;
+            path[2 * i + 1] = Math.round((120.95 + i * 0.00013) * 1e5) / 1e5;
+        }
+        // Directions JSON for a route runs to roughly 60 bytes per path point
+        return new RouteLegPlanner.PlannedRoute(path, RouteLegPlanner.boundsOf(path),
+                points * 12L, points * 2L, 1, points * 60L);
+    }
+}
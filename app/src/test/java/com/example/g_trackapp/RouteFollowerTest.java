@@ -0,0 +1,97 @@
+package com.example.g_trackapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RouteFollowerTest {
+
+    private static final double LAT = 14.6625;
+    private static final double LON = 120.9567;
+    private static final double LAT_PER_M = 1 / 111_195.0;
+    private static final double LON_PER_M = 1 / (111_195.0 * Math.cos(Math.toRadians(LAT)));
+
+    @Test
+    public void onRoute_reportsProgressAndRemaining() {
+        // 2 km due east in 10 m vertices, stops at 0, 1 km and 2 km
+        RouteFollower follower = new RouteFollower(eastPath(2000, 10), new double[]{
+                LAT, LON, LAT, LON + 1000 * LON_PER_M, LAT, LON + 2000 * LON_PER_M});
+        assertEquals(2000, follower.totalMeters(), 1);
+
+        RouteFollower.Progress progress = null;
+        for (int m = 0; m <= 1200; m += 20) progress = follower.update(fix(m, 8, m));
+        assertEquals(RouteFollower.State.ON_ROUTE, progress.state);
+        assertEquals(1200, progress.alongMeters, 1);
+        assertEquals(800, progress.remainingMeters, 1);
+        assertEquals(8, progress.crossTrackMeters, 0.5);
+        assertEquals(2, progress.nextWaypoint);
+        assertEquals(0.6, progress.fraction(follower.totalMeters()), 0.01);
+    }
+
+    @Test
+    public void sustainedDetour_asksForOneReroute() {
+        RouteFollower follower = new RouteFollower(eastPath(2000, 10), new double[0]);
+        for (int m = 0; m <= 500; m += 20) follower.update(fix(m, 0, m));
+
+        // Turn off north: short excursions are tolerated, then exactly one reroute request
+        int reroutes = 0;
+        RouteFollower.Progress progress = null;
+        for (int north = 20; north <= 300; north += 20) {
+            progress = follower.update(fix(500, north, 500 + north));
+            if (progress.state == RouteFollower.State.REROUTE) {
+                reroutes++;
+                assertTrue(progress.offRouteMeters >= RouteFollower.REROUTE_AFTER_M);
+            }
+        }
+        assertEquals(1, reroutes);
+        assertEquals(RouteFollower.State.OFF_ROUTE, progress.state);
+        assertEquals(500, progress.alongMeters, 1); // progress holds at the last match
+
+        // Rejoining further along counts as back on route
+        progress = follower.update(fix(900, 5, 1200));
+        assertEquals(RouteFollower.State.ON_ROUTE, progress.state);
+        assertEquals(900, progress.alongMeters, 1);
+    }
+
+    @Test
+    public void loopingRoute_doesNotJumpToTheLaterPass() {
+        // Out 1 km east and back on the same street: the window keeps the outbound match
+        double[] out = eastPath(1000, 10);
+        double[] path = new double[out.length * 2 - 2];
+        System.arraycopy(out, 0, path, 0, out.length);
+        for (int i = 1; i < out.length / 2; i++) {
+            path[out.length + 2 * (i - 1)] = out[out.length - 2 - 2 * i];
+            path[out.length + 2 * (i - 1) + 1] = out[out.length - 1 - 2 * i];
+        }
+        RouteFollower follower = new RouteFollower(path, new double[0]);
+        RouteFollower.Progress progress = follower.update(fix(100, 3, 0));
+        assertEquals(100, progress.alongMeters, 1);
+        for (int m = 100; m <= 1000; m += 25) follower.update(fix(m, 3, m));
+        progress = follower.update(fix(900, 3, 2000));
+        assertEquals(1100, progress.alongMeters, 2);
+    }
+
+    /** 50k-vertex route, fix every ~5 m */
+    @Test
+    public void longRoute_constantWorkPerFix() {
+        double[] path = eastPath(250_000, 5);
+        RouteFollower follower = new RouteFollower(path, new double[0]);
+
+        for (int m = 0; m <= 250_000; m += 5) follower.update(fix(m, (m / 50) % 2 == 0 ? 4 : -4, m));
+        assertTrue(follower.segmentsPerFix() < 100);
+    }
+
+    private static double[] eastPath(int meters, int step) {
+        int n = meters / step + 1;
+        double[] path = new double[n * 2];
+        for (int i = 0; i < n; i++) {
+            path[2 * i] = LAT;
+            path[2 * i + 1] = LON + i * step * LON_PER_M;
+        }
+        return path;
+    }
+
+    private static GeoFix fix(double east, double north, long seconds) {
+        return new GeoFix(LAT + north * LAT_PER_M, LON + east * LON_PER_M, 5f, 8f, 90f, seconds * 1000);
+    }
+}
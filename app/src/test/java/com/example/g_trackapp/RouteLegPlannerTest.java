@@ -0,0 +1,209 @@
+package com.example.g_trackapp;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.*;
+
+public class RouteLegPlannerTest {
+
+    private static final long LEG_METERS = 1000;
+    private static final long LEG_SECONDS = 120;
+
+    private MockWebServer server;
+    private ExecutorService executor;
+    private RouteLegPlanner planner;
+
+    /** Requests seen per chunk origin ("lat,lng") */
+    private final Map<String, AtomicInteger> requestsByOrigin = new ConcurrentHashMap<>();
+    /** Origins that fail (status → remaining failures) */
+    private final Map<String, String> failStatus = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> failuresLeft = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile long responseDelayMs = 0;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                return respond(request.getRequestUrl());
+            }
+        });
+        server.start();
+        executor = Executors.newFixedThreadPool(4);
+        planner = new RouteLegPlanner(new OkHttpClient(), server.url("/directions/json").toString(), "test-key", executor);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        server.shutdown();
+    }
+
+    @Test
+    public void chunk_overlapsOnBoundaryStops() {
+        List<int[]> chunks = RouteLegPlanner.chunk(60, 27);
+        assertEquals(3, chunks.size());
+        assertArrayEquals(new int[]{0, 26}, chunks.get(0));
+        assertArrayEquals(new int[]{26, 52}, chunks.get(1));
+        assertArrayEquals(new int[]{52, 59}, chunks.get(2));
+
+        assertEquals(1, RouteLegPlanner.chunk(2, 27).size());
+        assertTrue(RouteLegPlanner.chunk(1, 27).isEmpty());
+    }
+
+    @Test
+    public void plan_stitchesChunksIntoOneRoute() throws Exception {
+        double[][] stops = stops(60);
+        RouteLegPlanner.PlannedRoute route = planner.plan(stops[0], stops[1]);
+
+        assertEquals(3, route.chunks);
+        assertEquals(3, server.getRequestCount());
+        assertEquals(59 * LEG_METERS, route.distanceMeters);
+        assertEquals(59 * LEG_SECONDS, route.durationSeconds);
+
+        // Boundary stops appear once; every stop is on the path in order
+        assertEquals(60, route.pointCount());
+        for (int i = 0; i < 60; i++) {
+            assertEquals(stops[0][i], route.path[2 * i], 1e-5);
+            assertEquals(stops[1][i], route.path[2 * i + 1], 1e-5);
+        }
+    }
+
+    @Test
+    public void plan_keepsEachRequestWithinWaypointLimit() throws Exception {
+        double[][] stops = stops(200);
+        planner.plan(stops[0], stops[1]);
+
+        for (int i = 0; i < server.getRequestCount(); i++) {
+            String waypoints = server.takeRequest().getRequestUrl().queryParameter("waypoints");
+            int count = waypoints == null ? 0 : waypoints.split("\\|").length;
+            assertTrue(count <= RouteLegPlanner.MAX_WAYPOINTS);
+        }
+    }
+
+    @Test
+    public void plan_fetchesChunksConcurrently() throws Exception {
+        responseDelayMs = 200;
+        double[][] stops = stops(105); // four chunks
+        planner.plan(stops[0], stops[1]);
+
+        assertEquals(4, server.getRequestCount());
+        assertTrue("max in flight " + maxInFlight.get(), maxInFlight.get() >= 2);
+        assertTrue(maxInFlight.get() <= 4);
+    }
+
+    @Test
+    public void plan_retriesOnlyTheFailedChunk() throws Exception {
+        double[][] stops = stops(60);
+        String second = origin(stops, 26);
+        failStatus.put(second, "HTTP_500");
+        failuresLeft.put(second, new AtomicInteger(1));
+
+        RouteLegPlanner.PlannedRoute route = planner.plan(stops[0], stops[1]);
+
+        assertEquals(60, route.pointCount());
+        assertEquals(4, server.getRequestCount());
+        assertEquals(1, requestsByOrigin.get(origin(stops, 0)).get());
+        assertEquals(2, requestsByOrigin.get(second).get());
+        assertEquals(1, requestsByOrigin.get(origin(stops, 52)).get());
+    }
+
+    @Test
+    public void plan_doesNotRetryRequestDenied() throws Exception {
+        double[][] stops = stops(10);
+        String only = origin(stops, 0);
+        failStatus.put(only, "REQUEST_DENIED");
+        failuresLeft.put(only, new AtomicInteger(Integer.MAX_VALUE));
+
+        try {
+            planner.plan(stops[0], stops[1]);
+            fail("expected DirectionsException");
+        } catch (RouteLegPlanner.DirectionsException e) {
+            assertEquals("REQUEST_DENIED", e.status);
+        }
+        assertEquals(1, server.getRequestCount());
+    }
+
+    // 🔹 Fake Directions API: one straight leg per consecutive stop pair
+
+    private MockResponse respond(HttpUrl url) throws InterruptedException {
+        int now = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(now, Math::max);
+        try {
+            if (responseDelayMs > 0) Thread.sleep(responseDelayMs);
+
+            String origin = url.queryParameter("origin");
+            requestsByOrigin.computeIfAbsent(origin, k -> new AtomicInteger()).incrementAndGet();
+
+            AtomicInteger left = failuresLeft.get(origin);
+            if (left != null && left.getAndDecrement() > 0) {
+                String status = failStatus.get(origin);
+                if (status.startsWith("HTTP_")) {
+                    return new MockResponse().setResponseCode(Integer.parseInt(status.substring(5)));
+                }
+                return new MockResponse().setBody("{\"status\":\"" + status + "\",\"routes\":[]}");
+            }
+
+            List<GeoFix> points = new ArrayList<>();
+            points.add(point(origin));
+            String waypoints = url.queryParameter("waypoints");
+            if (waypoints != null) {
+                for (String w : waypoints.split("\\|")) points.add(point(w));
+            }
+            points.add(point(url.queryParameter("destination")));
+
+            StringBuilder legs = new StringBuilder();
+            for (int i = 1; i < points.size(); i++) {
+                if (legs.length() > 0) legs.append(',');
+                legs.append("{\"distance\":{\"value\":").append(LEG_METERS)
+                        .append("},\"duration\":{\"value\":").append(LEG_SECONDS).append("}}");
+            }
+            String body = "{\"status\":\"OK\",\"routes\":[{\"legs\":[" + legs
+                    + "],\"overview_polyline\":{\"points\":\""
+                    + PolylineCodec.encode(points).replace("\\", "\\\\") + "\"}}]}";
+            return new MockResponse().setBody(body);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private static GeoFix point(String latLng) {
+        String[] parts = latLng.split(",");
+        return new GeoFix(Double.parseDouble(parts[0]), Double.parseDouble(parts[1]),
+                Float.NaN, Float.NaN, Float.NaN, 0);
+    }
+
+    private static String origin(double[][] stops, int i) {
+        return stops[0][i] + "," + stops[1][i];
+    }
+
+    private static double[][] stops(int n) {
+        double[] lat = new double[n], lng = new double[n];
+        for (int i = 0; i < n; i++) {
+            // Rounded to polyline precision so stitched points compare exactly
+            lat[i] = Math.round((14.65 + i * 0.0007) * 1e5) / 1e5;
+            lng[i] = Math.round((120.95 + (i % 7) * 0.0004) * 1e5) / 1e5;
+        }
+        return new double[][]{lat, lng};
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.g_trackapp;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RouteOptimizerTest {
+
+    // Barangay-sized box around Malabon city hall (~2 km × 2 km)
+    private static final double LAT = 14.6625;
+    private static final double LON = 120.9567;
+    private static final double SPAN = 0.018;
+
+    @Test
+    public void order_isPermutationStartingAtStart() {
+        double[][] stops = randomStops(60, 1);
+        int[] order = new RouteOptimizer(500).order(stops[0], stops[1], 7);
+
+        assertEquals(60, order.length);
+        assertEquals(7, order[0]);
+        boolean[] seen = new boolean[60];
+        for (int i : order) {
+            assertFalse("duplicate " + i, seen[i]);
+            seen[i] = true;
+        }
+    }
+
+    @Test
+    public void order_stopsAlongAStreetAreVisitedInSequence() {
+        // Shuffled houses along one straight street, starting at the west end
+        int n = 20;
+        double[] lat = new double[n], lon = new double[n];
+        int[] shuffled = {0, 13, 4, 19, 8, 1, 16, 11, 6, 3, 17, 9, 14, 2, 18, 7, 12, 5, 15, 10};
+        for (int i = 0; i < n; i++) {
+            lat[i] = LAT;
+            lon[i] = LON + shuffled[i] * 0.0005;
+        }
+        int[] order = new RouteOptimizer(500).order(lat, lon, 0);
+        for (int i = 1; i < n; i++) {
+            assertEquals(i, shuffled[order[i]]);
+        }
+    }
+
+    @Test
+    public void order_improvesOnNearestNeighbor() {
+        double[][] stops = randomStops(150, 2);
+        float[] matrix = RouteOptimizer.haversineMatrix(stops[0], stops[1]);
+
+        RouteOptimizer constructionOnly = new RouteOptimizer(0);
+        double nn = RouteOptimizer.pathLength(matrix, 150, constructionOnly.order(matrix, 150, 0));
+
+        RouteOptimizer optimizer = new RouteOptimizer(1000);
+        double improved = RouteOptimizer.pathLength(matrix, 150, optimizer.order(matrix, 150, 0));
+
+        assertTrue(improved < nn);
+        assertTrue(optimizer.getTwoOptMoves() + optimizer.getOrOptMoves() > 0);
+    }
+
+    @Test
+    public void order_tinyInputs() {
+        assertEquals(0, new RouteOptimizer(100).order(new double[0], new double[0], 0).length);
+        assertArrayEquals(new int[]{0}, new RouteOptimizer(100).order(new double[]{LAT}, new double[]{LON}, 0));
+        assertArrayEquals(new int[]{1, 0},
+                new RouteOptimizer(100).order(new double[]{LAT, LAT + 0.001}, new double[]{LON, LON}, 1));
+    }
+
+    /** Stop-count sweep: local search always finds moves and never ends up longer than its start */
+    @Test
+    public void improvesOnNearestNeighbor_acrossStopCounts() {
+        int[] counts = {25, 60, 100, 200, 400};
+        for (int n : counts) {
+            double[][] stops = randomStops(n, n);
+            float[] matrix = RouteOptimizer.haversineMatrix(stops[0], stops[1]);
+
+            RouteOptimizer optimizer = new RouteOptimizer(2000);
+            double length = RouteOptimizer.pathLength(matrix, n, optimizer.order(matrix, n, 0));
+            double nnLength = RouteOptimizer.pathLength(matrix, n, new RouteOptimizer(0).order(matrix, n, 0));
+
+            assertTrue("n=" + n, optimizer.getTwoOptMoves() + optimizer.getOrOptMoves() > 0);
+            assertTrue("n=" + n, length <= nnLength);
+        }
+    }
+
+    private static double[][] randomStops(int n, long seed) {
+        Random random = new Random(seed);
+        double[] lat = new double[n], lon = new double[n];
+        for (int i = 0; i < n; i++) {
+            lat[i] = LAT + random.nextDouble() * SPAN;
+            lon[i] = LON + random.nextDouble() * SPAN;
+        }
+        return new double[][]{lat, lon};
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.g_trackapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SamplingPolicyTest {
+
+    private static final double LAT = 14.6625;
+    private static final double LON = 120.9567;
+    private static final double LAT_PER_M = 1 / 111_195.0;
+
+    private final SamplingPolicy policy = new SamplingPolicy();
+    private double north = 0;
+    private long time = 0;
+
+    @Test
+    public void startsCrawling_andDrivingNeedsConfirmation() {
+        assertEquals(SamplingPolicy.State.CRAWLING, policy.getState());
+
+        // Speed up to ~10 m/s: one agreeing fix is not enough, the second switches
+        assertNull(step(5_000, 50));
+        assertNull(step(5_000, 50));
+        assertEquals(SamplingPolicy.State.DRIVING, step(5_000, 50));
+    }
+
+    @Test
+    public void briefSlowdown_whileDriving_doesNotFlipBack() {
+        drive(24, 10_000, 100); // a few minutes at 10 m/s
+        assertEquals(SamplingPolicy.State.DRIVING, policy.getState());
+
+        // One slow fix barely moves the minute average: still driving
+        assertNull(step(10_000, 5));
+        assertEquals(SamplingPolicy.State.DRIVING, policy.getState());
+
+        // Door-to-door pace for a while: back to crawling once confirmed
+        SamplingPolicy.State changed = null;
+        for (int i = 0; i < 12 && changed == null; i++) changed = step(5_000, 5);
+        assertEquals(SamplingPolicy.State.CRAWLING, changed);
+    }
+
+    @Test
+    public void dwellingInPlace_parks_andMovingUnparksImmediately() {
+        SamplingPolicy.State changed = null;
+        for (int i = 0; i < 40 && changed == null; i++) changed = step(10_000, 0.5);
+        assertEquals(SamplingPolicy.State.PARKED, changed);
+        assertTrue(time >= SamplingPolicy.PARK_DWELL_MS);
+
+        // Leaving the park radius: no confirmation needed
+        SamplingPolicy.State next = step(5_000, 40);
+        assertNotNull(next);
+        assertNotEquals(SamplingPolicy.State.PARKED, next);
+    }
+
+    @Test
+    public void slowCrawlInsideParkRadius_forUnderTheDwell_staysCrawling() {
+        for (int i = 0; i < 17; i++) assertNull(step(10_000, 1));
+        assertEquals(SamplingPolicy.State.CRAWLING, policy.getState());
+    }
+
+    @Test
+    public void stateSettings_getSparserWhenParked() {
+        assertTrue(SamplingPolicy.State.PARKED.intervalMillis > SamplingPolicy.State.DRIVING.intervalMillis);
+        assertTrue(SamplingPolicy.State.DRIVING.intervalMillis > SamplingPolicy.State.CRAWLING.intervalMillis);
+    }
+
+    private void drive(int fixes, long everyMillis, double meters) {
+        for (int i = 0; i < fixes; i++) step(everyMillis, meters);
+    }
+
+    /** Advance time and move north; speed is derived from the positions */
+    private SamplingPolicy.State step(long millis, double meters) {
+        time += millis;
+        north += meters;
+        return policy.observe(new GeoFix(LAT + north * LAT_PER_M, LON, 5f, Float.NaN, Float.NaN, time));
+    }
+}
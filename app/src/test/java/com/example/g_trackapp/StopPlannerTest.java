@@ -0,0 +1,102 @@
+package com.example.g_trackapp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class StopPlannerTest {
+
+    private static final double LAT = 14.6625;
+    private static final double LON = 120.9567;
+    /** Degrees of longitude per meter at LAT */
+    private static final double LON_PER_M = 1 / (111_195.0 * Math.cos(Math.toRadians(LAT)));
+
+    @Test
+    public void fromLevel_mapsReportLevels() {
+        assertEquals(StopPlanner.Priority.EXTREME, StopPlanner.Priority.fromLevel("Extreme"));
+        assertEquals(StopPlanner.Priority.HIGH, StopPlanner.Priority.fromLevel("High"));
+        assertEquals(StopPlanner.Priority.MEDIUM, StopPlanner.Priority.fromLevel("Medium"));
+        assertEquals(StopPlanner.Priority.LOW, StopPlanner.Priority.fromLevel("Low"));
+        assertEquals(StopPlanner.Priority.LOW, StopPlanner.Priority.fromLevel(null));
+    }
+
+    @Test
+    public void insert_lowStopsFollowTheStreet() {
+        StopPlanner planner = new StopPlanner(LAT, LON);
+        int[] shuffled = {4, 9, 1, 7, 3, 10, 2, 8, 6, 5};
+        for (int i : shuffled) planner.insert(stopEast("low" + i, i * 500, StopPlanner.Priority.LOW));
+
+        List<StopPlanner.Stop> stops = planner.stops();
+        for (int i = 0; i < stops.size(); i++) assertEquals("low" + (i + 1), stops.get(i).id);
+        assertEquals(5000, planner.lengthMeters(), 5);
+    }
+
+    @Test
+    public void insert_extremeReportJumpsTheQueueToMeetItsDeadline() {
+        StopPlanner planner = new StopPlanner(LAT, LON);
+        for (int i = 1; i <= 10; i++) planner.insert(stopEast("low" + i, i * 500, StopPlanner.Priority.LOW));
+
+        // 2 km west: appending after the 5 km eastern run would reach it after ~12 km (> 3.6 km bound)
+        int index = planner.insert(stopEast("extreme", -2000, StopPlanner.Priority.EXTREME));
+        assertEquals(0, index);
+        assertEquals(0, planner.lateStops());
+        assertEquals(0, planner.getLateInsertions());
+    }
+
+    @Test
+    public void insert_respectsDeadlinesAlreadyPromised() {
+        StopPlanner planner = new StopPlanner(LAT, LON);
+        planner.insert(stopEast("extreme", 3000, StopPlanner.Priority.EXTREME));
+        // A detour of ~2 km before the extreme stop would make it late; it must go after
+        int index = planner.insert(stopNorth("low", 1000, StopPlanner.Priority.LOW));
+        assertEquals(1, index);
+        assertEquals(0, planner.lateStops());
+    }
+
+    @Test
+    public void remove_splicesAndReinsertMoves() {
+        StopPlanner planner = new StopPlanner(LAT, LON);
+        for (int i = 1; i <= 5; i++) planner.insert(stopEast("s" + i, i * 400, StopPlanner.Priority.MEDIUM));
+
+        assertTrue(planner.remove("s3"));
+        assertFalse(planner.remove("s3"));
+        assertFalse(planner.contains("s3"));
+        assertEquals(4, planner.size());
+        assertEquals(2000, planner.lengthMeters(), 5);
+
+        // Same id again: moved, not duplicated
+        planner.insert(stopEast("s1", 2400, StopPlanner.Priority.MEDIUM));
+        assertEquals(4, planner.size());
+        assertEquals("s1", planner.stops().get(3).id);
+    }
+
+    @Test
+    public void incrementalInsertion_staysCloseToFullReSolve() {
+        Random random = new Random(7);
+        List<StopPlanner.Stop> reports = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            reports.add(new StopPlanner.Stop("r" + i, LAT + random.nextDouble() * 0.018,
+                    LON + random.nextDouble() * 0.018, StopPlanner.Priority.LOW, null));
+        }
+
+        StopPlanner incremental = new StopPlanner(LAT, LON);
+        for (StopPlanner.Stop s : reports) incremental.insert(s);
+
+        StopPlanner solved = new StopPlanner(LAT, LON);
+        solved.insertAll(reports, new RouteOptimizer(1000));
+
+        assertTrue(incremental.lengthMeters() <= solved.lengthMeters() * 1.5);
+    }
+
+    private static StopPlanner.Stop stopEast(String id, double meters, StopPlanner.Priority priority) {
+        return new StopPlanner.Stop(id, LAT, LON + meters * LON_PER_M, priority, null);
+    }
+
+    private static StopPlanner.Stop stopNorth(String id, double meters, StopPlanner.Priority priority) {
+        return new StopPlanner.Stop(id, LAT + meters / 111_195.0, LON, priority, null);
+    }
+}
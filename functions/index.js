@@ -1,7 +1,7 @@
 /**
  * 🔔 Firebase Cloud Functions (G-Track)
  * Handles:
- * 1. Collector location → Resident notifications (within 50m)
+ * 1. Geohash cell keys (drop-offs, resident homes) + nearby resident alerts
  * 2. SMS verification via Twilio (live)
  * 3. Unified OTP-based password reset (Collectors + Residents)
  * 4. Secure server-side resident login
@@ -19,38 +19,205 @@ initializeApp();
 const db = getFirestore();
 
 /* -------------------------------------------------------------------------- */
-/* 🧭 1. NEARBY RESIDENT NOTIFICATIONS                                         */
+/* 🗺️ 1. GEOHASH CELL KEYS                                                    */
 /* -------------------------------------------------------------------------- */
 
+// Same encoding as GeoCell.java on the device (field "geohash", precision 9)
+const GEOHASH_BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+const GEOHASH_PRECISION = 9;
+
+const encodeGeohash = (latitude, longitude, precision = GEOHASH_PRECISION) => {
+  let minLat = -90;
+  let maxLat = 90;
+  let minLon = -180;
+  let maxLon = 180;
+  let hash = "";
+  let evenBit = true;
+  let bit = 0;
+  let ch = 0;
+
+  while (hash.length < precision) {
+    if (evenBit) {
+      const mid = (minLon + maxLon) / 2;
+      if (longitude >= mid) {
+        ch = (ch << 1) | 1;
+        minLon = mid;
+      } else {
+        ch <<= 1;
+        maxLon = mid;
+      }
+    } else {
+      const mid = (minLat + maxLat) / 2;
+      if (latitude >= mid) {
+        ch = (ch << 1) | 1;
+        minLat = mid;
+      } else {
+        ch <<= 1;
+        maxLat = mid;
+      }
+    }
+    evenBit = !evenBit;
+    if (++bit === 5) {
+      hash += GEOHASH_BASE32[ch];
+      bit = 0;
+      ch = 0;
+    }
+  }
+  return hash;
+};
+
+// Same as GeoCell.bounds: [minLat, minLon, maxLat, maxLon]
+const geohashBounds = (hash) => {
+  let minLat = -90;
+  let maxLat = 90;
+  let minLon = -180;
+  let maxLon = 180;
+  let evenBit = true;
+
+  for (const c of hash) {
+    const value = GEOHASH_BASE32.indexOf(c);
+    if (value < 0) throw new Error(`Invalid geohash: ${hash}`);
+    for (let shift = 4; shift >= 0; shift--) {
+      const b = (value >> shift) & 1;
+      if (evenBit) {
+        const mid = (minLon + maxLon) / 2;
+        if (b === 1) minLon = mid;
+        else maxLon = mid;
+      } else {
+        const mid = (minLat + maxLat) / 2;
+        if (b === 1) minLat = mid;
+        else maxLat = mid;
+      }
+      evenBit = !evenBit;
+    }
+  }
+  return [minLat, minLon, maxLat, maxLon];
+};
+
+// Same as GeoCell.neighborhood: the cell followed by its (up to) 8 neighbors
+const geohashNeighborhood = (hash) => {
+  const [minLat, minLon, maxLat, maxLon] = geohashBounds(hash);
+  const height = maxLat - minLat;
+  const width = maxLon - minLon;
+  const cells = [hash];
+  for (let dLat = -1; dLat <= 1; dLat++) {
+    for (let dLon = -1; dLon <= 1; dLon++) {
+      if (dLat === 0 && dLon === 0) continue;
+      const lat = (minLat + maxLat) / 2 + dLat * height;
+      let lon = (minLon + maxLon) / 2 + dLon * width;
+      if (lat > 90 || lat < -90) continue;
+      if (lon > 180) lon -= 360;
+      if (lon < -180) lon += 360;
+      cells.push(encodeGeohash(lat, lon, hash.length));
+    }
+  }
+  return cells;
+};
+
+// Drop-off bins are written from the admin side; stamp their cell key here
+exports.stampDropOffGeohash = onDocumentWritten(
+  {
+    document: "dropofflocation/{dropOffId}",
+    region: "asia-northeast1",
+  },
+  async (event) => {
+    const after = event.data?.after?.data();
+    if (typeof after?.latitude !== "number" || typeof after?.longitude !== "number") return;
+
+    const geohash = encodeGeohash(after.latitude, after.longitude);
+    if (after.geohash === geohash) return; // already current — also stops re-trigger loops
+
+    await event.data.after.ref.update({ geohash });
+    console.log(`🗺️ Stamped geohash ${geohash} on drop-off ${event.params.dropOffId}`);
+  }
+);
+
+/**
+ * ✅ One-off migration: stamp drop-offs written before stampDropOffGeohash existed.
+ * The maps query drop-offs by geohash range, so unstamped ones would not show.
+ * Safe to re-run; returns how many documents it stamped.
+ */
+const BACKFILL_PAGE_SIZE = 400; // under the 500-write batch limit
+
+exports.backfillDropOffGeohash = onCall({ region: "asia-northeast1", timeoutSeconds: 540 }, async () => {
+  let stamped = 0;
+  let last = null;
+
+  for (;;) {
+    let page = db.collection("dropofflocation").orderBy("__name__").limit(BACKFILL_PAGE_SIZE);
+    if (last) page = page.startAfter(last);
+    const snapshot = await page.get();
+    if (snapshot.empty) break;
+
+    const batch = db.batch();
+    let writes = 0;
+    for (const doc of snapshot.docs) {
+      const data = doc.data();
+      if (typeof data.latitude !== "number" || typeof data.longitude !== "number") continue;
+      const geohash = encodeGeohash(data.latitude, data.longitude);
+      if (data.geohash === geohash) continue;
+      batch.update(doc.ref, { geohash });
+      writes++;
+    }
+    if (writes > 0) await batch.commit();
+    stamped += writes;
+    last = snapshot.docs[snapshot.docs.length - 1];
+  }
+
+  console.log(`🗺️ Backfilled geohash on ${stamped} drop-offs`);
+  return { success: true, stamped };
+});
+
+/* -------------------------------------------------------------------------- */
+/* 🧭 1b. NEARBY RESIDENT NOTIFICATIONS                                        */
+/* -------------------------------------------------------------------------- */
+
+// Same as CollectorProximityMonitor.java: precision-7 cells (~153 m) around the home
+const HOME_CELL_PRECISION = 7;
+const ALERT_RADIUS_M = 50;
+const COOLDOWN_MS = 5 * 60 * 1000;
+
 const haversineDistance = (a, b) => {
   const toRad = (x) => (x * Math.PI) / 180;
   const R = 6371000;
   const dLat = toRad(b.latitude - a.latitude);
   const dLon = toRad(b.longitude - a.longitude);
-  const lat1 = toRad(a.latitude);
-  const lat2 = toRad(b.latitude);
-  const c =
-    2 *
-    Math.atan2(
-      Math.sqrt(
-        Math.sin(dLat / 2) ** 2 +
-          Math.cos(lat1) * Math.cos(lat2) * Math.sin(dLon / 2) ** 2
-      ),
-      Math.sqrt(
-        1 -
-          (Math.sin(dLat / 2) ** 2 +
-            Math.cos(lat1) * Math.cos(lat2) * Math.sin(dLon / 2) ** 2)
-      )
-    );
-  return R * c;
+  const h =
+    Math.sin(dLat / 2) ** 2 +
+    Math.cos(toRad(a.latitude)) * Math.cos(toRad(b.latitude)) * Math.sin(dLon / 2) ** 2;
+  return 2 * R * Math.atan2(Math.sqrt(h), Math.sqrt(1 - h));
 };
 
+// Residents are found by home cell, so stamp it whenever their coordinates change
+exports.stampResidentHomeCell = onDocumentWritten(
+  {
+    document: "residents/{residentId}",
+    region: "asia-northeast1",
+  },
+  async (event) => {
+    const after = event.data?.after?.data();
+    if (typeof after?.latitude !== "number" || typeof after?.longitude !== "number") return;
+
+    const homeCell = encodeGeohash(after.latitude, after.longitude, HOME_CELL_PRECISION);
+    if (after.homeCell === homeCell) return; // already current — also stops re-trigger loops
+
+    await event.data.after.ref.update({ homeCell });
+    console.log(`🏠 Stamped home cell ${homeCell} on resident ${event.params.residentId}`);
+  }
+);
+
+/**
+ * Background fallback for CollectorProximityMonitor (which only listens while the
+ * resident app is running). Only residents whose home cell is in the truck's 3×3
+ * neighborhood are read — not every resident on every tick. The push is a data
+ * message: the app raises it through the same per-collector cooldown as its own
+ * listener, so a resident with the app open is not alerted twice.
+ */
 const notifiedResidents = new Map();
-const COOLDOWN_MS = 5 * 60 * 1000;
 
 exports.notifyNearbyResidents = onDocumentWritten(
   {
-    document: "collectors/{collectorId}",
+    document: "collector_positions/{collectorId}",
     region: "asia-northeast1",
     timeoutSeconds: 60,
     memory: "256MiB",
@@ -58,57 +225,45 @@ exports.notifyNearbyResidents = onDocumentWritten(
   async (event) => {
     const before = event.data?.before?.data();
     const after = event.data?.after?.data();
-    if (!after?.latitude || !after?.longitude) return;
+    if (typeof after?.latitude !== "number" || typeof after?.longitude !== "number") return;
+    if (before && before.latitude === after.latitude && before.longitude === after.longitude) return;
 
-    if (
-      before &&
-      before.latitude === after.latitude &&
-      before.longitude === after.longitude
-    )
-      return console.log("No change in location — skip.");
+    const collectorId = event.params.collectorId;
+    const truck = { latitude: after.latitude, longitude: after.longitude };
+    const truckCell = encodeGeohash(truck.latitude, truck.longitude, HOME_CELL_PRECISION);
+    const residents = await db
+      .collection("residents")
+      .where("homeCell", "in", geohashNeighborhood(truckCell))
+      .get();
 
-    const collectorName = after.name || after.truckNumber || "Collector";
-    const collectorLocation = { latitude: after.latitude, longitude: after.longitude };
-
-    const residents = await db.collection("residents").get();
     const now = Date.now();
-    const sendPromises = [];
-
-    for (const doc of residents.docs) {
+    const nearby = residents.docs.filter((doc) => {
       const resident = doc.data();
-      if (!resident.latitude || !resident.longitude || !resident.fcmToken) continue;
-
-      const distance = haversineDistance(collectorLocation, resident);
-      const last = notifiedResidents.get(doc.id) || 0;
-      if (distance <= 50 && now - last > COOLDOWN_MS) {
-        notifiedResidents.set(doc.id, now);
-
-        sendPromises.push(
-          getMessaging()
-            .send({
-              token: resident.fcmToken,
-              notification: {
-                title: `${collectorName} is nearby`,
-                body: "Your garbage collector is within 50 meters. Please prepare your garbage.",
-              },
-            })
-            .then(() => console.log(`✅ Sent FCM to ${resident.username}`))
-            .catch((e) => console.error(`❌ Failed to send FCM`, e))
-        );
-
-        sendPromises.push(
-          db.collection("notifications").add({
-            residentId: doc.id,
-            message: `${collectorName} is nearby — please prepare your garbage.`,
-            read: false,
-            timestamp: new Date(),
+      if (!resident.fcmToken || typeof resident.latitude !== "number") return false;
+      if (haversineDistance(truck, resident) > ALERT_RADIUS_M) return false;
+      const key = `${doc.id}:${collectorId}`;
+      if (now - (notifiedResidents.get(key) || 0) < COOLDOWN_MS) return false;
+      notifiedResidents.set(key, now);
+      return true;
+    });
+    if (nearby.length === 0) return;
+
+    // Position docs are slim; the display name lives on the profile document
+    const profile = (await db.collection("collectors").doc(collectorId).get()).data() || {};
+    const collectorName = profile.name || profile.firstName || profile.truckNumber || "Collector";
+
+    await Promise.all(
+      nearby.map((doc) =>
+        getMessaging()
+          .send({
+            token: doc.get("fcmToken"),
+            data: { type: "collector_nearby", collectorId, collectorName },
+            android: { priority: "high" },
           })
-        );
-      }
-    }
-
-    await Promise.all(sendPromises);
-    console.log("✅ Notifications processed.");
+          .then(() => console.log(`✅ Sent nearby alert to ${doc.get("username")}`))
+          .catch((e) => console.error(`❌ Failed to send FCM`, e))
+      )
+    );
   }
 );
 
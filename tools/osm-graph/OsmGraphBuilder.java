@@ -0,0 +1,280 @@
+package com.example.g_trackapp.tools;
+
+import com.example.g_trackapp.GeoMath;
+import com.example.g_trackapp.RoadGraph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * 🏗️ OsmGraphBuilder
+ * Build-time converter: OSM XML extract of the service area → road_graph.gtrg
+ * (the {@link RoadGraph} file shipped as an app asset). Streams the XML with
+ * StAX, keeps drivable ways only, orders nodes along a Z-order curve so nearby
+ * nodes share pages in the mapped file, drops everything outside the largest
+ * connected piece of road and precomputes the ALT landmarks.
+ *
+ * Usage: OsmGraphBuilder extract.osm road_graph.gtrg [landmarks]
+ */
+public final class OsmGraphBuilder {
+
+    private static final int DEFAULT_LANDMARKS = 8;
+
+    /** Highway values a garbage truck may drive on */
+    private static final Set<String> DRIVABLE = new HashSet<>(Arrays.asList(
+            "motorway", "motorway_link", "trunk", "trunk_link", "primary", "primary_link",
+            "secondary", "secondary_link", "tertiary", "tertiary_link", "unclassified",
+            "residential", "living_street", "service", "road"));
+
+    // OSM nodes as read (ids ascending in a normal extract; sorted if not)
+    private long[] nodeIds = new long[1 << 16];
+    private double[] nodeLat = new double[1 << 16];
+    private double[] nodeLng = new double[1 << 16];
+    private int nodeCount;
+
+    // Drivable ways: node id runs plus direction (1 forward, -1 backward, 0 both)
+    private final List<long[]> wayNodes = new ArrayList<>();
+    private final List<Integer> wayDirections = new ArrayList<>();
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: OsmGraphBuilder extract.osm road_graph.gtrg [landmarks]");
+            System.exit(2);
+        }
+        int landmarks = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_LANDMARKS;
+
+        long start = System.currentTimeMillis();
+        OsmGraphBuilder builder = new OsmGraphBuilder();
+        try (InputStream in = new BufferedInputStream(new FileInputStream(args[0]))) {
+            builder.read(in);
+        }
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(args[1]))) {
+            builder.write(out, landmarks);
+        }
+        System.out.println("Done in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    // 🔹 Pass over the XML: remember every node's position and every drivable way
+    void read(InputStream in) throws Exception {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        XMLStreamReader xml = factory.createXMLStreamReader(in);
+
+        long[] refs = new long[256];
+        int refCount = 0;
+        boolean inWay = false;
+        String highway = null, oneway = null, junction = null;
+
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                switch (xml.getLocalName()) {
+                    case "node":
+                        addNode(Long.parseLong(xml.getAttributeValue(null, "id")),
+                                Double.parseDouble(xml.getAttributeValue(null, "lat")),
+                                Double.parseDouble(xml.getAttributeValue(null, "lon")));
+                        break;
+                    case "way":
+                        inWay = true;
+                        refCount = 0;
+                        highway = oneway = junction = null;
+                        break;
+                    case "nd":
+                        if (!inWay) break;
+                        if (refCount == refs.length) refs = Arrays.copyOf(refs, refCount * 2);
+                        refs[refCount++] = Long.parseLong(xml.getAttributeValue(null, "ref"));
+                        break;
+                    case "tag":
+                        if (!inWay) break;
+                        String k = xml.getAttributeValue(null, "k");
+                        String v = xml.getAttributeValue(null, "v");
+                        if ("highway".equals(k)) highway = v;
+                        else if ("oneway".equals(k)) oneway = v;
+                        else if ("junction".equals(k)) junction = v;
+                        break;
+                    default:
+                        break;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && "way".equals(xml.getLocalName())) {
+                inWay = false;
+                if (highway == null || !DRIVABLE.contains(highway) || refCount < 2) continue;
+                wayNodes.add(Arrays.copyOf(refs, refCount));
+                wayDirections.add(direction(highway, oneway, junction));
+            }
+        }
+        xml.close();
+        System.out.println("Read " + nodeCount + " nodes, " + wayNodes.size() + " drivable ways");
+    }
+
+    private static int direction(String highway, String oneway, String junction) {
+        if ("-1".equals(oneway) || "reverse".equals(oneway)) return -1;
+        if ("yes".equals(oneway) || "true".equals(oneway) || "1".equals(oneway)) return 1;
+        if ("no".equals(oneway)) return 0;
+        if ("roundabout".equals(junction) || "motorway".equals(highway)) return 1;
+        return 0;
+    }
+
+    private void addNode(long id, double lat, double lng) {
+        if (nodeCount == nodeIds.length) {
+            nodeIds = Arrays.copyOf(nodeIds, nodeCount * 2);
+            nodeLat = Arrays.copyOf(nodeLat, nodeCount * 2);
+            nodeLng = Arrays.copyOf(nodeLng, nodeCount * 2);
+        }
+        nodeIds[nodeCount] = id;
+        nodeLat[nodeCount] = lat;
+        nodeLng[nodeCount] = lng;
+        nodeCount++;
+    }
+
+    void write(OutputStream out, int landmarks) throws Exception {
+        sortNodesById();
+
+        // 🔹 Edges between consecutive way nodes, over OSM node indices
+        int[] from = new int[1024], to = new int[1024];
+        float[] length = new float[1024];
+        int edges = 0;
+        for (int w = 0; w < wayNodes.size(); w++) {
+            long[] refs = wayNodes.get(w);
+            int direction = wayDirections.get(w);
+            for (int i = 1; i < refs.length; i++) {
+                int a = indexOf(refs[i - 1]), b = indexOf(refs[i]);
+                if (a < 0 || b < 0 || a == b) continue; // clipped at the extract border
+                float meters = (float) GeoMath.distanceMeters(nodeLat[a], nodeLng[a], nodeLat[b], nodeLng[b]);
+                if (edges + 2 > from.length) {
+                    from = Arrays.copyOf(from, from.length * 2);
+                    to = Arrays.copyOf(to, to.length * 2);
+                    length = Arrays.copyOf(length, length.length * 2);
+                }
+                if (direction >= 0) {
+                    from[edges] = a; to[edges] = b; length[edges++] = meters;
+                }
+                if (direction <= 0) {
+                    from[edges] = b; to[edges] = a; length[edges++] = meters;
+                }
+            }
+        }
+
+        // 🔹 Largest weakly connected component only (no snapping onto islands)
+        int[] root = new int[nodeCount];
+        for (int i = 0; i < nodeCount; i++) root[i] = i;
+        for (int e = 0; e < edges; e++) union(root, from[e], to[e]);
+        int[] size = new int[nodeCount];
+        boolean[] used = new boolean[nodeCount];
+        for (int e = 0; e < edges; e++) {
+            used[from[e]] = true;
+            used[to[e]] = true;
+        }
+        int biggest = -1;
+        for (int i = 0; i < nodeCount; i++) {
+            if (!used[i]) continue;
+            int r = find(root, i);
+            if (++size[r] > (biggest < 0 ? 0 : size[biggest])) biggest = r;
+        }
+
+        // 🔹 Renumber kept nodes in Z-order so neighbors are neighbors in the file
+        List<Integer> kept = new ArrayList<>();
+        for (int i = 0; i < nodeCount; i++) if (used[i] && find(root, i) == biggest) kept.add(i);
+        long[] zKeys = new long[kept.size()];
+        for (int i = 0; i < kept.size(); i++) {
+            int node = kept.get(i);
+            zKeys[i] = (zOrder(nodeLat[node], nodeLng[node]) << 24) | i; // index in the low bits
+        }
+        Arrays.sort(zKeys);
+        int n = kept.size();
+        int[] newIndex = new int[nodeCount];
+        Arrays.fill(newIndex, -1);
+        double[] lat = new double[n], lng = new double[n];
+        for (int i = 0; i < n; i++) {
+            int node = kept.get((int) (zKeys[i] & 0xFFFFFF));
+            newIndex[node] = i;
+            lat[i] = nodeLat[node];
+            lng[i] = nodeLng[node];
+        }
+
+        // 🔹 CSR adjacency
+        int[] edgeStart = new int[n + 1];
+        int m = 0;
+        for (int e = 0; e < edges; e++) {
+            if (newIndex[from[e]] < 0) continue;
+            edgeStart[newIndex[from[e]] + 1]++;
+            m++;
+        }
+        for (int v = 0; v < n; v++) edgeStart[v + 1] += edgeStart[v];
+        int[] edgeTarget = new int[m];
+        float[] edgeLength = new float[m];
+        int[] fill = Arrays.copyOf(edgeStart, n);
+        for (int e = 0; e < edges; e++) {
+            int a = newIndex[from[e]];
+            if (a < 0) continue;
+            int slot = fill[a]++;
+            edgeTarget[slot] = newIndex[to[e]];
+            edgeLength[slot] = length[e];
+        }
+
+        System.out.println("Graph: " + n + " nodes, " + m + " edges, " + landmarks + " landmarks");
+        RoadGraph.write(out, lat, lng, edgeStart, edgeTarget, edgeLength, landmarks);
+    }
+
+    private void sortNodesById() {
+        for (int i = 1; i < nodeCount; i++) {
+            if (nodeIds[i - 1] > nodeIds[i]) {
+                Integer[] order = new Integer[nodeCount];
+                for (int j = 0; j < nodeCount; j++) order[j] = j;
+                Arrays.sort(order, (a, b) -> Long.compare(nodeIds[a], nodeIds[b]));
+                long[] ids = new long[nodeCount];
+                double[] lat = new double[nodeCount], lng = new double[nodeCount];
+                for (int j = 0; j < nodeCount; j++) {
+                    ids[j] = nodeIds[order[j]];
+                    lat[j] = nodeLat[order[j]];
+                    lng[j] = nodeLng[order[j]];
+                }
+                nodeIds = ids;
+                nodeLat = lat;
+                nodeLng = lng;
+                return;
+            }
+        }
+    }
+
+    private int indexOf(long id) {
+        int i = Arrays.binarySearch(nodeIds, 0, nodeCount, id);
+        return i < 0 ? -1 : i;
+    }
+
+    private static int find(int[] root, int i) {
+        while (root[i] != i) {
+            root[i] = root[root[i]];
+            i = root[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] root, int a, int b) {
+        root[find(root, a)] = find(root, b);
+    }
+
+    /** Interleaved 19-bit lat/lng quantization (~40 m near the equator), enough to group neighbors */
+    private static long zOrder(double lat, double lng) {
+        long y = (long) ((lat + 90) / 180 * ((1 << 19) - 1));
+        long x = (long) ((lng + 180) / 360 * ((1 << 19) - 1));
+        long z = 0;
+        for (int bit = 0; bit < 19; bit++) {
+            z |= ((x >> bit) & 1L) << (2 * bit);
+            z |= ((y >> bit) & 1L) << (2 * bit + 1);
+        }
+        return z;
+    }
+}